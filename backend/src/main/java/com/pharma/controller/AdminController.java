@@ -12,6 +12,7 @@ import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.pharma.dto.response.ApiResponse;
 import com.pharma.model.Order;
@@ -77,12 +78,13 @@ public class AdminController {
         return ResponseEntity.ok(new ApiResponse<>(true, "Order status updated successfully", order));
     }
 
+    // Streamed as it is written; see OrderExportService
     @GetMapping("/orders/export")
-    public ResponseEntity<byte[]> exportOrders(
+    public ResponseEntity<StreamingResponseBody> exportOrders(
             Authentication auth, HttpServletRequest httpRequest,
             @RequestParam(required = false) String customerEmail,
             @RequestParam(required = false) String startDate,
-            @RequestParam(required = false) String endDate) throws java.io.IOException {
+            @RequestParam(required = false) String endDate) {
 
         java.time.LocalDateTime start = null;
         java.time.LocalDateTime end = null;
@@ -95,7 +97,9 @@ public class AdminController {
             end = java.time.LocalDate.parse(endDate).atTime(23, 59, 59);
         }
 
-        byte[] excelContent = orderExportService.exportAllOrders(customerEmail, start, end);
+        java.time.LocalDateTime from = start;
+        java.time.LocalDateTime to = end;
+        StreamingResponseBody excelContent = out -> orderExportService.writeAllOrders(customerEmail, from, to, out);
         auditService.log(AuditAction.ORDERS_EXPORTED, "ORDER", null,
                 "Exported orders" + (customerEmail != null ? " for " + customerEmail : ""), auth, httpRequest);
 
@@ -2,6 +2,7 @@ package com.pharma.controller;
 
 import com.pharma.dto.request.CartItemRequest;
 import com.pharma.dto.response.ApiResponse;
+import com.pharma.dto.response.CartQuoteResponse;
 import com.pharma.model.Cart;
 import com.pharma.service.CartService;
 import jakarta.validation.Valid;
@@ -23,6 +24,13 @@ public class CartController {
         return ResponseEntity.ok(new ApiResponse<>(true, "Cart retrieved successfully", cart));
     }
     
+    // Priced with checkout's rules; cheap to poll, cached until the cart changes
+    @GetMapping("/quote")
+    public ResponseEntity<ApiResponse<CartQuoteResponse>> getCartQuote(Authentication authentication) {
+        CartQuoteResponse quote = cartService.getCartQuote(authentication.getName());
+        return ResponseEntity.ok(new ApiResponse<>(true, "Cart quote retrieved successfully", quote));
+    }
+    
     @PostMapping("/items")
     public ResponseEntity<ApiResponse<Cart>> addItemToCart(
             @Valid @RequestBody CartItemRequest request,
@@ -2,6 +2,8 @@ package com.pharma.controller;
 
 import java.util.List;
 
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -12,6 +14,7 @@ import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import com.pharma.dto.request.CategoryRequest;
 import com.pharma.dto.request.SubCategoryRequest;
@@ -21,6 +24,7 @@ import com.pharma.model.SubCategory;
 import com.pharma.model.enums.AuditAction;
 import com.pharma.service.AuditService;
 import com.pharma.service.CategoryService;
+import com.pharma.service.CategoryTree;
 import com.pharma.service.SubCategoryService;
 
 import jakarta.servlet.http.HttpServletRequest;
@@ -36,19 +40,41 @@ public class CategoryController {
     private final CategoryService categoryService;
     private final SubCategoryService subCategoryService;
     private final AuditService auditService;
+    private final CategoryTree categoryTree;
 
     // --- Public Read Endpoints ---
 
+    // Both reads carry the taxonomy's ETag: If-None-Match with the current one gets a bodyless 304.
+    // The ETag is read before the data, so a change in between only costs the client one extra 200.
+
     @GetMapping
-    public ResponseEntity<ApiResponse<List<Category>>> getAllCategories() {
+    public ResponseEntity<ApiResponse<List<Category>>> getAllCategories(WebRequest webRequest) {
+        String etag = categoryTree.current().etag();
+        if (webRequest.checkNotModified(etag)) {
+            return notModified(etag);
+        }
         List<Category> categories = categoryService.getAllCategories();
-        return ResponseEntity.ok(new ApiResponse<>(true, "Categories retrieved successfully", categories));
+        return revalidated(etag).body(new ApiResponse<>(true, "Categories retrieved successfully", categories));
     }
 
     @GetMapping("/{categoryId}/subcategories")
-    public ResponseEntity<ApiResponse<List<SubCategory>>> getSubCategoriesByCategory(@PathVariable Long categoryId) {
+    public ResponseEntity<ApiResponse<List<SubCategory>>> getSubCategoriesByCategory(@PathVariable Long categoryId,
+                                                                                  WebRequest webRequest) {
+        String etag = categoryTree.current().etag();
+        if (webRequest.checkNotModified(etag)) {
+            return notModified(etag);
+        }
         List<SubCategory> subCategories = subCategoryService.getSubCategoriesByCategory(categoryId);
-        return ResponseEntity.ok(new ApiResponse<>(true, "SubCategories retrieved successfully", subCategories));
+        return revalidated(etag).body(new ApiResponse<>(true, "SubCategories retrieved successfully", subCategories));
+    }
+
+    // no-cache: browsers and nginx may store the response but must revalidate it on every use
+    private static ResponseEntity.BodyBuilder revalidated(String etag) {
+        return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache());
+    }
+
+    private static <T> ResponseEntity<T> notModified(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(CacheControl.noCache()).build();
     }
 
     // --- Admin Modification Endpoints ---
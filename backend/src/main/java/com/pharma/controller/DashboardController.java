@@ -6,6 +6,7 @@ import com.pharma.dto.response.DailyRevenueDto;
 import com.pharma.dto.response.ExpiringProductDto;
 import com.pharma.dto.response.LowStockProductDto;
 import com.pharma.dto.response.ProductSalesDto;
+import com.pharma.dto.response.SearchTermStatsResponse;
 import com.pharma.service.DashboardService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
@@ -53,4 +54,12 @@ public class DashboardController {
         java.util.List<ProductSalesDto> products = dashboardService.getTopSellingProducts(limit);
         return ResponseEntity.ok(new ApiResponse<>(true, "Top selling products retrieved successfully", products));
     }
+
+    // Most frequent searches and searches that found nothing, since startup (estimates)
+    @GetMapping("/search-terms")
+    public ResponseEntity<ApiResponse<SearchTermStatsResponse>> getSearchTermStats(
+            @RequestParam(defaultValue = "20") int limit) {
+        SearchTermStatsResponse stats = dashboardService.getSearchTermStats(limit);
+        return ResponseEntity.ok(new ApiResponse<>(true, "Search term statistics retrieved successfully", stats));
+    }
 }
@@ -5,6 +5,7 @@ import com.pharma.dto.response.ApiResponse;
 import com.pharma.model.Order;
 import com.pharma.model.enums.AuditAction;
 import com.pharma.service.AuditService;
+import com.pharma.service.IdempotencyService;
 import com.pharma.service.OrderService;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
@@ -13,6 +14,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -25,17 +27,37 @@ public class OrderController {
     private final com.pharma.service.OrderReceiptService orderReceiptService;
     private final com.pharma.service.OrderExportService orderExportService;
     private final AuditService auditService;
+    private final IdempotencyService idempotencyService;
 
+    private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    private static final String IDEMPOTENT_REPLAYED_HEADER = "Idempotent-Replayed";
+
+    /**
+     * Place an order from the caller's cart.
+     *
+     * <p>Clients that retry on timeouts should send an {@code Idempotency-Key}
+     * header. A repeat of the same key and body returns the original response
+     * (marked with {@code Idempotent-Replayed: true}) without placing a second
+     * order. Reusing a key with a different body, or while the first attempt is
+     * still running past the wait timeout, yields 409 Conflict.</p>
+     */
     @PostMapping
-    public ResponseEntity<ApiResponse<Order>> createOrder(
+    public ResponseEntity<?> createOrder(
             @Valid @RequestBody OrderRequest request,
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
             Authentication authentication,
             HttpServletRequest httpRequest) {
-        Order order = orderService.createOrder(authentication.getName(), request);
-        auditService.log(AuditAction.ORDER_PLACED, "ORDER", String.valueOf(order.getId()),
-                "Order #" + order.getId() + " placed, total: " + order.getTotalAmount(),
-                authentication, httpRequest);
-        return ResponseEntity.ok(new ApiResponse<>(true, "Order created successfully", order));
+        if (idempotencyKey == null) {
+            return ResponseEntity.ok(placeOrder(request, authentication, httpRequest));
+        }
+
+        IdempotencyService.IdempotentResponse response = idempotencyService.execute(
+                authentication.getName(), idempotencyKey, request,
+                () -> placeOrder(request, authentication, httpRequest));
+        return ResponseEntity.ok()
+                .contentType(org.springframework.http.MediaType.APPLICATION_JSON)
+                .header(IDEMPOTENT_REPLAYED_HEADER, String.valueOf(response.replayed()))
+                .body(response.body());
     }
 
     @GetMapping
@@ -111,8 +133,9 @@ public class OrderController {
      * No ownership risk — scoped to the caller by email.
      */
     @GetMapping("/export")
-    public ResponseEntity<byte[]> exportOrders(Authentication authentication) throws java.io.IOException {
-        byte[] excelContent = orderExportService.exportUserOrders(authentication.getName());
+    public ResponseEntity<StreamingResponseBody> exportOrders(Authentication authentication) {
+        String email = authentication.getName();
+        StreamingResponseBody excelContent = out -> orderExportService.writeUserOrders(email, out);
         return ResponseEntity.ok()
                 .header(org.springframework.http.HttpHeaders.CONTENT_DISPOSITION,
                         "attachment; filename=orders.xlsx")
@@ -123,6 +146,15 @@ public class OrderController {
 
     // ── Helpers ──────────────────────────────────────────────────────────────
 
+    private ApiResponse<Order> placeOrder(OrderRequest request, Authentication authentication,
+                                          HttpServletRequest httpRequest) {
+        Order order = orderService.createOrder(authentication.getName(), request);
+        auditService.log(AuditAction.ORDER_PLACED, "ORDER", String.valueOf(order.getId()),
+                "Order #" + order.getId() + " placed, total: " + order.getTotalAmount(),
+                authentication, httpRequest);
+        return new ApiResponse<>(true, "Order created successfully", order);
+    }
+
     /**
      * Returns true when the caller either owns the order or has the ADMIN role.
      *
@@ -28,11 +28,20 @@ import org.springframework.web.multipart.MultipartFile;
 
 import com.pharma.dto.request.ProductRequest;
 import com.pharma.dto.response.ApiResponse;
+import com.pharma.dto.response.CursorPage;
+import com.pharma.dto.response.FacetedProductPage;
+import com.pharma.dto.response.ProductBatchResponse;
+import com.pharma.dto.response.ProductChangesResponse;
+import com.pharma.dto.response.ProductPageResponse;
+import com.pharma.dto.response.ProductSuggestion;
+import com.pharma.dto.response.ProductSummary;
 import com.pharma.model.Product;
 import com.pharma.model.enums.AuditAction;
 import com.pharma.service.AuditService;
+import com.pharma.service.ProductFacetIndex;
 import com.pharma.service.ProductService;
 import com.pharma.service.ProductUploadService;
+import com.pharma.service.ProductViewCounter;
 
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
@@ -49,46 +58,151 @@ public class ProductController {
     private final ProductService productService;
     private final ProductUploadService productUploadService;
     private final AuditService auditService;
+    private final ProductViewCounter productViewCounter;
 
     private static final java.util.Set<String> ALLOWED_SORT_FIELDS = 
             java.util.Set.of("id", "name", "price", "createdAt", "stockQuantity");
 
+    // Indexed keyset keys only; stock changes with every sale, so it is neither indexed nor a stable cursor key
+    private static final java.util.Set<String> CURSOR_SORT_FIELDS =
+            java.util.Set.of("id", "name", "price", "createdAt");
+
+    // Offset listings also take sortBy=popularity (most viewed first); cursor mode does not
+    private static Sort listingSort(String sortBy) {
+        if ("popularity".equals(sortBy)) {
+            return ProductService.POPULARITY;
+        }
+        return Sort.by(Sort.Direction.DESC, ALLOWED_SORT_FIELDS.contains(sortBy) ? sortBy : "id");
+    }
+
     @GetMapping
-    public ResponseEntity<ApiResponse<Page<Product>>> getAllProducts(
+    public ResponseEntity<ApiResponse<Page<ProductSummary>>> getAllProducts(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "12") int size,
             @RequestParam(defaultValue = "id") String sortBy) {
         
-        String sanitizedSortBy = ALLOWED_SORT_FIELDS.contains(sortBy) ? sortBy : "id";
-        Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, sanitizedSortBy));
-        Page<Product> products = productService.getAllProducts(pageable);
+        Pageable pageable = PageRequest.of(page, size, listingSort(sortBy));
+        Page<ProductSummary> products = productService.getAllProducts(pageable);
+        return ResponseEntity.ok(new ApiResponse<>(true, "Products retrieved successfully", products));
+    }
+
+    // Cursor mode for infinite scroll: ?limit=N[&after=<nextCursor>]; offset mode above stays for admin screens
+    @GetMapping(params = "limit")
+    public ResponseEntity<ApiResponse<CursorPage<ProductSummary>>> scrollProducts(
+            @RequestParam(required = false) String after,
+            @RequestParam int limit,
+            @RequestParam(defaultValue = "id") String sortBy) {
+
+        String sanitizedSortBy = CURSOR_SORT_FIELDS.contains(sortBy) ? sortBy : "id";
+        CursorPage<ProductSummary> products = productService.scrollProducts(sanitizedSortBy, after, limit);
         return ResponseEntity.ok(new ApiResponse<>(true, "Products retrieved successfully", products));
     }
 
+    // Delta sync for offline clients: start without ?since=, then pass back nextCursor
+    @GetMapping("/changes")
+    public ResponseEntity<ApiResponse<ProductChangesResponse>> getProductChanges(
+            @RequestParam(required = false) String since,
+            @RequestParam(defaultValue = "200") int limit) {
+        ProductChangesResponse changes = productService.getProductChanges(since, limit);
+        return ResponseEntity.ok(new ApiResponse<>(true, "Product changes retrieved successfully", changes));
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<ApiResponse<Product>> getProductById(@PathVariable Long id) {
         Product product = productService.getProductById(id);
+        productViewCounter.record(id);
         return ResponseEntity.ok(new ApiResponse<>(true, "Product retrieved successfully", product));
     }
 
+    // Product page in one round trip: product, category names, availability, bundle quote and related products
+    @GetMapping("/{id}/page")
+    public ResponseEntity<ApiResponse<ProductPageResponse>> getProductPage(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "4") int related) {
+        ProductPageResponse productPage = productService.getProductPage(id, related);
+        productViewCounter.record(id);
+        return ResponseEntity.ok(new ApiResponse<>(true, "Product page retrieved successfully", productPage));
+    }
+
+    // Cross-sell: products most often ordered together with this one
+    @GetMapping("/{id}/related")
+    public ResponseEntity<ApiResponse<java.util.List<ProductSummary>>> getFrequentlyBoughtTogether(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "8") int limit) {
+        java.util.List<ProductSummary> related = productService.getFrequentlyBoughtTogether(id, limit);
+        return ResponseEntity.ok(new ApiResponse<>(true, "Related products retrieved successfully", related));
+    }
+
+    // Several products in one round trip: ?ids=3,1,2; results keep the request order
+    @GetMapping("/batch")
+    public ResponseEntity<ApiResponse<ProductBatchResponse>> getProductsBatch(@RequestParam java.util.List<Long> ids) {
+        ProductBatchResponse batch = productService.getProductsByIds(ids);
+        return ResponseEntity.ok(new ApiResponse<>(true, "Products retrieved successfully", batch));
+    }
+
+    // Same lookup with the ids in the body, for lists too long for a URL
+    @PostMapping("/batch")
+    public ResponseEntity<ApiResponse<ProductBatchResponse>> postProductsBatch(@RequestBody java.util.List<Long> ids) {
+        ProductBatchResponse batch = productService.getProductsByIds(ids);
+        return ResponseEntity.ok(new ApiResponse<>(true, "Products retrieved successfully", batch));
+    }
+
     @GetMapping("/search")
-    public ResponseEntity<ApiResponse<Page<Product>>> searchProducts(
+    public ResponseEntity<ApiResponse<Page<ProductSummary>>> searchProducts(
             @RequestParam String query,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "12") int size) {
         Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "id"));
-        Page<Product> products = productService.searchProducts(query, pageable);
+        Page<ProductSummary> products = productService.searchProducts(query, pageable);
         return ResponseEntity.ok(new ApiResponse<>(true, "Search results retrieved successfully", products));
     }
 
+    // Storefront filters: repeat a parameter to OR values within a facet, facets are ANDed
+    @GetMapping("/facets")
+    public ResponseEntity<ApiResponse<FacetedProductPage>> getFacetedProducts(
+            @RequestParam(required = false) java.util.List<String> category,
+            @RequestParam(required = false) java.util.List<String> subCategory,
+            @RequestParam(required = false) java.util.List<String> manufacturer,
+            @RequestParam(required = false) java.util.List<String> prescription,
+            @RequestParam(required = false) java.util.List<String> bundleOffer,
+            @RequestParam(required = false) java.util.List<String> priceBand,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "12") int size) {
+        java.util.Map<String, java.util.List<String>> filters = new java.util.HashMap<>();
+        putIfPresent(filters, ProductFacetIndex.CATEGORY, category);
+        putIfPresent(filters, ProductFacetIndex.SUB_CATEGORY, subCategory);
+        putIfPresent(filters, ProductFacetIndex.MANUFACTURER, manufacturer);
+        putIfPresent(filters, ProductFacetIndex.PRESCRIPTION, prescription);
+        putIfPresent(filters, ProductFacetIndex.BUNDLE_OFFER, bundleOffer);
+        putIfPresent(filters, ProductFacetIndex.PRICE_BAND, priceBand);
+        FacetedProductPage result = productService.getFacetedProducts(filters, PageRequest.of(page, size));
+        return ResponseEntity.ok(new ApiResponse<>(true, "Products retrieved successfully", result));
+    }
+
+    private static void putIfPresent(java.util.Map<String, java.util.List<String>> filters, String facet,
+                                     java.util.List<String> values) {
+        if (values != null && !values.isEmpty()) {
+            filters.put(facet, values);
+        }
+    }
+
+    @GetMapping("/suggest")
+    public ResponseEntity<ApiResponse<java.util.List<ProductSuggestion>>> suggestProducts(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "8") int limit) {
+        java.util.List<ProductSuggestion> suggestions = productService.suggestProducts(q, limit);
+        return ResponseEntity.ok(new ApiResponse<>(true, "Suggestions retrieved successfully", suggestions));
+    }
+
     @GetMapping("/category/{categorySlug}")
-    public ResponseEntity<ApiResponse<Page<Product>>> getProductsByCategory(
+    public ResponseEntity<ApiResponse<Page<ProductSummary>>> getProductsByCategory(
             @PathVariable String categorySlug,
             @RequestParam(required = false) java.util.List<String> subCategory,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "12") int size) {
-        Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "id"));
-        Page<Product> products;
+            @RequestParam(defaultValue = "12") int size,
+            @RequestParam(defaultValue = "id") String sortBy) {
+        Pageable pageable = PageRequest.of(page, size, listingSort(sortBy));
+        Page<ProductSummary> products;
         if (subCategory != null && !subCategory.isEmpty()) {
             products = productService.getProductsByCategoryAndSubCategory(categorySlug, subCategory, pageable);
         } else {
@@ -97,6 +211,16 @@ public class ProductController {
         return ResponseEntity.ok(new ApiResponse<>(true, "Products retrieved successfully", products));
     }
 
+    @GetMapping(value = "/category/{categorySlug}", params = "limit")
+    public ResponseEntity<ApiResponse<CursorPage<ProductSummary>>> scrollProductsByCategory(
+            @PathVariable String categorySlug,
+            @RequestParam(required = false) java.util.List<String> subCategory,
+            @RequestParam(required = false) String after,
+            @RequestParam int limit) {
+        CursorPage<ProductSummary> products = productService.scrollProductsByCategory(categorySlug, subCategory, after, limit);
+        return ResponseEntity.ok(new ApiResponse<>(true, "Products retrieved successfully", products));
+    }
+
     @PostMapping
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<ApiResponse<Product>> createProduct(
@@ -0,0 +1,33 @@
+package com.pharma.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CartQuoteResponse {
+    private List<Line> lines;
+    private Integer itemCount;
+    private BigDecimal subtotal;   // everything at unit price
+    private BigDecimal savings;    // bundle discounts
+    private BigDecimal total;      // what checkout will charge
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Line {
+        private Long cartItemId;
+        private Long productId;
+        private String productName;
+        private Integer quantity;
+        private Integer freeQuantity;
+        private BigDecimal unitPrice;
+        private BigDecimal listTotal;
+        private BigDecimal lineTotal;
+    }
+}
@@ -0,0 +1,29 @@
+package com.pharma.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.data.domain.Page;
+
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class FacetedProductPage {
+    private Page<ProductSummary> products;   // listing cards, as on every other storefront listing
+    // facet name -> values, each counted under every active filter except the facet's own
+    private Map<String, List<FacetCount>> facets;
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class FacetCount {
+        private String value;   // pass back as the filter parameter
+        private String label;
+        private int count;
+    }
+}
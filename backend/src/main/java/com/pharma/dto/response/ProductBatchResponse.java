@@ -0,0 +1,17 @@
+package com.pharma.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+import com.pharma.model.Product;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductBatchResponse {
+    private List<Product> products;   // in request order, each id once
+    private List<Long> missingIds;    // requested ids with no product
+}
@@ -0,0 +1,31 @@
+package com.pharma.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * One batch of catalogue changes, oldest first. Store nextCursor and send it
+ * back as ?since= on the next sync, even when there were no changes.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductChangesResponse {
+    private List<Change> changes;
+    private String nextCursor;   // null only when the catalogue has never had a product
+    private boolean hasMore;     // fetch again right away with nextCursor
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Change {
+        private Long id;
+        private boolean removed;           // deleted or hidden from sale: drop it from the local copy
+        private LocalDateTime updatedAt;
+        private ProductSummary product;    // null when removed
+    }
+}
@@ -0,0 +1,41 @@
+package com.pharma.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import com.pharma.model.Product;
+
+/**
+ * Everything the storefront product page shows, in one response: the product,
+ * its current category names, availability, the bundle offer priced as the
+ * cart would price it, and related products for the "you may also like" row.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductPageResponse {
+    private Product product;
+    private String categoryName;
+    private String categorySlug;
+    private String subCategoryName;
+    private String subCategorySlug;
+    private boolean inStock;
+    private BundleQuote bundle;             // null when the product has no bundle offer
+    private List<ProductSummary> related;   // same subcategory (category if none), most viewed first
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class BundleQuote {
+        private int quantity;           // units in one bundle, free ones included
+        private int freeQuantity;
+        private BigDecimal price;       // what the cart charges for one bundle
+        private BigDecimal listPrice;   // the same units at the unit price
+        private BigDecimal savings;
+        private boolean available;      // enough stock for one bundle
+    }
+}
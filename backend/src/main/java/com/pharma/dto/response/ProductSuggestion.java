@@ -0,0 +1,18 @@
+package com.pharma.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** One typeahead entry: a product name (with its id) or a manufacturer name (productId null). */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductSuggestion {
+    public static final String PRODUCT = "PRODUCT";
+    public static final String MANUFACTURER = "MANUFACTURER";
+
+    private String text;
+    private String type;
+    private Long productId;
+}
@@ -0,0 +1,54 @@
+package com.pharma.dto.response;
+
+import java.math.BigDecimal;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A product as shown on a storefront listing card: flat category names and the
+ * first image instead of the nested entities. The full Product is only served
+ * by GET /api/products/{id}.
+ */
+@Data
+@NoArgsConstructor
+public class ProductSummary {
+    private Long id;
+    private String name;
+    private String description;
+    private String manufacturer;
+    private BigDecimal price;
+    private Integer stockQuantity;
+    private Boolean isPrescriptionRequired;
+    private Boolean isBundleOffer;
+    private Integer bundleBuyQuantity;
+    private Integer bundleFreeQuantity;
+    private BigDecimal bundlePrice;
+    private String categoryName;
+    private String categorySlug;
+    private String subCategoryName;
+    private String subCategorySlug;
+    private String imageUrl;    // filled in separately, one query per page
+
+    // Used by the constructor expressions in ProductRepository
+    public ProductSummary(Long id, String name, String description, String manufacturer, BigDecimal price,
+                          Integer stockQuantity, Boolean isPrescriptionRequired, Boolean isBundleOffer,
+                          Integer bundleBuyQuantity, Integer bundleFreeQuantity, BigDecimal bundlePrice,
+                          String categoryName, String categorySlug, String subCategoryName, String subCategorySlug) {
+        this.id = id;
+        this.name = name;
+        this.description = description;
+        this.manufacturer = manufacturer;
+        this.price = price;
+        this.stockQuantity = stockQuantity;
+        this.isPrescriptionRequired = isPrescriptionRequired;
+        this.isBundleOffer = isBundleOffer;
+        this.bundleBuyQuantity = bundleBuyQuantity;
+        this.bundleFreeQuantity = bundleFreeQuantity;
+        this.bundlePrice = bundlePrice;
+        this.categoryName = categoryName;
+        this.categorySlug = categorySlug;
+        this.subCategoryName = subCategoryName;
+        this.subCategorySlug = subCategorySlug;
+    }
+}
@@ -0,0 +1,32 @@
+package com.pharma.dto.response;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Most frequent storefront searches since {@code since}, overall and among
+ * those that found nothing. Counts are count-min estimates: never too low,
+ * occasionally a little high.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SearchTermStatsResponse {
+    private LocalDateTime since;
+    private long totalSearches;
+    private long zeroResultSearches;
+    private List<TermCount> topSearches;
+    private List<TermCount> topZeroResultSearches;
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class TermCount {
+        private String term;
+        private long count;
+    }
+}
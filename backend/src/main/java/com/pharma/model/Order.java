@@ -15,7 +15,11 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+        // Order exports: date range over all customers, and one customer's orders in a date range
+        @Index(name = "idx_orders_order_date", columnList = "order_date"),
+        @Index(name = "idx_orders_user_date", columnList = "user_id, order_date")
+})
 @Data
 @NoArgsConstructor
 public class Order {
@@ -15,6 +15,7 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
@@ -23,7 +24,16 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Entity
-@Table(name = "products")
+@Table(name = "products", indexes = {
+        // Keyset listing: storefront filter first, then (sort key, id) so each page is one index range scan
+        @Index(name = "idx_products_listing_id", columnList = "is_deleted, is_available_for_sale, id"),
+        @Index(name = "idx_products_listing_name", columnList = "is_deleted, is_available_for_sale, name, id"),
+        @Index(name = "idx_products_listing_price", columnList = "is_deleted, is_available_for_sale, price, id"),
+        @Index(name = "idx_products_listing_created", columnList = "is_deleted, is_available_for_sale, created_at, id"),
+        @Index(name = "idx_products_category_listing", columnList = "category_id, is_deleted, is_available_for_sale, id"),
+        // Delta sync: every row touched after a (updated_at, id) watermark, deleted and hidden ones included
+        @Index(name = "idx_products_updated", columnList = "updated_at, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
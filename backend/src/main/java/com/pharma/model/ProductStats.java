@@ -0,0 +1,35 @@
+package com.pharma.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Aggregated counters per product, kept out of the products row so that
+ * counting does not bump Product.updatedAt or contend with catalogue edits.
+ * Written only by {@link com.pharma.service.ProductViewCounter}'s batched
+ * flush; read by listings sorted by popularity.
+ */
+@Entity
+@Table(name = "product_stats")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductStats {
+
+    @Id
+    @Column(name = "product_id")
+    private Long productId;
+
+    @Column(name = "view_count", nullable = false)
+    private Long viewCount = 0L;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,6 @@
+package com.pharma.model.enums;
+
+public enum IdempotencyStatus {
+    IN_PROGRESS,
+    COMPLETED
+}
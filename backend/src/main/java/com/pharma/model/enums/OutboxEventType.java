@@ -0,0 +1,7 @@
+package com.pharma.model.enums;
+
+public enum OutboxEventType {
+    ADMIN_ORDER_PLACED,
+    CUSTOMER_ORDER_CONFIRMATION,
+    CUSTOMER_ORDER_STATUS_UPDATE
+}
@@ -0,0 +1,7 @@
+package com.pharma.model.enums;
+
+public enum OutboxStatus {
+    PENDING,
+    DONE,
+    FAILED
+}
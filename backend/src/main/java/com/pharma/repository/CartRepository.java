@@ -2,6 +2,7 @@ package com.pharma.repository;
 
 import com.pharma.model.Cart;
 import com.pharma.model.User;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
@@ -11,4 +12,8 @@ import java.util.Optional;
 public interface CartRepository extends JpaRepository<Cart, Long> {
     Optional<Cart> findByUser(User user);
     Optional<Cart> findByUserId(Long userId);
+
+    // Items and their products in one query, for pricing the cart
+    @EntityGraph(attributePaths = { "items", "items.product" })
+    Optional<Cart> findWithItemsByUserEmail(String email);
 }
@@ -1,8 +1,10 @@
 package com.pharma.repository;
 
+import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import com.pharma.model.Category;
@@ -11,4 +13,8 @@ import com.pharma.model.Category;
 public interface CategoryRepository extends JpaRepository<Category, Long> {
     Optional<Category> findBySlug(String slug);
     Optional<Category> findByNameIgnoreCase(String name);
+
+    // (row count, latest updatedAt): one row, moved by any insert, update or delete
+    @Query("SELECT COUNT(c), MAX(c.updatedAt) FROM Category c")
+    List<Object[]> findChangeMarker();
 }
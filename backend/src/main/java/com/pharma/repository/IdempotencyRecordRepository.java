@@ -0,0 +1,42 @@
+package com.pharma.repository;
+
+import com.pharma.model.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, Long> {
+
+    Optional<IdempotencyRecord> findByOwnerAndIdempotencyKey(String owner, String idempotencyKey);
+
+    /** Take over an IN_PROGRESS attempt whose lease ran out; returns 0 if someone else got it first. */
+    @Transactional
+    @Modifying
+    @Query("UPDATE IdempotencyRecord r SET r.lockedUntil = :until "
+            + "WHERE r.id = :id AND r.status = com.pharma.model.enums.IdempotencyStatus.IN_PROGRESS "
+            + "AND r.lockedUntil < :now")
+    int takeOverStale(@Param("id") Long id, @Param("now") LocalDateTime now, @Param("until") LocalDateTime until);
+
+    /**
+     * Store the response of an IN_PROGRESS attempt, in the transaction that
+     * ran it; returns 0 if another attempt completed or released the key first.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE IdempotencyRecord r SET r.status = com.pharma.model.enums.IdempotencyStatus.COMPLETED, "
+            + "r.responseBody = :body "
+            + "WHERE r.id = :id AND r.status = com.pharma.model.enums.IdempotencyStatus.IN_PROGRESS")
+    int complete(@Param("id") Long id, @Param("body") String body);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
@@ -1,9 +1,28 @@
 package com.pharma.repository;
 
+import java.util.List;
+import java.util.stream.Stream;
+
 import com.pharma.model.OrderItem;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
+
+    // product id, units sold across orders that were not cancelled
+    @Query("SELECT oi.product.id, SUM(oi.quantity) FROM OrderItem oi "
+            + "WHERE oi.order.status <> com.pharma.model.enums.OrderStatus.CANCELLED GROUP BY oi.product.id")
+    List<Object[]> sumQuantityByProduct();
+
+    // (order id, product id) per line of orders after the given id that were not cancelled, grouped by order;
+    // consume inside a transaction and close the stream
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "1000"))
+    @Query("SELECT oi.order.id, oi.product.id FROM OrderItem oi WHERE oi.order.id > :afterOrderId "
+            + "AND oi.order.status <> com.pharma.model.enums.OrderStatus.CANCELLED ORDER BY oi.order.id")
+    Stream<Object[]> streamOrderProductsAfter(@Param("afterOrderId") long afterOrderId);
 }
@@ -5,6 +5,7 @@ import com.pharma.model.User;
 import com.pharma.model.enums.OrderStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -13,6 +14,7 @@ import org.springframework.stereotype.Repository;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
@@ -24,6 +26,10 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
 
     List<Order> findByStatus(OrderStatus status);
 
+    // Everything the notification emails read, so they can be rendered outside a transaction
+    @EntityGraph(attributePaths = { "user", "orderItems", "orderItems.product" })
+    Optional<Order> findWithItemsById(Long id);
+
     // Dashboard statistics queries
     @Query("SELECT SUM(o.totalAmount) FROM Order o")
     BigDecimal sumTotalAmount();
@@ -0,0 +1,49 @@
+package com.pharma.repository;
+
+import com.pharma.model.OutboxEvent;
+import com.pharma.model.enums.OutboxStatus;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    /**
+     * Claim a batch of due events. Lock timeout -2 makes Hibernate render
+     * FOR UPDATE SKIP LOCKED, so concurrent dispatchers on other nodes skip
+     * rows already being delivered instead of blocking on them.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT e FROM OutboxEvent e WHERE e.status = :status AND e.nextAttemptAt <= :now ORDER BY e.id")
+    List<OutboxEvent> claimDue(@Param("status") OutboxStatus status, @Param("now") LocalDateTime now,
+            Pageable pageable);
+
+    /**
+     * Write the outcome of a delivery, but only while the row still carries
+     * the lease this node claimed it with. Returns 0 when the lease ran out
+     * and another node has claimed the row since; its outcome then stands.
+     */
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.status = :status, e.attempts = :attempts, e.nextAttemptAt = :nextAttemptAt, "
+            + "e.lastError = :lastError, e.processedAt = :processedAt WHERE e.id = :id AND e.nextAttemptAt = :leaseEnd")
+    int recordOutcome(@Param("id") Long id, @Param("leaseEnd") LocalDateTime leaseEnd,
+            @Param("status") OutboxStatus status, @Param("attempts") int attempts,
+            @Param("nextAttemptAt") LocalDateTime nextAttemptAt, @Param("lastError") String lastError,
+            @Param("processedAt") LocalDateTime processedAt);
+
+    @Modifying
+    @Query("DELETE FROM OutboxEvent e WHERE e.status = :status AND e.processedAt < :before")
+    int deleteProcessedBefore(@Param("status") OutboxStatus status, @Param("before") LocalDateTime before);
+}
@@ -1,14 +1,24 @@
 package com.pharma.repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.pharma.dto.response.ProductSummary;
 import com.pharma.model.Category;
 import com.pharma.model.Product;
 import com.pharma.model.SubCategory;
@@ -17,18 +27,96 @@ import com.pharma.model.SubCategory;
 public interface ProductRepository extends JpaRepository<Product, Long> {
     List<Product> findByNameIgnoreCase(String name);
 
-    // Public-facing queries (exclude hidden products)
-    Page<Product> findByIsDeletedFalseAndIsAvailableForSaleTrue(Pageable pageable);
+    // Everything the product JSON touches, so ProductCache can hold it detached
+    @EntityGraph(attributePaths = { "category", "subCategory", "subCategory.category", "imageUrls" })
+    Optional<Product> findDetailedById(Long id);
 
-    Page<Product> findByCategoryAndIsDeletedFalseAndIsAvailableForSaleTrue(Category category, Pageable pageable);
+    @EntityGraph(attributePaths = { "category", "subCategory", "subCategory.category", "imageUrls" })
+    List<Product> findDetailedByIdIn(Collection<Long> ids);
 
-    Page<Product> findByCategoryAndSubCategoryInAndIsDeletedFalseAndIsAvailableForSaleTrue(Category category, List<SubCategory> subCategories, Pageable pageable);
+    @Query("SELECT p.stockQuantity FROM Product p WHERE p.id = :id")
+    Optional<Integer> findStockQuantityById(@Param("id") Long id);
+
+    // (id, stock quantity) rows for the batch lookup
+    @Query("SELECT p.id, p.stockQuantity FROM Product p WHERE p.id IN :ids")
+    List<Object[]> findStockQuantitiesByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Public-facing listings (exclude hidden products), projected straight into ProductSummary:
+    // category names come from the join, so a page is one select plus the count, never N+1.
+    // ps (product_stats) is joined for ProductService.POPULARITY ordering.
+    String SUMMARY_SELECT = "SELECT new com.pharma.dto.response.ProductSummary(p.id, p.name, p.description, "
+            + "p.manufacturer, p.price, p.stockQuantity, p.isPrescriptionRequired, p.isBundleOffer, "
+            + "p.bundleBuyQuantity, p.bundleFreeQuantity, p.bundlePrice, c.name, c.slug, sc.name, sc.slug) "
+            + "FROM Product p JOIN p.category c LEFT JOIN p.subCategory sc "
+            + "LEFT JOIN ProductStats ps ON ps.productId = p.id ";
+    String VISIBLE = "WHERE p.isDeleted = false AND p.isAvailableForSale = true";
+
+    @Query(value = SUMMARY_SELECT + VISIBLE,
+            countQuery = "SELECT COUNT(p) FROM Product p " + VISIBLE)
+    Page<ProductSummary> findVisibleSummaries(Pageable pageable);
+
+    @Query(value = SUMMARY_SELECT + VISIBLE + " AND p.category = :category",
+            countQuery = "SELECT COUNT(p) FROM Product p " + VISIBLE + " AND p.category = :category")
+    Page<ProductSummary> findVisibleSummariesByCategory(@Param("category") Category category, Pageable pageable);
+
+    @Query(value = SUMMARY_SELECT + VISIBLE + " AND p.category = :category AND p.subCategory IN :subCategories",
+            countQuery = "SELECT COUNT(p) FROM Product p " + VISIBLE
+                    + " AND p.category = :category AND p.subCategory IN :subCategories")
+    Page<ProductSummary> findVisibleSummariesByCategoryAndSubCategoryIn(@Param("category") Category category,
+            @Param("subCategories") List<SubCategory> subCategories, Pageable pageable);
+
+    @Query(SUMMARY_SELECT + VISIBLE + " AND p.id IN :ids")
+    List<ProductSummary> findVisibleSummariesByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Visible products sharing the given product's subcategory (its category if it has none), excluding it
+    @Query(SUMMARY_SELECT + VISIBLE + " AND p.id <> :id AND EXISTS (SELECT q.id FROM Product q WHERE q.id = :id "
+            + "AND q.category = p.category AND (q.subCategory IS NULL OR q.subCategory = p.subCategory))")
+    List<ProductSummary> findVisibleSummariesRelatedTo(@Param("id") Long id, Pageable pageable);
+
+    // (product id, image url) rows for a page of products; unordered, like the imageUrls collection itself
+    @Query("SELECT p.id, i FROM Product p JOIN p.imageUrls i WHERE p.id IN :ids")
+    List<Object[]> findImageUrlsByProductIdIn(@Param("ids") Collection<Long> ids);
+
+    // Public keyset (cursor) listings — seek on (sort key, id), fetch limit + 1, never count
+    Window<Product> findByIsDeletedFalseAndIsAvailableForSaleTrue(ScrollPosition position, Sort sort, Limit limit);
+
+    Window<Product> findByCategoryAndIsDeletedFalseAndIsAvailableForSaleTrue(Category category, ScrollPosition position, Sort sort, Limit limit);
+
+    Window<Product> findByCategoryAndSubCategoryInAndIsDeletedFalseAndIsAvailableForSaleTrue(Category category, List<SubCategory> subCategories, ScrollPosition position, Sort sort, Limit limit);
+
+    // Delta sync — all rows, hidden and deleted included, seeking on (updatedAt, id) ascending
+    Window<Product> findByUpdatedAtLessThanEqual(LocalDateTime until, ScrollPosition position, Sort sort, Limit limit);
 
     @Query("SELECT p FROM Product p WHERE p.isDeleted = false AND p.isAvailableForSale = true AND (LOWER(p.name) LIKE LOWER(CONCAT('%', :searchTerm, '%')) "
             + "OR LOWER(p.description) LIKE LOWER(CONCAT('%', :searchTerm, '%')) "
             + "OR LOWER(p.manufacturer) LIKE LOWER(CONCAT('%', :searchTerm, '%')))")
     Page<Product> searchProducts(@Param("searchTerm") String searchTerm, Pageable pageable);
 
+    // PostgreSQL only: search_vector is a generated tsvector column with a GIN index
+    // (scripts/add_product_search_vector.sql). :query is a to_tsquery expression.
+    @Query(value = "SELECT p.* FROM products p WHERE p.is_deleted = false AND p.is_available_for_sale = true "
+            + "AND p.search_vector @@ to_tsquery('simple', :query) "
+            + "ORDER BY ts_rank(p.search_vector, to_tsquery('simple', :query)) DESC, p.id DESC",
+            countQuery = "SELECT COUNT(*) FROM products p WHERE p.is_deleted = false AND p.is_available_for_sale = true "
+                    + "AND p.search_vector @@ to_tsquery('simple', :query)",
+            nativeQuery = true)
+    Page<Product> fullTextSearch(@Param("query") String query, Pageable pageable);
+
+    // Loads visible products with everything the storefront JSON touches, for ProductSearchIndex
+    @Query("SELECT DISTINCT p FROM Product p JOIN FETCH p.category LEFT JOIN FETCH p.subCategory sc "
+            + "LEFT JOIN FETCH sc.category LEFT JOIN FETCH p.imageUrls "
+            + "WHERE p.isDeleted = false AND p.isAvailableForSale = true")
+    List<Product> findAllSearchable();
+
+    @Query("SELECT DISTINCT p FROM Product p JOIN FETCH p.category LEFT JOIN FETCH p.subCategory sc "
+            + "LEFT JOIN FETCH sc.category LEFT JOIN FETCH p.imageUrls "
+            + "WHERE p.isDeleted = false AND p.isAvailableForSale = true AND p.id IN :ids")
+    List<Product> findSearchableByIdIn(@Param("ids") Collection<Long> ids);
+
+    // id, name, manufacturer of visible products, for ProductSuggestIndex
+    @Query("SELECT p.id, p.name, p.manufacturer FROM Product p WHERE p.isDeleted = false AND p.isAvailableForSale = true")
+    List<Object[]> findSuggestionSources();
+
     // Admin-facing queries (include hidden products)
     Page<Product> findByCategoryAndIsDeletedFalse(Category category, Pageable pageable);
 
@@ -47,4 +135,15 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     Page<Product> findByStockQuantityLessThanAndIsDeletedFalse(Integer threshold, Pageable pageable);
 
     Long countByStockQuantityLessThanAndIsDeletedFalse(Integer threshold);
+
+    // Stock movements — single guarded statements, never read-modify-write.
+    // decrementStock returns 0 when the row does not hold enough stock.
+    @Modifying
+    @Query(value = "UPDATE products SET stock_quantity = stock_quantity - :qty WHERE id = :id AND stock_quantity >= :qty",
+            nativeQuery = true)
+    int decrementStock(@Param("id") Long id, @Param("qty") int qty);
+
+    @Modifying
+    @Query(value = "UPDATE products SET stock_quantity = stock_quantity + :qty WHERE id = :id", nativeQuery = true)
+    int incrementStock(@Param("id") Long id, @Param("qty") int qty);
 }
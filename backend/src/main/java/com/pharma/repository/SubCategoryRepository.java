@@ -4,6 +4,7 @@ import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import com.pharma.model.Category;
@@ -14,4 +15,8 @@ public interface SubCategoryRepository extends JpaRepository<SubCategory, Long>
     List<SubCategory> findByCategory(Category category);
     Optional<SubCategory> findBySlugAndCategory(String slug, Category category);
     Optional<SubCategory> findByNameIgnoreCaseAndCategory(String name, Category category);
+
+    // (row count, latest updatedAt): one row, moved by any insert, update or delete
+    @Query("SELECT COUNT(s), MAX(s.updatedAt) FROM SubCategory s")
+    List<Object[]> findChangeMarker();
 }
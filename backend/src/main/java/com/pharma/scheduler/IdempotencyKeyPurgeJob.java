@@ -0,0 +1,29 @@
+package com.pharma.scheduler;
+
+import com.pharma.repository.IdempotencyRecordRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * Keeps idempotency_keys bounded by deleting records past their expiry
+ * (app.idempotency.ttl-hours). Runs at the top of every hour.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class IdempotencyKeyPurgeJob {
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Scheduled(cron = "0 0 * * * *")
+    public void purgeExpired() {
+        int removed = idempotencyRecordRepository.deleteExpired(LocalDateTime.now());
+        if (removed > 0) {
+            log.info("[IDEMPOTENCY] Purged {} expired key(s)", removed);
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.pharma.scheduler;
+
+import com.pharma.model.Order;
+import com.pharma.model.OutboxEvent;
+import com.pharma.model.enums.OrderStatus;
+import com.pharma.model.enums.OutboxStatus;
+import com.pharma.repository.OrderRepository;
+import com.pharma.repository.OutboxEventRepository;
+import com.pharma.service.EmailService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+/**
+ * Delivers notification events written to outbox_events by OrderService.
+ *
+ * Each poll claims up to app.outbox.batch-size due rows with
+ * SELECT ... FOR UPDATE SKIP LOCKED in a short transaction that only moves
+ * their next_attempt_at app.outbox.claim-lease-seconds ahead, so other nodes
+ * leave them alone once the row locks are released. The emails are sent
+ * outside any transaction, and each event is then marked DONE or rescheduled
+ * in its own small transaction: a slow mail server holds no connection or row
+ * lock, and a failed write re-sends only that one event. The outcome is a
+ * conditional UPDATE on the lease this node wrote, so if a send outlasts the
+ * lease and another node reclaims the row, the late outcome is dropped instead
+ * of overwriting that node's status and attempt count.
+ *
+ * Delivery is at-least-once: if the node dies mid-batch, unmarked events are
+ * picked up again when their lease runs out. A failed send is retried with
+ * exponential backoff (app.outbox.backoff-base-seconds * 2^(attempt-1),
+ * capped at one hour) and after app.outbox.max-attempts the row is parked as
+ * FAILED for inspection.
+ *
+ * Switch on/off via:
+ *   app.outbox.dispatcher.enabled=true|false
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class OutboxDispatcher {
+
+    private static final long MAX_BACKOFF_SECONDS = 3600;
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final OrderRepository orderRepository;
+    private final EmailService emailService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.outbox.dispatcher.enabled:true}")
+    private boolean dispatcherEnabled;
+
+    @Value("${app.outbox.batch-size:50}")
+    private int batchSize;
+
+    @Value("${app.outbox.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${app.outbox.backoff-base-seconds:30}")
+    private long backoffBaseSeconds;
+
+    @Value("${app.outbox.claim-lease-seconds:300}")
+    private long claimLeaseSeconds;
+
+    @Value("${app.outbox.retention-days:7}")
+    private int retentionDays;
+
+    @Scheduled(fixedDelayString = "${app.outbox.poll-interval-ms:2000}")
+    public void dispatch() {
+        if (!dispatcherEnabled) {
+            return;
+        }
+
+        List<OutboxEvent> batch = transactionTemplate.execute(status -> claim());
+        if (batch == null || batch.isEmpty()) {
+            return;
+        }
+
+        log.debug("[OUTBOX] Dispatching {} event(s)", batch.size());
+        for (OutboxEvent event : batch) {
+            Exception failure = null;
+            try {
+                deliver(event);
+            } catch (Exception e) {
+                failure = e;
+            }
+            record(event, failure);
+        }
+    }
+
+    // Locks are held only until the lease is written; the rows come back detached
+    private List<OutboxEvent> claim() {
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboxEvent> due = outboxEventRepository.claimDue(OutboxStatus.PENDING, now, PageRequest.of(0, batchSize));
+        // At the column's precision, so record() can match it exactly
+        LocalDateTime leaseEnd = now.plusSeconds(claimLeaseSeconds).truncatedTo(ChronoUnit.MICROS);
+        for (OutboxEvent event : due) {
+            event.setNextAttemptAt(leaseEnd);
+        }
+        return due;
+    }
+
+    private void record(OutboxEvent event, Exception failure) {
+        LocalDateTime leaseEnd = event.getNextAttemptAt();
+        if (failure == null) {
+            event.setStatus(OutboxStatus.DONE);
+            event.setProcessedAt(LocalDateTime.now());
+            event.setLastError(null);
+        } else {
+            scheduleRetry(event, failure);
+        }
+        try {
+            Integer updated = transactionTemplate.execute(status -> outboxEventRepository.recordOutcome(
+                    event.getId(), leaseEnd, event.getStatus(), event.getAttempts(), event.getNextAttemptAt(),
+                    event.getLastError(), event.getProcessedAt()));
+            if (updated == null || updated == 0) {
+                log.warn("[OUTBOX] Lease on event {} ({}) ran out during delivery and the row was reclaimed; "
+                        + "outcome not recorded", event.getId(), event.getEventType());
+            }
+        } catch (Exception e) {
+            // The lease runs out and the event is delivered again; the rest of the batch is unaffected
+            log.error("[OUTBOX] Could not record the outcome of event {} ({})", event.getId(), event.getEventType(), e);
+        }
+    }
+
+    // Daily at 03:30 — drop delivered rows older than the retention window
+    @Scheduled(cron = "0 30 3 * * *")
+    @Transactional
+    public void purgeDelivered() {
+        int removed = outboxEventRepository.deleteProcessedBefore(
+                OutboxStatus.DONE, LocalDateTime.now().minusDays(retentionDays));
+        if (removed > 0) {
+            log.info("[OUTBOX] Purged {} delivered event(s) older than {} days", removed, retentionDays);
+        }
+    }
+
+    private void deliver(OutboxEvent event) throws Exception {
+        Order order = orderRepository.findWithItemsById(event.getAggregateId()).orElse(null);
+        if (order == null) {
+            // Nothing left to notify about; treat as delivered rather than retrying forever
+            log.warn("[OUTBOX] Order #{} for event {} no longer exists, skipping", event.getAggregateId(), event.getId());
+            return;
+        }
+
+        switch (event.getEventType()) {
+            case ADMIN_ORDER_PLACED -> emailService.sendOrderPlacedNotification(order);
+            case CUSTOMER_ORDER_CONFIRMATION -> emailService.sendCustomerOrderConfirmation(order);
+            case CUSTOMER_ORDER_STATUS_UPDATE ->
+                    emailService.sendOrderStatusUpdate(order, OrderStatus.valueOf(event.getPayload()));
+        }
+    }
+
+    private void scheduleRetry(OutboxEvent event, Exception e) {
+        int attempts = event.getAttempts() + 1;
+        event.setAttempts(attempts);
+        event.setLastError(truncate(e.getClass().getSimpleName() + ": " + e.getMessage()));
+
+        if (attempts >= maxAttempts) {
+            event.setStatus(OutboxStatus.FAILED);
+            event.setProcessedAt(LocalDateTime.now());
+            log.error("[OUTBOX] Event {} ({}) failed permanently after {} attempts",
+                    event.getId(), event.getEventType(), attempts, e);
+            return;
+        }
+
+        long delay = Math.min(backoffBaseSeconds << Math.min(attempts - 1, 20), MAX_BACKOFF_SECONDS);
+        event.setNextAttemptAt(LocalDateTime.now().plusSeconds(delay));
+        log.warn("[OUTBOX] Event {} ({}) attempt {} failed, retrying in {}s: {}",
+                event.getId(), event.getEventType(), attempts, delay, e.getMessage());
+    }
+
+    private static String truncate(String message) {
+        return message.length() <= 1000 ? message : message.substring(0, 1000);
+    }
+}
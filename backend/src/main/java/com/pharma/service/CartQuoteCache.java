@@ -0,0 +1,81 @@
+package com.pharma.service;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.pharma.dto.response.CartQuoteResponse;
+
+/**
+ * Priced quotes of each user's cart, tagged with the cart version they were
+ * computed from.
+ *
+ * Every cart mutation bumps the version, both immediately and again after the
+ * mutating transaction commits. A quote is only served while its version is
+ * current, so a quote computed from a snapshot that a concurrent mutation
+ * overtook is never returned. Price changes are not tracked per cart; entries
+ * simply expire after app.cart.quote.ttl-seconds, and checkout always reprices.
+ *
+ * The version lives in the same bounded cache entry as the quote, so memory
+ * follows the number of active carts. Versions are drawn from one global
+ * sequence and never reused: once an entry is evicted, a quote priced against
+ * its version cannot match whatever entry replaces it.
+ */
+@Component
+public class CartQuoteCache {
+
+    // quote is null until one is priced for this version
+    private record Slot(long version, CartQuoteResponse quote) {
+    }
+
+    private final Cache<String, Slot> slots;
+    private final AtomicLong sequence = new AtomicLong();
+
+    public CartQuoteCache(@Value("${app.cart.quote.cache-size:10000}") long cacheSize,
+                          @Value("${app.cart.quote.ttl-seconds:60}") long ttlSeconds) {
+        this.slots = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build();
+    }
+
+    /** Current version of the user's cart; read it before loading the cart to price. */
+    public long version(String email) {
+        return slots.get(email, k -> new Slot(sequence.incrementAndGet(), null)).version();
+    }
+
+    /** The cached quote, or null if there is none for the current cart version. */
+    public CartQuoteResponse get(String email) {
+        Slot slot = slots.getIfPresent(email);
+        return slot != null ? slot.quote() : null;
+    }
+
+    /** Stores the quote only if {@code version} is still the cart's current version. */
+    public void put(String email, long version, CartQuoteResponse quote) {
+        slots.asMap().computeIfPresent(email, (k, slot) -> slot.version() == version ? new Slot(version, quote) : slot);
+    }
+
+    /** Call from every operation that changes the contents of a cart. */
+    public void invalidate(String email) {
+        bump(email);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // A quote priced between now and commit still sees the old rows
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    bump(email);
+                }
+            });
+        }
+    }
+
+    private void bump(String email) {
+        slots.put(email, new Slot(sequence.incrementAndGet(), null));
+    }
+}
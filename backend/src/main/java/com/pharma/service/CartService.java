@@ -1,6 +1,7 @@
 package com.pharma.service;
 
 import com.pharma.dto.request.CartItemRequest;
+import com.pharma.dto.response.CartQuoteResponse;
 import com.pharma.exception.InsufficientStockException;
 import com.pharma.exception.ResourceNotFoundException;
 import com.pharma.model.Cart;
@@ -13,6 +14,9 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @Service
 @RequiredArgsConstructor
 public class CartService {
@@ -21,6 +25,8 @@ public class CartService {
     private final CartItemRepository cartItemRepository;
     private final ProductService productService;
     private final UserService userService;
+    private final PricingEngine pricingEngine;
+    private final CartQuoteCache cartQuoteCache;
     
     public Cart getCartByUser(String email) {
         User user = userService.getUserByEmail(email);
@@ -62,6 +68,7 @@ public class CartService {
             cartItemRepository.save(cartItem);
         }
         
+        cartQuoteCache.invalidate(email);
         return cartRepository.save(cart);
     }
     
@@ -81,6 +88,7 @@ public class CartService {
         
         cartItem.setQuantity(quantity);
         cartItemRepository.save(cartItem);
+        cartQuoteCache.invalidate(email);
         
         return cart;
     }
@@ -97,6 +105,7 @@ public class CartService {
         
         cart.getItems().remove(cartItem);
         cartItemRepository.delete(cartItem);
+        cartQuoteCache.invalidate(email);
         
         return cart;
     }
@@ -107,5 +116,47 @@ public class CartService {
         cartItemRepository.deleteByCart(cart);
         cart.getItems().clear();
         cartRepository.save(cart);
+        cartQuoteCache.invalidate(email);
+    }
+    
+    /**
+     * Price the user's cart with the same rules as checkout, without writing anything.
+     * Repeat calls for an unchanged cart are answered from {@link CartQuoteCache}.
+     */
+    public CartQuoteResponse getCartQuote(String email) {
+        CartQuoteResponse cached = cartQuoteCache.get(email);
+        if (cached != null) {
+            return cached;
+        }
+        
+        // Read the version first: if the cart changes while we price it, this quote is born stale
+        long version = cartQuoteCache.version(email);
+        List<CartItem> items = cartRepository.findWithItemsByUserEmail(email)
+                .map(Cart::getItems)
+                .orElse(List.of());
+        CartQuoteResponse quote = toQuote(items, pricingEngine.price(items));
+        cartQuoteCache.put(email, version, quote);
+        return quote;
+    }
+    
+    private CartQuoteResponse toQuote(List<CartItem> items, PricingEngine.CartPricing pricing) {
+        List<CartQuoteResponse.Line> lines = new ArrayList<>(items.size());
+        int itemCount = 0;
+        for (int i = 0; i < items.size(); i++) {
+            CartItem item = items.get(i);
+            Product product = item.getProduct();
+            lines.add(new CartQuoteResponse.Line(
+                    item.getId(),
+                    product.getId(),
+                    product.getName(),
+                    item.getQuantity(),
+                    pricing.freeQuantity(i),
+                    product.getPrice(),
+                    pricing.listTotal(i),
+                    pricing.lineTotal(i)));
+            itemCount += item.getQuantity();
+        }
+        return new CartQuoteResponse(lines, itemCount,
+                pricing.listTotal(), pricing.savings(), pricing.total());
     }
 }
@@ -0,0 +1,431 @@
+package com.pharma.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pharma.dto.response.ApiResponse;
+import com.pharma.dto.response.ProductSummary;
+import com.pharma.model.Category;
+import com.pharma.model.Product;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Pre-renders the anonymous catalogue as gzipped JSON under
+ * app.catalog.snapshot.dir, for nginx to serve at /catalog/ without a trip
+ * through the backend:
+ *
+ *   products.json.gz                  every visible product, newest first
+ *   categories.json.gz                same body as GET /api/categories
+ *   products/page-N.json.gz           same body as GET /api/products?page=N
+ *   category/{slug}/page-N.json.gz    same body as GET /api/products/category/{slug}?page=N
+ *
+ * Pages hold app.catalog.snapshot.page-size products, which must match the
+ * storefront's page size.
+ *
+ * Product and category writes only mark the snapshot dirty. It is updated once
+ * no write has arrived for debounce-ms, or max-delay-ms after the first one at
+ * the latest, so a bulk upload costs one update.
+ *
+ * The catalogue from the last render is kept in memory. An update after
+ * product writes re-reads only the changed products and re-renders only what
+ * they touch: products.json.gz, plus in each listing that holds them before or
+ * after the write either the pages they sit on (an edit) or every page (a
+ * product added or removed, since each page carries the listing's totals).
+ * Other category listings are left alone. A category write, startup and the
+ * periodic refresh every refresh-interval-ms (which picks up stock moved by
+ * orders, as that raises no event) re-read and re-render the whole catalogue.
+ *
+ * Either way only files whose content changed are rewritten, and pages that no
+ * longer exist are deleted. Each file is written next to its target and renamed
+ * over it, so nginx never serves a partial page.
+ *
+ * Switch on/off via:
+ *   app.catalog.snapshot.enabled=true|false
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CatalogSnapshotWriter {
+
+    static final String SUFFIX = ".json.gz";
+
+    private static final int LOAD_PAGE_SIZE = 500;
+    private static final Sort NEWEST = Sort.by(Sort.Direction.DESC, "id");
+    private static final Comparator<ProductSummary> NEWEST_FIRST =
+            Comparator.comparing(ProductSummary::getId, Comparator.reverseOrder());
+    // Slugs become directory names; anything else is left to the API
+    private static final Pattern SAFE_SLUG = Pattern.compile("[A-Za-z0-9][A-Za-z0-9_-]*");
+    private static final String ALL_PRODUCTS = "products/";
+
+    private final ProductService productService;
+    private final CategoryTree categoryTree;
+    private final ObjectMapper objectMapper;
+
+    @Value("${app.catalog.snapshot.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.catalog.snapshot.dir:catalog-snapshot}")
+    private String dir = "catalog-snapshot";
+
+    @Value("${app.catalog.snapshot.page-size:12}")
+    private int pageSize = 12;
+
+    @Value("${app.catalog.snapshot.debounce-ms:2000}")
+    private long debounceMs = 2000;
+
+    @Value("${app.catalog.snapshot.max-delay-ms:30000}")
+    private long maxDelayMs = 30000;
+
+    // When the first and the latest write since the last update arrived; firstChangeAt is 0 when clean
+    private final AtomicLong firstChangeAt = new AtomicLong();
+    private final AtomicLong lastChangeAt = new AtomicLong();
+    // Products written since the last update, and whether a category write needs a full rebuild
+    private final Set<Long> changedIds = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean categoriesChanged = new AtomicBoolean();
+
+    // Guarded by this: SHA-256 of each file on disk by relative path, so unchanged pages are not
+    // rewritten, and the catalogue and categories as last rendered (null until the first rebuild)
+    private final Map<String, String> written = new HashMap<>();
+    private List<ProductSummary> products;
+    private List<Category> categories;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        for (Product product : event.products()) {
+            if (product.getId() != null) {
+                changedIds.add(product.getId());
+            }
+        }
+        markDirty();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        categoriesChanged.set(true);
+        markDirty();
+    }
+
+    void markDirty() {
+        long now = System.currentTimeMillis();
+        firstChangeAt.compareAndSet(0, now);
+        lastChangeAt.set(now);
+    }
+
+    @Scheduled(fixedDelayString = "${app.catalog.snapshot.poll-interval-ms:1000}")
+    public void flush() {
+        long first = firstChangeAt.get();
+        if (!enabled || first == 0) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        if (now - lastChangeAt.get() < debounceMs && now - first < maxDelayMs) {
+            return;
+        }
+        update();
+    }
+
+    @Scheduled(fixedDelayString = "${app.catalog.snapshot.refresh-interval-ms:300000}",
+            initialDelayString = "${app.catalog.snapshot.refresh-interval-ms:300000}")
+    public void refresh() {
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    /** Re-reads and re-renders the whole catalogue. */
+    public synchronized void rebuild() {
+        // A write from here on may be missed by the reads below, so it marks the snapshot dirty again
+        firstChangeAt.set(0);
+        categoriesChanged.set(false);
+        changedIds.clear();
+        long start = System.currentTimeMillis();
+        try {
+            products = null;
+            List<ProductSummary> loaded = loadCatalogue();
+            categories = categoryTree.current().categories();
+            Map<String, byte[]> files = render(loaded);
+            int changed = writeAll(files);
+            int removed = prune(files.keySet());
+            products = loaded;
+            log.info("[CATALOG] Snapshot rebuilt in {} ms: {} files, {} rewritten, {} removed",
+                    System.currentTimeMillis() - start, files.size(), changed, removed);
+        } catch (IOException | RuntimeException e) {
+            log.error("[CATALOG] Snapshot rebuild failed, will retry: {}", e.getMessage(), e);
+            markDirty();
+        }
+    }
+
+    // Only the changed products; anything else that is due falls back to a full rebuild
+    synchronized void update() {
+        if (products == null || categoriesChanged.get()) {
+            rebuild();
+            return;
+        }
+        firstChangeAt.set(0);
+        Set<Long> ids = new HashSet<>(changedIds);
+        changedIds.removeAll(ids);
+        if (ids.isEmpty()) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        try {
+            List<ProductSummary> fresh = productService.getVisibleSummaries(ids);
+            List<ProductSummary> next = new ArrayList<>(products.size() + fresh.size());
+            Set<String> touchedSlugs = new HashSet<>();
+            for (ProductSummary product : products) {
+                if (ids.contains(product.getId())) {
+                    touchedSlugs.add(product.getCategorySlug());
+                } else {
+                    next.add(product);
+                }
+            }
+            for (ProductSummary product : fresh) {
+                touchedSlugs.add(product.getCategorySlug());
+            }
+            next.addAll(fresh);
+            next.sort(NEWEST_FIRST);
+
+            Map<String, byte[]> files = new LinkedHashMap<>();
+            Set<String> stale = new HashSet<>();
+            files.put("products" + SUFFIX, json(new ApiResponse<>(true, "Products retrieved successfully", next)));
+            renderChanged(files, stale, ALL_PRODUCTS, products, next, ids, true);
+            Set<String> categorySlugs = new HashSet<>();
+            categories.forEach(category -> categorySlugs.add(category.getSlug()));
+            for (String slug : touchedSlugs) {
+                if (slug != null && SAFE_SLUG.matcher(slug).matches()) {
+                    renderChanged(files, stale, "category/" + slug + "/", inCategory(products, slug),
+                            inCategory(next, slug), ids, categorySlugs.contains(slug));
+                }
+            }
+            int changed = writeAll(files);
+            for (String name : stale) {
+                Files.deleteIfExists(root().resolve(name));
+                written.remove(name);
+            }
+            products = next;
+            log.info("[CATALOG] Snapshot updated for {} product(s) in {} ms: {} files rendered, {} rewritten, {} removed",
+                    ids.size(), System.currentTimeMillis() - start, files.size(), changed, stale.size());
+        } catch (IOException | RuntimeException e) {
+            log.error("[CATALOG] Snapshot update failed, will retry: {}", e.getMessage(), e);
+            changedIds.addAll(ids);
+            markDirty();
+        }
+    }
+
+    // Offset pages can repeat or skip a row that moves while we read; the write that moved it
+    // marks the snapshot dirty, so the next update gets it right
+    private List<ProductSummary> loadCatalogue() {
+        Map<Long, ProductSummary> byId = new LinkedHashMap<>();
+        Page<ProductSummary> page;
+        int number = 0;
+        do {
+            page = productService.getAllProducts(PageRequest.of(number++, LOAD_PAGE_SIZE, NEWEST));
+            page.getContent().forEach(product -> byId.putIfAbsent(product.getId(), product));
+        } while (page.hasNext());
+        return new ArrayList<>(byId.values());
+    }
+
+    // Relative path -> uncompressed JSON, for everything the snapshot should contain
+    private Map<String, byte[]> render(List<ProductSummary> catalogue) throws IOException {
+        Map<String, byte[]> files = new LinkedHashMap<>();
+        files.put("products" + SUFFIX, json(new ApiResponse<>(true, "Products retrieved successfully", catalogue)));
+        files.put("categories" + SUFFIX, json(new ApiResponse<>(true, "Categories retrieved successfully", categories)));
+        paginate(files, ALL_PRODUCTS, catalogue, null);
+
+        Map<String, List<ProductSummary>> byCategory = new LinkedHashMap<>();
+        for (Category category : categories) {
+            byCategory.put(category.getSlug(), new ArrayList<>());
+        }
+        for (ProductSummary product : catalogue) {
+            byCategory.computeIfAbsent(product.getCategorySlug(), slug -> new ArrayList<>()).add(product);
+        }
+        for (Map.Entry<String, List<ProductSummary>> category : byCategory.entrySet()) {
+            if (category.getKey() != null && SAFE_SLUG.matcher(category.getKey()).matches()) {
+                paginate(files, "category/" + category.getKey() + "/", category.getValue(), null);
+            } else {
+                log.warn("[CATALOG] Category slug '{}' is not a safe file name; left to the API", category.getKey());
+            }
+        }
+        return files;
+    }
+
+    /*
+     * The pages of one listing that differ between before and after: every page
+     * when the listing gained or lost a product (totals are on each page), else
+     * the pages holding one of the changed ids. Pages past the new end go into
+     * stale. A listing that is empty and is not a category's own is not rendered.
+     */
+    private void renderChanged(Map<String, byte[]> files, Set<String> stale, String prefix, List<ProductSummary> before,
+                               List<ProductSummary> after, Set<Long> ids, boolean keepWhenEmpty) throws IOException {
+        boolean membershipChanged = !sameIds(before, after);
+        int pagesBefore = pageCount(before, keepWhenEmpty);
+        int pagesAfter = pageCount(after, keepWhenEmpty);
+        paginate(files, prefix, after, membershipChanged ? null : ids);
+        for (int number = pagesAfter; number < pagesBefore; number++) {
+            stale.add(prefix + "page-" + number + SUFFIX);
+        }
+        if (pagesAfter == 0) {
+            files.keySet().removeIf(name -> name.startsWith(prefix));
+        }
+    }
+
+    // An empty listing still gets page-0, as the API would answer it; onlyPagesWith null renders every page
+    private void paginate(Map<String, byte[]> files, String prefix, List<ProductSummary> listing,
+                          Set<Long> onlyPagesWith) throws IOException {
+        int pages = Math.max(1, (listing.size() + pageSize - 1) / pageSize);
+        for (int number = 0; number < pages; number++) {
+            List<ProductSummary> content = listing.subList(number * pageSize,
+                    Math.min(listing.size(), (number + 1) * pageSize));
+            if (onlyPagesWith != null && content.stream().noneMatch(p -> onlyPagesWith.contains(p.getId()))) {
+                continue;
+            }
+            Page<ProductSummary> page = new PageImpl<>(content, PageRequest.of(number, pageSize, NEWEST), listing.size());
+            files.put(prefix + "page-" + number + SUFFIX,
+                    json(new ApiResponse<>(true, "Products retrieved successfully", page)));
+        }
+    }
+
+    private int pageCount(List<ProductSummary> listing, boolean keepWhenEmpty) {
+        if (listing.isEmpty()) {
+            return keepWhenEmpty ? 1 : 0;
+        }
+        return (listing.size() + pageSize - 1) / pageSize;
+    }
+
+    private static boolean sameIds(List<ProductSummary> a, List<ProductSummary> b) {
+        if (a.size() != b.size()) {
+            return false;
+        }
+        for (int i = 0; i < a.size(); i++) {
+            if (!a.get(i).getId().equals(b.get(i).getId())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static List<ProductSummary> inCategory(List<ProductSummary> listing, String slug) {
+        return listing.stream().filter(product -> Objects.equals(product.getCategorySlug(), slug)).toList();
+    }
+
+    private byte[] json(Object body) throws IOException {
+        return objectMapper.writeValueAsBytes(body);
+    }
+
+    private int writeAll(Map<String, byte[]> files) throws IOException {
+        int changed = 0;
+        for (Map.Entry<String, byte[]> file : files.entrySet()) {
+            if (write(file.getKey(), file.getValue())) {
+                changed++;
+            }
+        }
+        return changed;
+    }
+
+    // Gzips to a temp file beside the target and renames it into place; false when the file was already current
+    private boolean write(String name, byte[] content) throws IOException {
+        Path target = root().resolve(name);
+        String hash = sha256(content);
+        if (hash.equals(written.get(name)) && Files.exists(target)) {
+            return false;
+        }
+        Files.createDirectories(target.getParent());
+        Path temp = target.resolveSibling("." + target.getFileName() + "." + ProcessHandle.current().pid() + ".tmp");
+        try {
+            try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(temp))) {
+                out.write(content);
+            }
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        written.put(name, hash);
+        return true;
+    }
+
+    // Deletes snapshot files that were not rendered this time, then any directories left empty
+    private int prune(Set<String> keep) throws IOException {
+        Path root = root();
+        if (!Files.isDirectory(root)) {
+            return 0;
+        }
+        int removed = 0;
+        List<Path> paths;
+        try (Stream<Path> walk = Files.walk(root)) {
+            paths = walk.sorted(Comparator.reverseOrder()).toList();
+        }
+        for (Path path : paths) {
+            if (path.equals(root)) {
+                continue;
+            }
+            String name = root.relativize(path).toString().replace(path.getFileSystem().getSeparator(), "/");
+            if (Files.isDirectory(path)) {
+                try (Stream<Path> children = Files.list(path)) {
+                    if (children.findAny().isEmpty()) {
+                        Files.delete(path);
+                    }
+                }
+            } else if (name.endsWith(SUFFIX) && !keep.contains(name)) {
+                Files.delete(path);
+                written.remove(name);
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    private Path root() {
+        return Paths.get(dir).toAbsolutePath();
+    }
+
+    private static String sha256(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
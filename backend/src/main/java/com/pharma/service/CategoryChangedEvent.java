@@ -0,0 +1,9 @@
+package com.pharma.service;
+
+/**
+ * Published by CategoryTree whenever a category or subcategory is created,
+ * changed or deleted. Like ProductChangedEvent, listeners keeping derived
+ * copies should use {@code @TransactionalEventListener(fallbackExecution = true)}.
+ */
+public record CategoryChangedEvent() {
+}
@@ -17,9 +17,11 @@ import lombok.RequiredArgsConstructor;
 public class CategoryService {
 
     private final CategoryRepository categoryRepository;
+    private final CategoryTree categoryTree;
 
+    // Served from the in-memory taxonomy snapshot, not the database
     public List<Category> getAllCategories() {
-        return categoryRepository.findAll();
+        return categoryTree.current().categories();
     }
 
     public Category getCategoryById(Long id) {
@@ -33,7 +35,9 @@ public class CategoryService {
         category.setName(request.getName());
         category.setDescription(request.getDescription());
         category.setSlug(generateSlug(request.getName()));
-        return categoryRepository.save(category);
+        Category saved = categoryRepository.save(category);
+        categoryTree.invalidate();
+        return saved;
     }
 
     @Transactional
@@ -42,13 +46,16 @@ public class CategoryService {
         category.setName(request.getName());
         category.setDescription(request.getDescription());
         category.setSlug(generateSlug(request.getName()));
-        return categoryRepository.save(category);
+        Category saved = categoryRepository.save(category);
+        categoryTree.invalidate();
+        return saved;
     }
 
     @Transactional
     public void deleteCategory(Long id) {
         Category category = getCategoryById(id);
         categoryRepository.delete(category);
+        categoryTree.invalidate();
     }
 
     private String generateSlug(String name) {
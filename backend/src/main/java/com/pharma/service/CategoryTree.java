@@ -0,0 +1,281 @@
+package com.pharma.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.pharma.model.Category;
+import com.pharma.model.SubCategory;
+import com.pharma.repository.CategoryRepository;
+import com.pharma.repository.SubCategoryRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * The whole category -> subcategory taxonomy as one immutable snapshot.
+ *
+ * The taxonomy changes a few times a month but is read on every storefront
+ * page, so it is loaded once (two queries, shared by concurrent misses via
+ * SingleFlight) and served from memory until CategoryService or
+ * SubCategoryService change it. Writers call invalidate:
+ * the snapshot is dropped immediately and again after the writing transaction
+ * commits, and the next read rebuilds it, so a read that raced the write
+ * cannot keep the old taxonomy around. Each invalidate also publishes a
+ * CategoryChangedEvent for listeners that keep their own derived copies.
+ *
+ * Writes on other nodes (or straight to the database) raise no invalidate
+ * here, so every app.categories.version-check-interval-ms the row count and
+ * latest updatedAt of both tables are compared with those read just before
+ * the snapshot was loaded; on a difference the snapshot is invalidated as if
+ * written locally. A remote edit is therefore served, and its old ETag
+ * honoured, for at most that interval.
+ *
+ * Each snapshot carries a strong ETag hashed from its content, identical on
+ * every instance for the same taxonomy, for conditional GETs on
+ * /api/categories.
+ *
+ * The entities in a snapshot are detached copies shared by all readers and
+ * must not be modified.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CategoryTree {
+
+    private final CategoryRepository categoryRepository;
+    private final SubCategoryRepository subCategoryRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final SingleFlight singleFlight;
+
+    private final AtomicLong generation = new AtomicLong();
+    private volatile Snapshot snapshot;
+
+    public Snapshot current() {
+        Snapshot current = snapshot;
+        return current != null ? current : load();
+    }
+
+    /** Call whenever a category or subcategory is created, changed or deleted. */
+    public void invalidate() {
+        drop();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // A rebuild between now and commit still reads the old rows
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    drop();
+                }
+            });
+        }
+        eventPublisher.publishEvent(new CategoryChangedEvent());
+    }
+
+    @Scheduled(fixedDelayString = "${app.categories.version-check-interval-ms:10000}")
+    public void checkForOutsideChanges() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            return;
+        }
+        try {
+            String version = readVersion();
+            if (!version.equals(current.version)) {
+                log.info("[CATEGORIES] Taxonomy changed outside this instance, reloading");
+                invalidate();
+            }
+        } catch (RuntimeException e) {
+            log.warn("[CATEGORIES] Version check failed, keeping the current snapshot: {}", e.getMessage());
+        }
+    }
+
+    private String readVersion() {
+        return marker(categoryRepository.findChangeMarker()) + "/" + marker(subCategoryRepository.findChangeMarker());
+    }
+
+    private static String marker(List<Object[]> rows) {
+        return rows.isEmpty() ? "" : Arrays.toString(rows.get(0));
+    }
+
+    private void drop() {
+        generation.incrementAndGet();
+        snapshot = null;
+    }
+
+    // Concurrent misses share one load per generation; a reader arriving after an invalidate
+    // starts a new one rather than joining a load that may have read the old rows
+    private Snapshot load() {
+        long loadingGeneration = generation.get();
+        return singleFlight.load("category-tree", loadingGeneration, () -> {
+            Snapshot current = snapshot;
+            if (current != null) {
+                return current;
+            }
+            long start = System.currentTimeMillis();
+            // Read first: a write landing during the load then shows up as a change at the next check
+            String version = readVersion();
+            Snapshot built = Snapshot.of(categoryRepository.findAll(), subCategoryRepository.findAll(), version);
+            // Invalidated while loading: serve what was read but do not keep it
+            if (generation.get() == loadingGeneration) {
+                snapshot = built;
+            }
+            log.debug("[CATEGORIES] Loaded {} categories in {} ms", built.categories.size(),
+                    System.currentTimeMillis() - start);
+            return built;
+        });
+    }
+
+    public static final class Snapshot {
+
+        private final List<Category> categories;
+        private final Map<Long, List<SubCategory>> subCategoriesByCategory;
+        private final Map<Long, Category> categoriesById;
+        private final Map<String, Category> categoriesBySlug;
+        private final Map<Long, SubCategory> subCategoriesById;
+        // category id -> subcategory slug -> subcategory
+        private final Map<Long, Map<String, SubCategory>> subCategoriesBySlug;
+        private final String etag;
+        // Row counts and latest updatedAt as read before loading; see checkForOutsideChanges
+        private final String version;
+
+        private Snapshot(List<Category> categories, Map<Long, List<SubCategory>> subCategoriesByCategory,
+                         Map<Long, Category> categoriesById, Map<String, Category> categoriesBySlug,
+                         Map<Long, SubCategory> subCategoriesById,
+                         Map<Long, Map<String, SubCategory>> subCategoriesBySlug, String etag, String version) {
+            this.categories = categories;
+            this.subCategoriesByCategory = subCategoriesByCategory;
+            this.categoriesById = categoriesById;
+            this.categoriesBySlug = categoriesBySlug;
+            this.subCategoriesById = subCategoriesById;
+            this.subCategoriesBySlug = subCategoriesBySlug;
+            this.etag = etag;
+            this.version = version;
+        }
+
+        /** All categories, by id. */
+        public List<Category> categories() {
+            return categories;
+        }
+
+        /** The category's subcategories by id, or empty if there is no such category. */
+        public Optional<List<SubCategory>> subCategories(Long categoryId) {
+            return Optional.ofNullable(subCategoriesByCategory.get(categoryId));
+        }
+
+        public Optional<Category> category(Long id) {
+            return Optional.ofNullable(categoriesById.get(id));
+        }
+
+        public Optional<Category> category(String slug) {
+            return Optional.ofNullable(categoriesBySlug.get(slug));
+        }
+
+        public Optional<SubCategory> subCategory(Long id) {
+            return Optional.ofNullable(subCategoriesById.get(id));
+        }
+
+        public Optional<SubCategory> subCategory(Category category, String slug) {
+            return Optional.ofNullable(subCategoriesBySlug.getOrDefault(category.getId(), Map.of()).get(slug));
+        }
+
+        /** Quoted strong ETag of this taxonomy. */
+        public String etag() {
+            return etag;
+        }
+
+        static Snapshot of(List<Category> categoryRows, List<SubCategory> subCategoryRows) {
+            return of(categoryRows, subCategoryRows, "");
+        }
+
+        static Snapshot of(List<Category> categoryRows, List<SubCategory> subCategoryRows, String version) {
+            List<Category> categories = new ArrayList<>();
+            Map<Long, Category> byId = new HashMap<>();
+            Map<String, Category> bySlug = new HashMap<>();
+            for (Category row : sortedById(categoryRows, Category::getId)) {
+                Category copy = new Category(row.getId(), row.getName(), row.getDescription(), row.getSlug(),
+                        row.getCreatedAt(), row.getUpdatedAt());
+                categories.add(copy);
+                byId.put(copy.getId(), copy);
+                bySlug.put(copy.getSlug(), copy);
+            }
+
+            Map<Long, List<SubCategory>> subCategories = new LinkedHashMap<>();
+            Map<Long, SubCategory> subCategoriesById = new HashMap<>();
+            Map<Long, Map<String, SubCategory>> subCategoriesBySlug = new HashMap<>();
+            for (Category category : categories) {
+                subCategories.put(category.getId(), new ArrayList<>());
+                subCategoriesBySlug.put(category.getId(), new HashMap<>());
+            }
+            for (SubCategory row : sortedById(subCategoryRows, SubCategory::getId)) {
+                // getId on a lazy category proxy does not initialise it
+                Category category = row.getCategory() != null ? byId.get(row.getCategory().getId()) : null;
+                if (category == null) {
+                    continue;
+                }
+                SubCategory copy = new SubCategory(row.getId(), row.getName(), row.getDescription(), row.getSlug(),
+                        category, row.getCreatedAt(), row.getUpdatedAt());
+                subCategories.get(category.getId()).add(copy);
+                subCategoriesById.put(copy.getId(), copy);
+                subCategoriesBySlug.get(category.getId()).put(copy.getSlug(), copy);
+            }
+
+            MessageDigest digest = sha256();
+            for (Category category : categories) {
+                hash(digest, category.getId(), category.getName(), category.getDescription(), category.getSlug(),
+                        category.getCreatedAt(), category.getUpdatedAt());
+                for (SubCategory subCategory : subCategories.get(category.getId())) {
+                    hash(digest, subCategory.getId(), subCategory.getName(), subCategory.getDescription(),
+                            subCategory.getSlug(), subCategory.getCreatedAt(), subCategory.getUpdatedAt());
+                }
+            }
+            String etag = "\"" + HexFormat.of().formatHex(digest.digest(), 0, 16) + "\"";
+
+            subCategories.replaceAll((id, list) -> Collections.unmodifiableList(list));
+            subCategoriesBySlug.replaceAll((id, map) -> Collections.unmodifiableMap(map));
+            return new Snapshot(Collections.unmodifiableList(categories), Collections.unmodifiableMap(subCategories),
+                    Collections.unmodifiableMap(byId), Collections.unmodifiableMap(bySlug),
+                    Collections.unmodifiableMap(subCategoriesById), Collections.unmodifiableMap(subCategoriesBySlug),
+                    etag, version);
+        }
+
+        private static <T> List<T> sortedById(List<T> rows, Function<T, Long> id) {
+            List<T> sorted = new ArrayList<>(rows);
+            sorted.sort(Comparator.comparing(id, Comparator.nullsFirst(Comparator.naturalOrder())));
+            return sorted;
+        }
+
+        private static void hash(MessageDigest digest, Object... fields) {
+            for (Object field : fields) {
+                digest.update(Objects.toString(field, "").getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0x1F);
+            }
+            digest.update((byte) 0x1E);
+        }
+
+        private static MessageDigest sha256() {
+            try {
+                return MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 not available", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,375 @@
+package com.pharma.service;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.pharma.repository.OrderItemRepository;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * "Frequently bought together": for each product, the products most often in
+ * the same order, for GET /api/products/{id}/related.
+ *
+ * A sparse co-occurrence matrix is kept in memory, one LongIntMap row per
+ * product (other product id -> orders containing both). A row that reaches
+ * 4 * app.copurchase.top-k entries is cut back to its 2 * top-k strongest, so
+ * memory grows with the catalogue, not with the order history; pairs in the
+ * long tail can be forgotten and start again from zero.
+ *
+ * Built once the application is ready by streaming order lines (cancelled
+ * orders left out) and kept current from OrderPlacedEvent after each checkout
+ * commits. Cancellations are not subtracted. If app.copurchase.snapshot-file
+ * is set, the matrix is written there every snapshot-interval-ms (and at
+ * shutdown) when it changed, and a restart loads it and streams only the
+ * orders placed since. These are statistics: an order that commits out of id
+ * order around a load or restart can be missed.
+ */
+@Component
+@Slf4j
+public class CoPurchaseIndex {
+
+    private static final int SNAPSHOT_MAGIC = 0x43505831; // "CPX1"
+    // Orders with more distinct products than this only pair up the first ones
+    static final int MAX_BASKET = 100;
+
+    private final OrderItemRepository orderItemRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int topK;
+    private final Path snapshotFile;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // product id -> index of its row in rows
+    private LongIntMap rowIndex = new LongIntMap();
+    private List<LongIntMap> rows = new ArrayList<>();
+    // Highest order id counted; a restart streams the orders after it
+    private long lastOrderId;
+    // Bumped by every change; the snapshot is rewritten when it is behind
+    private long version;
+    // Orders placed while the initial load runs
+    private final List<OrderPlacedEvent> pending = new ArrayList<>();
+    private volatile boolean ready;
+
+    // Only touched by writeSnapshot, which is synchronized
+    private long snapshotVersion;
+
+    public CoPurchaseIndex(OrderItemRepository orderItemRepository, PlatformTransactionManager transactionManager,
+                           @Value("${app.copurchase.top-k:20}") int topK,
+                           @Value("${app.copurchase.snapshot-file:}") String snapshotFile) {
+        this.orderItemRepository = orderItemRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.topK = topK;
+        this.snapshotFile = snapshotFile == null || snapshotFile.isBlank() ? null : Path.of(snapshotFile);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long start = System.currentTimeMillis();
+        boolean restored = snapshotFile != null && readSnapshot();
+        long after;
+        lock.readLock().lock();
+        try {
+            after = lastOrderId;
+        } finally {
+            lock.readLock().unlock();
+        }
+        int orders = stream(after);
+        int products;
+        lock.writeLock().lock();
+        try {
+            for (OrderPlacedEvent event : pending) {
+                // Committed before the stream's query ran, so already counted
+                if (event.orderId() > lastOrderId) {
+                    count(event.orderId(), event.productIds());
+                }
+            }
+            pending.clear();
+            products = rows.size();
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("[COPURCHASE] {} co-purchases of {} products ({} orders streamed) in {} ms",
+                restored ? "Restored" : "Built", products, orders, System.currentTimeMillis() - start);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderPlaced(OrderPlacedEvent event) {
+        lock.writeLock().lock();
+        try {
+            if (!ready) {
+                pending.add(event);
+                return;
+            }
+            count(event.orderId(), event.productIds());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Up to {@code limit} (at most top-k) ids of the products most often ordered with {@code productId}, most first. */
+    public List<Long> related(Long productId, int limit) {
+        lock.readLock().lock();
+        try {
+            int index = rowIndex.get(productId, -1);
+            if (index < 0) {
+                return List.of();
+            }
+            return Arrays.stream(ranked(rows.get(index), Math.min(limit, topK))).boxed().toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    int rowSize(Long productId) {
+        lock.readLock().lock();
+        try {
+            int index = rowIndex.get(productId, -1);
+            return index < 0 ? 0 : rows.get(index).size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Every order after the given id, one order at a time; returns how many there were
+    private int stream(long afterOrderId) {
+        Integer orders = readOnlyTransaction.execute(status -> {
+            int counted = 0;
+            long orderId = 0;
+            List<Long> basket = new ArrayList<>();
+            try (Stream<Object[]> lines = orderItemRepository.streamOrderProductsAfter(afterOrderId)) {
+                Iterator<Object[]> it = lines.iterator();
+                while (it.hasNext()) {
+                    Object[] line = it.next();
+                    long lineOrderId = (Long) line[0];
+                    if (lineOrderId != orderId && !basket.isEmpty()) {
+                        countLoaded(orderId, basket);
+                        basket.clear();
+                        counted++;
+                    }
+                    orderId = lineOrderId;
+                    basket.add((Long) line[1]);
+                }
+            }
+            if (!basket.isEmpty()) {
+                countLoaded(orderId, basket);
+                counted++;
+            }
+            return counted;
+        });
+        return orders == null ? 0 : orders;
+    }
+
+    // The lock is taken per order, so checkouts completing meanwhile are not held up
+    private void countLoaded(long orderId, List<Long> productIds) {
+        lock.writeLock().lock();
+        try {
+            count(orderId, productIds);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Caller holds the write lock
+    private void count(long orderId, List<Long> productIds) {
+        long[] distinct = productIds.stream()
+                .filter(Objects::nonNull)
+                .mapToLong(Long::longValue)
+                .distinct()
+                .limit(MAX_BASKET)
+                .toArray();
+        for (int i = 0; i < distinct.length; i++) {
+            for (int j = i + 1; j < distinct.length; j++) {
+                increment(distinct[i], distinct[j]);
+                increment(distinct[j], distinct[i]);
+            }
+        }
+        lastOrderId = Math.max(lastOrderId, orderId);
+        version++;
+    }
+
+    private void increment(long productId, long otherId) {
+        int index = rowIndex.get(productId, -1);
+        if (index < 0) {
+            index = rows.size();
+            rows.add(new LongIntMap());
+            rowIndex.put(productId, index);
+        }
+        LongIntMap row = rows.get(index);
+        row.addTo(otherId, 1);
+        if (row.size() >= 4 * topK) {
+            rows.set(index, strongest(row, 2 * topK));
+        }
+    }
+
+    private static LongIntMap strongest(LongIntMap row, int limit) {
+        long[] keep = ranked(row, limit);
+        LongIntMap trimmed = new LongIntMap(keep.length);
+        for (long key : keep) {
+            trimmed.put(key, row.get(key, 0));
+        }
+        return trimmed;
+    }
+
+    // Keys with the highest counts first, lower id first among equals
+    private static long[] ranked(LongIntMap row, int limit) {
+        int size = row.size();
+        long[] keys = new long[size];
+        int[] counts = new int[size];
+        int[] filled = new int[1];
+        row.forEach((key, count) -> {
+            keys[filled[0]] = key;
+            counts[filled[0]] = count;
+            filled[0]++;
+        });
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> counts[a] != counts[b]
+                ? Integer.compare(counts[b], counts[a])
+                : Long.compare(keys[a], keys[b]));
+        long[] top = new long[Math.max(0, Math.min(limit, size))];
+        for (int i = 0; i < top.length; i++) {
+            top[i] = keys[order[i]];
+        }
+        return top;
+    }
+
+    @Scheduled(fixedDelayString = "${app.copurchase.snapshot-interval-ms:300000}")
+    @PreDestroy
+    public synchronized void writeSnapshot() {
+        if (snapshotFile == null || !ready) {
+            return;
+        }
+        byte[] content;
+        long writtenVersion;
+        lock.readLock().lock();
+        try {
+            if (version == snapshotVersion) {
+                return;
+            }
+            writtenVersion = version;
+            content = serialize();
+        } finally {
+            lock.readLock().unlock();
+        }
+        try {
+            if (snapshotFile.getParent() != null) {
+                Files.createDirectories(snapshotFile.getParent());
+            }
+            Path temp = snapshotFile.resolveSibling("." + snapshotFile.getFileName() + "." + ProcessHandle.current().pid() + ".tmp");
+            try {
+                Files.write(temp, content);
+                Files.move(temp, snapshotFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+            snapshotVersion = writtenVersion;
+            log.debug("[COPURCHASE] Wrote snapshot of {} bytes to {}", content.length, snapshotFile);
+        } catch (IOException e) {
+            // Kept behind, so the next run tries again
+            log.warn("[COPURCHASE] Writing snapshot {} failed: {}", snapshotFile, e.getMessage());
+        }
+    }
+
+    // Gzipped: magic, last order id, row count, then per row the product id, entry count and (id, count) pairs
+    private byte[] serialize() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(new GZIPOutputStream(bytes))) {
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeLong(lastOrderId);
+            out.writeInt(rows.size());
+            rowIndex.forEach((productId, index) -> {
+                LongIntMap row = rows.get(index);
+                try {
+                    out.writeLong(productId);
+                    out.writeInt(row.size());
+                    row.forEach((otherId, count) -> {
+                        try {
+                            out.writeLong(otherId);
+                            out.writeInt(count);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private boolean readSnapshot() {
+        if (!Files.isRegularFile(snapshotFile)) {
+            return false;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                new GZIPInputStream(Files.newInputStream(snapshotFile))))) {
+            if (in.readInt() != SNAPSHOT_MAGIC) {
+                throw new IOException("not a co-purchase snapshot");
+            }
+            long through = in.readLong();
+            int rowCount = in.readInt();
+            LongIntMap loadedIndex = new LongIntMap(rowCount);
+            List<LongIntMap> loadedRows = new ArrayList<>(rowCount);
+            for (int r = 0; r < rowCount; r++) {
+                long productId = in.readLong();
+                int entries = in.readInt();
+                LongIntMap row = new LongIntMap(entries);
+                for (int e = 0; e < entries; e++) {
+                    row.put(in.readLong(), in.readInt());
+                }
+                loadedIndex.put(productId, loadedRows.size());
+                loadedRows.add(row);
+            }
+            lock.writeLock().lock();
+            try {
+                rowIndex = loadedIndex;
+                rows = loadedRows;
+                lastOrderId = through;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            return true;
+        } catch (IOException | RuntimeException e) {
+            // Rebuilt from the orders instead
+            log.warn("[COPURCHASE] Ignoring snapshot {}: {}", snapshotFile, e.getMessage());
+            return false;
+        }
+    }
+}
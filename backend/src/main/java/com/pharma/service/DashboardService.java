@@ -5,6 +5,7 @@ import com.pharma.dto.response.DailyRevenueDto;
 import com.pharma.dto.response.ExpiringProductDto;
 import com.pharma.dto.response.LowStockProductDto;
 import com.pharma.dto.response.ProductSalesDto;
+import com.pharma.dto.response.SearchTermStatsResponse;
 import com.pharma.model.Product;
 import com.pharma.model.enums.OrderStatus;
 import com.pharma.model.enums.Role;
@@ -30,10 +31,38 @@ public class DashboardService {
     private final OrderRepository orderRepository;
     private final ProductRepository productRepository;
     private final UserRepository userRepository;
+    private final SingleFlight singleFlight;
+    private final SearchAnalytics searchAnalytics;
 
     private static final int LOW_STOCK_THRESHOLD = 10;
 
+    // Every admin tab polls the same aggregates; concurrent identical requests share one set of queries
     public DashboardStatsResponse getDashboardStats() {
+        return singleFlight.load("dashboard.stats", "all", this::loadDashboardStats);
+    }
+
+    public List<DailyRevenueDto> getDailyRevenue(int days) {
+        return singleFlight.load("dashboard.daily-revenue", days, () -> loadDailyRevenue(days));
+    }
+
+    public List<ExpiringProductDto> getExpiringProducts(int days) {
+        return singleFlight.load("dashboard.expiring-products", days, () -> loadExpiringProducts(days));
+    }
+
+    public List<LowStockProductDto> getLowStockProducts(int threshold) {
+        return singleFlight.load("dashboard.low-stock-products", threshold, () -> loadLowStockProducts(threshold));
+    }
+
+    public List<ProductSalesDto> getTopSellingProducts(int limit) {
+        return singleFlight.load("dashboard.top-products", limit, () -> loadTopSellingProducts(limit));
+    }
+
+    // In memory, see SearchAnalytics; no queries to coalesce
+    public SearchTermStatsResponse getSearchTermStats(int limit) {
+        return searchAnalytics.stats(limit);
+    }
+
+    private DashboardStatsResponse loadDashboardStats() {
         DashboardStatsResponse stats = new DashboardStatsResponse();
 
         // Revenue calculations
@@ -106,7 +135,7 @@ public class DashboardService {
     }
 
     // New analytics methods
-    public List<DailyRevenueDto> getDailyRevenue(int days) {
+    private List<DailyRevenueDto> loadDailyRevenue(int days) {
         List<DailyRevenueDto> dailyRevenues = new ArrayList<>();
         LocalDate today = LocalDate.now();
 
@@ -122,7 +151,7 @@ public class DashboardService {
         return dailyRevenues;
     }
 
-    public List<ExpiringProductDto> getExpiringProducts(int days) {
+    private List<ExpiringProductDto> loadExpiringProducts(int days) {
         LocalDate today = LocalDate.now();
         LocalDate futureDate = today.plusDays(days);
 
@@ -144,7 +173,7 @@ public class DashboardService {
                 .collect(Collectors.toList());
     }
 
-    public List<LowStockProductDto> getLowStockProducts(int threshold) {
+    private List<LowStockProductDto> loadLowStockProducts(int threshold) {
         List<Product> products = productRepository.findAll();
 
         return products.stream()
@@ -158,7 +187,7 @@ public class DashboardService {
                 .collect(Collectors.toList());
     }
 
-    public List<ProductSalesDto> getTopSellingProducts(int limit) {
+    private List<ProductSalesDto> loadTopSellingProducts(int limit) {
         // Get all orders and aggregate by product
         Map<Long, ProductSalesDto> salesMap = new HashMap<>();
 
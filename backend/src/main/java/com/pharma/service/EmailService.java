@@ -59,21 +59,18 @@ public class EmailService {
 
     // ═══════════════════════════════════════════════════════════════════════════
     // ADMIN — 1. New Order Alert
+    // Delivered by OutboxDispatcher: synchronous, and failures propagate so the
+    // outbox can retry.
     // ═══════════════════════════════════════════════════════════════════════════
-    @Async
-    public void sendOrderPlacedNotification(Order order) {
+    public void sendOrderPlacedNotification(Order order) throws Exception {
         if (!adminOrderPlacedEnabled) {
             log.info("[ADMIN NOTIF OFF] order-placed alert skipped for Order #{}", order.getId());
             return;
         }
-        try {
-            sendHtmlEmail(adminEmail,
-                    "🛒 New Order Received: #" + order.getId(),
-                    buildAdminOrderBody(order));
-            log.info("[ADMIN EMAIL SENT] New order alert for Order #{}", order.getId());
-        } catch (Exception e) {
-            log.error("[ADMIN EMAIL FAILED] New order alert for Order #{}", order.getId(), e);
-        }
+        sendHtmlEmail(adminEmail,
+                "🛒 New Order Received: #" + order.getId(),
+                buildAdminOrderBody(order));
+        log.info("[ADMIN EMAIL SENT] New order alert for Order #{}", order.getId());
     }
 
     // ═══════════════════════════════════════════════════════════════════════════
@@ -154,41 +151,31 @@ public class EmailService {
     }
 
     // ═══════════════════════════════════════════════════════════════════════════
-    // CUSTOMER — 2. Order Confirmation
+    // CUSTOMER — 2. Order Confirmation (delivered by OutboxDispatcher)
     // ═══════════════════════════════════════════════════════════════════════════
-    @Async
-    public void sendCustomerOrderConfirmation(Order order) {
+    public void sendCustomerOrderConfirmation(Order order) throws Exception {
         if (!customerOrderConfirmationEnabled) {
             log.info("[CUSTOMER NOTIF OFF] order-confirmation skipped for Order #{}", order.getId());
             return;
         }
-        try {
-            sendHtmlEmail(order.getUser().getEmail(),
-                    "✅ Order Confirmed: #" + order.getId() + " — Thank you!",
-                    buildCustomerOrderConfirmationBody(order));
-            log.info("[CUSTOMER EMAIL SENT] Order confirmation to {} for Order #{}", order.getUser().getEmail(), order.getId());
-        } catch (Exception e) {
-            log.error("[CUSTOMER EMAIL FAILED] Order confirmation for Order #{}", order.getId(), e);
-        }
+        sendHtmlEmail(order.getUser().getEmail(),
+                "✅ Order Confirmed: #" + order.getId() + " — Thank you!",
+                buildCustomerOrderConfirmationBody(order));
+        log.info("[CUSTOMER EMAIL SENT] Order confirmation to {} for Order #{}", order.getUser().getEmail(), order.getId());
     }
 
     // ═══════════════════════════════════════════════════════════════════════════
-    // CUSTOMER — 3. Order Status Update
+    // CUSTOMER — 3. Order Status Update (delivered by OutboxDispatcher)
     // ═══════════════════════════════════════════════════════════════════════════
-    @Async
-    public void sendOrderStatusUpdate(Order order, OrderStatus newStatus) {
+    public void sendOrderStatusUpdate(Order order, OrderStatus newStatus) throws Exception {
         if (!customerOrderStatusUpdateEnabled) {
             log.info("[CUSTOMER NOTIF OFF] order-status-update skipped for Order #{}", order.getId());
             return;
         }
-        try {
-            sendHtmlEmail(order.getUser().getEmail(),
-                    statusSubject(newStatus, order.getId()),
-                    buildStatusUpdateBody(order, newStatus));
-            log.info("[CUSTOMER EMAIL SENT] Status update ({}) for Order #{}", newStatus, order.getId());
-        } catch (Exception e) {
-            log.error("[CUSTOMER EMAIL FAILED] Status update for Order #{}", order.getId(), e);
-        }
+        sendHtmlEmail(order.getUser().getEmail(),
+                statusSubject(newStatus, order.getId()),
+                buildStatusUpdateBody(order, newStatus));
+        log.info("[CUSTOMER EMAIL SENT] Status update ({}) for Order #{}", newStatus, order.getId());
     }
 
     // ═══════════════════════════════════════════════════════════════════════════
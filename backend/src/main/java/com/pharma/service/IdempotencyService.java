@@ -0,0 +1,277 @@
+package com.pharma.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.pharma.exception.IdempotencyConflictException;
+import com.pharma.model.IdempotencyRecord;
+import com.pharma.model.enums.IdempotencyStatus;
+import com.pharma.repository.IdempotencyRecordRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Executes a request at most once per (caller, Idempotency-Key).
+ *
+ * Completed responses are kept as serialized JSON in idempotency_keys so any
+ * node can replay them, with a size-bounded Caffeine cache in front so hot
+ * retries never reach the database. Duplicates that arrive while the first
+ * attempt is still running wait for it: on the same node they share its
+ * future, across nodes they poll the row until it completes.
+ *
+ * The action runs in a transaction that also marks the key COMPLETED with
+ * its response (the action's own @Transactional joins it), so an order and
+ * its stored response commit or roll back together. A failed attempt
+ * releases its key, so the client may retry; a key is never released once
+ * that transaction may have committed. An attempt whose node dies keeps the
+ * key only until its lease (app.idempotency.lease-seconds) runs out; the
+ * attempt that takes it over cannot commit if the first one already did.
+ */
+@Service
+@Slf4j
+public class IdempotencyService {
+
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final long POLL_INTERVAL_MS = 100;
+
+    private final IdempotencyRecordRepository repository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final Cache<String, StoredResponse> completed;
+    private final Map<String, CompletableFuture<StoredResponse>> inFlight = new ConcurrentHashMap<>();
+    private final long ttlHours;
+
+    @Value("${app.idempotency.lease-seconds:30}")
+    private long leaseSeconds = 30;
+
+    @Value("${app.idempotency.wait-seconds:10}")
+    private long waitSeconds = 10;
+
+    public IdempotencyService(IdempotencyRecordRepository repository, ObjectMapper objectMapper,
+                              TransactionTemplate transactionTemplate,
+                              @Value("${app.idempotency.cache-size:10000}") long cacheSize,
+                              @Value("${app.idempotency.ttl-hours:24}") long ttlHours) {
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.ttlHours = ttlHours;
+        this.completed = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(Duration.ofHours(ttlHours))
+                .build();
+    }
+
+    /** A serialized response and whether it was replayed rather than freshly produced. */
+    public record IdempotentResponse(String body, boolean replayed) {
+    }
+
+    private record StoredResponse(String requestHash, String body) {
+    }
+
+    /**
+     * Run {@code action} unless this caller already used {@code key}, in which
+     * case return the stored response of the earlier execution.
+     *
+     * @throws IdempotencyConflictException if the key was used for a different
+     *         request body, or the first attempt is still running after the wait timeout
+     */
+    public IdempotentResponse execute(String owner, String key, Object request, Supplier<?> action) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency-Key must be 1-" + MAX_KEY_LENGTH + " characters");
+        }
+        String scopedKey = owner + '\n' + key;
+        String requestHash = hash(request);
+
+        StoredResponse cached = completed.getIfPresent(scopedKey);
+        if (cached != null) {
+            return replay(cached, requestHash);
+        }
+
+        // Same-node duplicates piggy-back on the first attempt instead of racing it
+        CompletableFuture<StoredResponse> mine = new CompletableFuture<>();
+        CompletableFuture<StoredResponse> running = inFlight.putIfAbsent(scopedKey, mine);
+        if (running != null) {
+            return replay(await(running), requestHash);
+        }
+
+        try {
+            IdempotentResponse response = claimAndRun(owner, key, requestHash, action);
+            StoredResponse stored = new StoredResponse(requestHash, response.body());
+            completed.put(scopedKey, stored);
+            mine.complete(stored);
+            return response;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(scopedKey, mine);
+        }
+    }
+
+    private IdempotentResponse claimAndRun(String owner, String key, String requestHash, Supplier<?> action) {
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(waitSeconds);
+
+        while (true) {
+            LocalDateTime now = LocalDateTime.now();
+            Optional<IdempotencyRecord> existing = repository.findByOwnerAndIdempotencyKey(owner, key);
+
+            IdempotencyRecord claimed = null;
+            if (existing.isEmpty()) {
+                claimed = tryInsert(owner, key, requestHash, now);
+            } else {
+                IdempotencyRecord record = existing.get();
+                if (record.getExpiresAt().isBefore(now)) {
+                    // Expired but not yet purged — the key is free again
+                    repository.delete(record);
+                    continue;
+                }
+                if (!record.getRequestHash().equals(requestHash)) {
+                    throw new IdempotencyConflictException(
+                            "Idempotency-Key has already been used for a different request");
+                }
+                if (record.getStatus() == IdempotencyStatus.COMPLETED) {
+                    return new IdempotentResponse(record.getResponseBody(), true);
+                }
+                if (record.getLockedUntil().isBefore(now)
+                        && repository.takeOverStale(record.getId(), now, now.plusSeconds(leaseSeconds)) == 1) {
+                    log.warn("[IDEMPOTENCY] Taking over abandoned attempt for key {}", key);
+                    claimed = record;
+                }
+            }
+
+            if (claimed != null) {
+                return run(claimed, action);
+            }
+
+            // Another node holds the key — poll until it completes or releases it
+            if (System.currentTimeMillis() >= deadline) {
+                throw new IdempotencyConflictException(
+                        "A request with this Idempotency-Key is still being processed");
+            }
+            sleep();
+        }
+    }
+
+    private IdempotencyRecord tryInsert(String owner, String key, String requestHash, LocalDateTime now) {
+        try {
+            return repository.saveAndFlush(IdempotencyRecord.builder()
+                    .owner(owner)
+                    .idempotencyKey(key)
+                    .requestHash(requestHash)
+                    .status(IdempotencyStatus.IN_PROGRESS)
+                    .lockedUntil(now.plusSeconds(leaseSeconds))
+                    .expiresAt(now.plusHours(ttlHours))
+                    .build());
+        } catch (DataIntegrityViolationException e) {
+            return null; // Lost the race to another node
+        }
+    }
+
+    private IdempotentResponse run(IdempotencyRecord record, Supplier<?> action) {
+        Long id = record.getId();
+        boolean[] reachedCommit = { false };
+        String body;
+        try {
+            body = transactionTemplate.execute(status -> {
+                String result = serialize(action.get());
+                if (repository.complete(id, result) == 0) {
+                    // A taken-over attempt finished first; undo this one's work
+                    status.setRollbackOnly();
+                    return null;
+                }
+                reachedCommit[0] = true;
+                return result;
+            });
+        } catch (RuntimeException e) {
+            if (reachedCommit[0]) {
+                // The commit itself failed and may have gone through; a retry after the lease finds out
+                log.error("[IDEMPOTENCY] Outcome of key {} unknown, keeping it until its lease ends",
+                        record.getIdempotencyKey(), e);
+            } else {
+                // Rolled back: release the key so the client can retry after a failure
+                repository.deleteById(id);
+            }
+            throw e;
+        }
+
+        if (body == null) {
+            return repository.findById(id)
+                    .filter(r -> r.getStatus() == IdempotencyStatus.COMPLETED)
+                    .map(r -> new IdempotentResponse(r.getResponseBody(), true))
+                    .orElseThrow(() -> new IdempotencyConflictException(
+                            "A concurrent attempt with this Idempotency-Key failed; retry the request"));
+        }
+        return new IdempotentResponse(body, false);
+    }
+
+    private IdempotentResponse replay(StoredResponse stored, String requestHash) {
+        if (!stored.requestHash().equals(requestHash)) {
+            throw new IdempotencyConflictException("Idempotency-Key has already been used for a different request");
+        }
+        return new IdempotentResponse(stored.body(), true);
+    }
+
+    private StoredResponse await(CompletableFuture<StoredResponse> running) {
+        try {
+            return running.get(waitSeconds, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new IdempotencyConflictException("A request with this Idempotency-Key is still being processed");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IdempotencyConflictException("Interrupted while waiting for the original request");
+        }
+    }
+
+    private String serialize(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize response", e);
+        }
+    }
+
+    private String hash(Object request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] bytes = objectMapper.writeValueAsString(request).getBytes(StandardCharsets.UTF_8);
+            return HexFormat.of().formatHex(digest.digest(bytes));
+        } catch (NoSuchAlgorithmException | JsonProcessingException e) {
+            throw new IllegalStateException("Failed to hash request", e);
+        }
+    }
+
+    private void sleep() {
+        try {
+            Thread.sleep(POLL_INTERVAL_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IdempotencyConflictException("Interrupted while waiting for the original request");
+        }
+    }
+}
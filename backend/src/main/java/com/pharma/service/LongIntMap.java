@@ -0,0 +1,123 @@
+package com.pharma.service;
+
+import java.util.Arrays;
+
+/**
+ * Hash map from long keys to int values without boxing: open addressing with
+ * linear probing over two parallel arrays, doubled once two thirds full. For
+ * large numbers of small maps, where a HashMap<Long, Integer> would spend an
+ * entry object and two boxes on every pair.
+ *
+ * Any key but Long.MIN_VALUE (which marks a free slot) may be stored. There
+ * is no remove; rebuild a smaller map instead. Not thread-safe.
+ */
+final class LongIntMap {
+
+    private static final long FREE = Long.MIN_VALUE;
+
+    private long[] keys;
+    private int[] values;
+    private int mask;
+    private int size;
+
+    LongIntMap() {
+        this(4);
+    }
+
+    LongIntMap(int expectedSize) {
+        allocate(tableSize(expectedSize));
+    }
+
+    int size() {
+        return size;
+    }
+
+    /** The value for {@code key}, or {@code missing} if there is none. */
+    int get(long key, int missing) {
+        int slot = find(key);
+        return keys[slot] == key ? values[slot] : missing;
+    }
+
+    void put(long key, int value) {
+        int slot = insertionSlot(key);
+        values[slot] = value;
+    }
+
+    /** Adds {@code delta} to the value for {@code key} (0 if absent) and returns the sum. */
+    int addTo(long key, int delta) {
+        int slot = insertionSlot(key);
+        values[slot] += delta;
+        return values[slot];
+    }
+
+    void forEach(Consumer action) {
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != FREE) {
+                action.accept(keys[slot], values[slot]);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    interface Consumer {
+        void accept(long key, int value);
+    }
+
+    // Slot holding key, else the free slot where the probe ended
+    private int find(long key) {
+        if (key == FREE) {
+            throw new IllegalArgumentException("Long.MIN_VALUE cannot be used as a key");
+        }
+        int slot = mix(key) & mask;
+        while (keys[slot] != FREE && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private int insertionSlot(long key) {
+        int slot = find(key);
+        if (keys[slot] == key) {
+            return slot;
+        }
+        if (3 * (size + 1) > 2 * keys.length) {
+            grow();
+            slot = find(key);
+        }
+        keys[slot] = key;
+        size++;
+        return slot;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(oldKeys.length * 2);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != FREE) {
+                int slot = find(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        Arrays.fill(keys, FREE);
+        values = new int[capacity];
+        mask = capacity - 1;
+    }
+
+    // Smallest power of two holding expectedSize at under two thirds load
+    private static int tableSize(int expectedSize) {
+        int needed = Math.max(4, expectedSize + expectedSize / 2 + 1);
+        return Integer.highestOneBit(needed - 1) << 1;
+    }
+
+    // Sequential ids would otherwise fill runs of neighbouring slots
+    private static int mix(long key) {
+        long h = key * 0x9e3779b97f4a7c15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
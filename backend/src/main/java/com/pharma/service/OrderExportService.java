@@ -1,95 +1,147 @@
 package com.pharma.service;
 
-import com.pharma.model.Order;
-import lombok.RequiredArgsConstructor;
-import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
-import org.springframework.stereotype.Service;
-
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.List;
-
+import java.util.Locale;
+
+import javax.sql.DataSource;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Orders as an .xlsx file, written straight to an output stream (the HTTP
+ * response) instead of being built up as a byte[].
+ *
+ * Rows are read through a forward-only JDBC cursor, app.orders.export.fetch-size
+ * rows per round trip, inside a read-only transaction (PostgreSQL only honours
+ * the fetch size with auto-commit off), without loading Order entities. They go
+ * into an SXSSFWorkbook that keeps the last ROW_WINDOW rows in memory and
+ * flushes older ones to a compressed temp file. Column widths are fixed up
+ * front, since autoSizeColumn needs every row in memory. Heap use is therefore
+ * the same for ten orders or ten million; only the temp file grows.
+ */
 @Service
-@RequiredArgsConstructor
 public class OrderExportService {
 
-    private final OrderService orderService;
-
-    public byte[] exportUserOrders(String email) throws IOException {
-        List<Order> orders = orderService.getUserOrders(email);
-        return exportOrders(orders);
+    static final String[] HEADERS = { "Order ID", "Date", "Customer Email", "Status", "Total Amount",
+            "Payment Method", "Payment Status" };
+    // In characters; wide enough for the usual values of each column
+    private static final int[] COLUMN_WIDTHS = { 10, 18, 32, 12, 14, 16, 16 };
+    private static final int ROW_WINDOW = 100;
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
+    private static final String SELECT = "SELECT o.id, o.order_date, u.email, o.status, o.total_amount, "
+            + "o.payment_method, o.payment_status FROM orders o JOIN users u ON u.id = o.user_id ";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+
+    public OrderExportService(DataSource dataSource, PlatformTransactionManager transactionManager,
+                              @Value("${app.orders.export.fetch-size:500}") int fetchSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
     }
 
-    public byte[] exportAllOrders() throws IOException {
-        List<Order> orders = orderService.getAllOrdersList();
-        return exportOrders(orders);
+    /** The orders of the user with this email. */
+    public void writeUserOrders(String email, OutputStream out) throws IOException {
+        write(SELECT + "WHERE u.email = ? ORDER BY o.id", new Object[] { email }, out);
     }
 
-    public byte[] exportAllOrders(String customerEmail, java.time.LocalDateTime startDate,
-            java.time.LocalDateTime endDate) throws IOException {
-        List<Order> orders = orderService.getAllOrdersList();
-
-        // Apply filters
-        java.util.stream.Stream<Order> stream = orders.stream();
-
+    /**
+     * All orders, optionally only those of customers whose email contains
+     * {@code customerEmail} (ignoring case) and placed between
+     * {@code startDate} and {@code endDate} inclusive.
+     *
+     * The filters are part of the query, so only matching rows leave the
+     * database: order_date ranges use idx_orders_order_date, and on PostgreSQL
+     * the email match uses the trigram index on lower(users.email) (see
+     * scripts/add_order_export_indexes.sql) and then idx_orders_user_date for
+     * each matching customer.
+     */
+    public void writeAllOrders(String customerEmail, LocalDateTime startDate, LocalDateTime endDate,
+                               OutputStream out) throws IOException {
+        List<String> conditions = new ArrayList<>();
+        List<Object> args = new ArrayList<>();
         if (customerEmail != null && !customerEmail.isEmpty()) {
-            stream = stream.filter(o -> o.getUser() != null
-                    && o.getUser().getEmail().toLowerCase().contains(customerEmail.toLowerCase()));
+            conditions.add("LOWER(u.email) LIKE ? ESCAPE '\\'");
+            args.add("%" + escapeLike(customerEmail.toLowerCase(Locale.ROOT)) + "%");
         }
-
         if (startDate != null) {
-            stream = stream.filter(o -> o.getOrderDate().isAfter(startDate) || o.getOrderDate().isEqual(startDate));
+            conditions.add("o.order_date >= ?");
+            args.add(startDate);
         }
-
         if (endDate != null) {
-            stream = stream.filter(o -> o.getOrderDate().isBefore(endDate) || o.getOrderDate().isEqual(endDate));
+            conditions.add("o.order_date <= ?");
+            args.add(endDate);
         }
-
-        List<Order> filteredOrders = stream.collect(java.util.stream.Collectors.toList());
-        return exportOrders(filteredOrders);
+        String where = conditions.isEmpty() ? "" : "WHERE " + String.join(" AND ", conditions) + " ";
+        write(SELECT + where + "ORDER BY o.id", args.toArray(), out);
     }
 
-    private byte[] exportOrders(List<Order> orders) throws IOException {
-        try (Workbook workbook = new XSSFWorkbook(); ByteArrayOutputStream out = new ByteArrayOutputStream()) {
-            Sheet sheet = workbook.createSheet("Orders");
-
-            // Header
-            Row headerRow = sheet.createRow(0);
-            String[] headers = { "Order ID", "Date", "Customer Email", "Status", "Total Amount", "Payment Method",
-                    "Payment Status" };
-            CellStyle headerStyle = workbook.createCellStyle();
-            Font font = workbook.createFont();
-            font.setBold(true);
-            headerStyle.setFont(font);
-
-            for (int i = 0; i < headers.length; i++) {
-                Cell cell = headerRow.createCell(i);
-                cell.setCellValue(headers[i]);
-                cell.setCellStyle(headerStyle);
-            }
-
-            // Data
-            int rowIdx = 1;
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
-            for (Order order : orders) {
-                Row row = sheet.createRow(rowIdx++);
-                row.createCell(0).setCellValue(order.getId());
-                row.createCell(1).setCellValue(order.getOrderDate().format(formatter));
-                row.createCell(2).setCellValue(order.getUser() != null ? order.getUser().getEmail() : "N/A");
-                row.createCell(3).setCellValue(order.getStatus().name());
-                row.createCell(4).setCellValue(order.getTotalAmount().doubleValue());
-                row.createCell(5).setCellValue(order.getPaymentMethod().name());
-                row.createCell(6).setCellValue(order.getPaymentStatus().name());
-            }
-
-            for (int i = 0; i < headers.length; i++) {
-                sheet.autoSizeColumn(i);
-            }
+    // The filter is a plain substring, so % and _ typed by the admin match themselves
+    static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
 
+    private void write(String sql, Object[] args, OutputStream out) throws IOException {
+        SXSSFWorkbook workbook = new SXSSFWorkbook(ROW_WINDOW);
+        workbook.setCompressTempFiles(true);
+        try {
+            SXSSFSheet sheet = workbook.createSheet("Orders");
+            writeHeader(workbook, sheet);
+            int[] nextRow = { 1 };
+            RowCallbackHandler rowWriter = rs -> {
+                LocalDateTime orderDate = rs.getObject(2, LocalDateTime.class);
+                String email = rs.getString(3);
+                Row row = sheet.createRow(nextRow[0]++);
+                row.createCell(0).setCellValue(rs.getLong(1));
+                row.createCell(1).setCellValue(orderDate != null ? orderDate.format(DATE_FORMAT) : "");
+                row.createCell(2).setCellValue(email != null ? email : "N/A");
+                row.createCell(3).setCellValue(rs.getString(4));
+                BigDecimal total = rs.getBigDecimal(5);
+                row.createCell(4).setCellValue(total != null ? total.doubleValue() : 0);
+                row.createCell(5).setCellValue(rs.getString(6));
+                row.createCell(6).setCellValue(rs.getString(7));
+            };
+            readOnlyTransaction.executeWithoutResult(status -> jdbcTemplate.query(sql, rowWriter, args));
             workbook.write(out);
-            return out.toByteArray();
+        } finally {
+            // Deletes the temp file
+            workbook.dispose();
+            workbook.close();
+        }
+    }
+
+    private static void writeHeader(SXSSFWorkbook workbook, SXSSFSheet sheet) {
+        CellStyle headerStyle = workbook.createCellStyle();
+        Font font = workbook.createFont();
+        font.setBold(true);
+        headerStyle.setFont(font);
+
+        Row headerRow = sheet.createRow(0);
+        for (int i = 0; i < HEADERS.length; i++) {
+            Cell cell = headerRow.createCell(i);
+            cell.setCellValue(HEADERS[i]);
+            cell.setCellStyle(headerStyle);
+            sheet.setColumnWidth(i, COLUMN_WIDTHS[i] * 256);
         }
     }
 }
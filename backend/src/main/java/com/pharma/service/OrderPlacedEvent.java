@@ -0,0 +1,11 @@
+package com.pharma.service;
+
+import java.util.List;
+
+/**
+ * Published by OrderService.createOrder with the ids of the products ordered.
+ * Listeners should use {@code @TransactionalEventListener(fallbackExecution = true)}
+ * so they only see orders that committed.
+ */
+public record OrderPlacedEvent(Long orderId, List<Long> productIds) {
+}
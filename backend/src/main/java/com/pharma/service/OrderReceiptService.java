@@ -29,6 +29,7 @@ import lombok.RequiredArgsConstructor;
 public class OrderReceiptService {
 
     private final OrderService orderService;
+    private final PricingEngine pricingEngine;
 
     public byte[] generateReceipt(Long orderId) throws DocumentException, IOException {
         Order order = orderService.getOrderById(orderId);
@@ -82,10 +83,9 @@ public class OrderReceiptService {
                 PdfPCell totalCell = new PdfPCell();
                 Phrase totalPhrase = new Phrase();
                 
+                // Strike through against the unit price captured at checkout, not today's catalogue price
                 java.math.BigDecimal subtotal = item.getSubtotal();
-                java.math.BigDecimal originalUnitPrice = item.getProduct().getPrice();
-                int totalQuantity = item.getQuantity();
-                java.math.BigDecimal originalTotal = originalUnitPrice.multiply(java.math.BigDecimal.valueOf(totalQuantity));
+                java.math.BigDecimal originalTotal = pricingEngine.listTotal(item.getPrice(), item.getQuantity());
                 
                 if (originalTotal.compareTo(subtotal) > 0) {
                     Chunk strikeChunk = new Chunk("$" + df.format(originalTotal), strikeFont);
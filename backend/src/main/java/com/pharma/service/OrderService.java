@@ -1,8 +1,9 @@
 package com.pharma.service;
 
-import java.math.BigDecimal;
 import java.util.List;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -18,8 +19,10 @@ import com.pharma.model.OrderItem;
 import com.pharma.model.Product;
 import com.pharma.model.User;
 import com.pharma.model.enums.OrderStatus;
+import com.pharma.model.enums.OutboxEventType;
 import com.pharma.model.enums.PaymentStatus;
 import com.pharma.repository.OrderRepository;
+import com.pharma.repository.ProductRepository;
 
 import lombok.RequiredArgsConstructor;
 
@@ -28,9 +31,19 @@ import lombok.RequiredArgsConstructor;
 public class OrderService {
 
     private final OrderRepository orderRepository;
+    private final ProductRepository productRepository;
     private final CartService cartService;
     private final UserService userService;
-    private final EmailService emailService;
+    private final OutboxService outboxService;
+    private final StockReservationService stockReservationService;
+    private final PricingEngine pricingEngine;
+    private final ProductCache productCache;
+    private final ApplicationEventPublisher eventPublisher;
+
+    // guarded: one conditional UPDATE per line (default)
+    // locked:  lock all cart rows in id order, validate in memory, batch the decrements
+    @Value("${app.checkout.stock-mode:guarded}")
+    private String stockMode;
 
     @Transactional
     public Order createOrder(String email, OrderRequest request) {
@@ -41,12 +54,9 @@ public class OrderService {
             throw new RuntimeException("Cart is empty");
         }
 
-        // Validate stock availability
-        for (CartItem item : cart.getItems()) {
-            Product product = item.getProduct();
-            if (product.getStockQuantity() < item.getQuantity()) {
-                throw new InsufficientStockException("Insufficient stock for product: " + product.getName());
-            }
+        boolean lockedMode = "locked".equalsIgnoreCase(stockMode);
+        if (lockedMode) {
+            stockReservationService.reserve(cart.getItems());
         }
 
         Order order = new Order();
@@ -57,61 +67,44 @@ public class OrderService {
         order.setPaymentMethod(request.getPaymentMethod());
         order.setPaymentStatus(PaymentStatus.PENDING);
 
-        BigDecimal totalAmount = BigDecimal.ZERO;
+        List<CartItem> items = cart.getItems();
+        PricingEngine.CartPricing pricing = pricingEngine.price(items);
 
-        for (CartItem cartItem : cart.getItems()) {
+        for (int i = 0; i < items.size(); i++) {
+            CartItem cartItem = items.get(i);
             Product product = cartItem.getProduct();
             int orderedQty = cartItem.getQuantity();
-            
+
+            // Guarded mode: reserve with a conditional UPDATE; zero rows means another checkout got there first.
+            // Throwing rolls back any decrements already applied for earlier lines.
+            if (!lockedMode && productRepository.decrementStock(product.getId(), orderedQty) == 0) {
+                throw new InsufficientStockException("Insufficient stock for product: " + product.getName());
+            }
+
             OrderItem orderItem = new OrderItem();
             orderItem.setOrder(order);
             orderItem.setProduct(product);
             orderItem.setQuantity(orderedQty);
             orderItem.setPrice(product.getPrice());
-
-            BigDecimal itemTotal = BigDecimal.ZERO;
-            int freeQty = 0;
-
-            if (product.getIsBundleOffer() != null && product.getIsBundleOffer() && 
-                product.getBundleBuyQuantity() != null && product.getBundleFreeQuantity() != null &&
-                product.getBundlePrice() != null) {
-                
-                int unitSize = product.getBundleBuyQuantity() + product.getBundleFreeQuantity();
-                if (orderedQty >= unitSize) {
-                    int numBundles = orderedQty / unitSize;
-                    int remainder = orderedQty % unitSize;
-                    
-                    BigDecimal bundleTotal = product.getBundlePrice().multiply(BigDecimal.valueOf(numBundles));
-                    BigDecimal remainderTotal = product.getPrice().multiply(BigDecimal.valueOf(remainder));
-                    
-                    itemTotal = bundleTotal.add(remainderTotal);
-                    freeQty = numBundles * product.getBundleFreeQuantity();
-                } else {
-                    itemTotal = product.getPrice().multiply(BigDecimal.valueOf(orderedQty));
-                }
-            } else {
-                itemTotal = product.getPrice().multiply(BigDecimal.valueOf(orderedQty));
-            }
-
-            orderItem.setFreeQuantity(freeQty);
-            orderItem.setSubtotal(itemTotal);
+            orderItem.setFreeQuantity(pricing.freeQuantity(i));
+            orderItem.setSubtotal(pricing.lineTotal(i));
             order.getOrderItems().add(orderItem);
-            totalAmount = totalAmount.add(itemTotal);
-
-            // Reduce stock
-            product.setStockQuantity(product.getStockQuantity() - orderedQty);
         }
 
-        order.setTotalAmount(totalAmount);
+        order.setTotalAmount(pricing.total());
+        // Taken now: clearing the cart below empties items
+        List<Long> productIds = items.stream().map(item -> item.getProduct().getId()).toList();
+        productCache.invalidateStock(productIds);
 
         Order savedOrder = orderRepository.save(order);
 
         // Clear cart
         cartService.clearCart(email);
 
-        // Fire notifications (each individually gated by its own switch)
-        emailService.sendOrderPlacedNotification(savedOrder);          // ADMIN: new order alert
-        emailService.sendCustomerOrderConfirmation(savedOrder);        // CUSTOMER: order confirmation
+        // Queue notifications in this transaction; OutboxDispatcher sends them after commit
+        outboxService.enqueue(OutboxEventType.ADMIN_ORDER_PLACED, savedOrder.getId(), null);
+        outboxService.enqueue(OutboxEventType.CUSTOMER_ORDER_CONFIRMATION, savedOrder.getId(), null);
+        eventPublisher.publishEvent(new OrderPlacedEvent(savedOrder.getId(), productIds));
 
         return savedOrder;
     }
@@ -134,17 +127,13 @@ public class OrderService {
         return orderRepository.findByStatus(status, pageable);
     }
 
-    public List<Order> getAllOrdersList() {
-        return orderRepository.findAll();
-    }
-
     @Transactional
     public Order updateOrderStatus(Long orderId, OrderStatus status) {
         Order order = getOrderById(orderId);
         order.setStatus(status);
         Order saved = orderRepository.save(order);
-        // CUSTOMER: notify about the status change (gated by switch)
-        emailService.sendOrderStatusUpdate(saved, status);
+        // CUSTOMER: notify about the status change once this transaction commits
+        outboxService.enqueue(OutboxEventType.CUSTOMER_ORDER_STATUS_UPDATE, saved.getId(), status.name());
         return saved;
     }
 
@@ -162,16 +151,16 @@ public class OrderService {
         
         order.setStatus(OrderStatus.CANCELLED);
         
-        // Restore stock
+        // Restore stock atomically so a concurrent checkout's decrement is not overwritten
         for (OrderItem item : order.getOrderItems()) {
-            Product product = item.getProduct();
-            product.setStockQuantity(product.getStockQuantity() + item.getQuantity());
+            productRepository.incrementStock(item.getProduct().getId(), item.getQuantity());
         }
+        productCache.invalidateStock(order.getOrderItems().stream().map(item -> item.getProduct().getId()).toList());
         
         Order savedOrder = orderRepository.save(order);
         
         // Optional: Send cancellation email
-        // emailService.sendOrderStatusUpdate(savedOrder, OrderStatus.CANCELLED);
+        // outboxService.enqueue(OutboxEventType.CUSTOMER_ORDER_STATUS_UPDATE, savedOrder.getId(), OrderStatus.CANCELLED.name());
         
         return savedOrder;
     }
@@ -0,0 +1,34 @@
+package com.pharma.service;
+
+import com.pharma.model.OutboxEvent;
+import com.pharma.model.enums.OutboxEventType;
+import com.pharma.repository.OutboxEventRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Service
+@RequiredArgsConstructor
+public class OutboxService {
+
+    private final OutboxEventRepository outboxEventRepository;
+
+    /**
+     * Record an event in the caller's transaction. It becomes visible to the
+     * dispatcher only if that transaction commits, so a rolled-back order
+     * never produces an email.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public OutboxEvent enqueue(OutboxEventType type, Long aggregateId, String payload) {
+        OutboxEvent event = OutboxEvent.builder()
+                .eventType(type)
+                .aggregateId(aggregateId)
+                .payload(payload)
+                .nextAttemptAt(LocalDateTime.now())
+                .build();
+        return outboxEventRepository.save(event);
+    }
+}
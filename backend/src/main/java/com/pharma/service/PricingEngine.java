@@ -0,0 +1,136 @@
+package com.pharma.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+
+import org.springframework.stereotype.Service;
+
+import com.pharma.model.CartItem;
+import com.pharma.model.Product;
+
+/**
+ * Single source of truth for cart pricing, shared by checkout, quotes and receipts.
+ *
+ * A cart is priced in one pass using long minor units (cents), so the hot loop
+ * does integer arithmetic instead of building a chain of BigDecimal temporaries
+ * per line. Results are kept in parallel arrays and only turned back into
+ * BigDecimal when a caller asks for a particular amount.
+ *
+ * Bundle rule ("buy X get Y"): when a product has a complete bundle offer and
+ * the line holds at least X+Y units, every full group of X+Y units costs
+ * bundlePrice and Y of them are recorded as free; the remainder is charged at
+ * the unit price. Amounts are rounded HALF_UP to 2 decimal places, the scale
+ * of the price columns.
+ */
+@Service
+public class PricingEngine {
+
+    public static final int SCALE = 2;
+
+    private static final int MINOR_PER_UNIT = 100;
+    private static final int MAX_FAST_PRECISION = 15;
+
+    /** Price every line of the cart in order. */
+    public CartPricing price(List<CartItem> items) {
+        int n = items.size();
+        long[] lineTotals = new long[n];
+        long[] listTotals = new long[n];
+        int[] freeQuantities = new int[n];
+        long total = 0;
+        long listTotal = 0;
+
+        for (int i = 0; i < n; i++) {
+            CartItem item = items.get(i);
+            Product product = item.getProduct();
+            int quantity = item.getQuantity();
+            long unitMinor = toMinor(product.getPrice());
+            long lineList = Math.multiplyExact(unitMinor, quantity);
+            long line = lineList;
+            int free = 0;
+
+            if (hasBundle(product)) {
+                int unitSize = product.getBundleBuyQuantity() + product.getBundleFreeQuantity();
+                if (quantity >= unitSize) {
+                    int bundles = quantity / unitSize;
+                    int remainder = quantity - bundles * unitSize;
+                    line = Math.addExact(
+                            Math.multiplyExact(toMinor(product.getBundlePrice()), bundles),
+                            Math.multiplyExact(unitMinor, remainder));
+                    free = bundles * product.getBundleFreeQuantity();
+                }
+            }
+
+            lineTotals[i] = line;
+            listTotals[i] = lineList;
+            freeQuantities[i] = free;
+            total = Math.addExact(total, line);
+            listTotal = Math.addExact(listTotal, lineList);
+        }
+
+        return new CartPricing(lineTotals, listTotals, freeQuantities, total, listTotal);
+    }
+
+    /** Undiscounted price of {@code quantity} units, e.g. for a receipt's strike-through total. */
+    public BigDecimal listTotal(BigDecimal unitPrice, int quantity) {
+        return fromMinor(Math.multiplyExact(toMinor(unitPrice), quantity));
+    }
+
+    private static boolean hasBundle(Product product) {
+        return Boolean.TRUE.equals(product.getIsBundleOffer())
+                && product.getBundleBuyQuantity() != null
+                && product.getBundleFreeQuantity() != null
+                && product.getBundlePrice() != null
+                && product.getBundleBuyQuantity() + product.getBundleFreeQuantity() > 0;
+    }
+
+    static long toMinor(BigDecimal amount) {
+        // Fast path for ordinary prices: doubleValue() of a compact BigDecimal is exact enough to
+        // round back to cents and, unlike unscaledValue(), does not allocate
+        if (amount.scale() >= 0 && amount.scale() <= SCALE && amount.precision() <= MAX_FAST_PRECISION) {
+            return Math.round(amount.doubleValue() * MINOR_PER_UNIT);
+        }
+        return amount.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    static BigDecimal fromMinor(long minor) {
+        return BigDecimal.valueOf(minor, SCALE);
+    }
+
+    /**
+     * Result of pricing a cart. Line-level arrays are indexed like the input list;
+     * amounts are in minor units with BigDecimal accessors for persistence and JSON.
+     */
+    public record CartPricing(long[] lineTotalsMinor, long[] listTotalsMinor, int[] freeQuantities,
+                              long totalMinor, long listTotalMinor) {
+
+        public int lineCount() {
+            return lineTotalsMinor.length;
+        }
+
+        public BigDecimal lineTotal(int line) {
+            return fromMinor(lineTotalsMinor[line]);
+        }
+
+        public BigDecimal listTotal(int line) {
+            return fromMinor(listTotalsMinor[line]);
+        }
+
+        public int freeQuantity(int line) {
+            return freeQuantities[line];
+        }
+
+        public BigDecimal total() {
+            return fromMinor(totalMinor);
+        }
+
+        public BigDecimal listTotal() {
+            return fromMinor(listTotalMinor);
+        }
+
+        /** What the bundle offers saved compared to paying the unit price for everything. */
+        public BigDecimal savings() {
+            return fromMinor(listTotalMinor - totalMinor);
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.pharma.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.pharma.model.Product;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Read-through cache of products by id, in front of ProductService.getProductById.
+ *
+ * Product details are kept for app.products.cache.ttl-seconds. Stock is not
+ * taken from the cached product: it sits in its own cache that expires after
+ * app.products.cache.stock-ttl-seconds and is laid over every read, so
+ * availability is never staler than that bound even for changes this instance
+ * did not make (other nodes, manual edits).
+ *
+ * Writers call invalidate / invalidateStock. Entries are dropped immediately
+ * and again after the writing transaction commits, and loads go through
+ * Caffeine's per-key compute, so a read that raced the write cannot leave the
+ * old row cached.
+ *
+ * getAll serves batches: misses are loaded together in one call, and if any
+ * write lands while that load runs its results are served but not kept.
+ *
+ * Callers always get their own copy; cached instances are never handed out.
+ *
+ * Metrics (tag cache=products / products.stock): cache.gets{result=hit|miss},
+ * cache.evictions, cache.size, cache.puts.
+ */
+@Component
+public class ProductCache {
+
+    private final Cache<Long, Product> products;
+    private final Cache<Long, Integer> stock;
+    // Bumped on every eviction; a batch load that saw it change does not keep what it read
+    private final AtomicLong evictions = new AtomicLong();
+
+    public ProductCache(@Value("${app.products.cache.size:10000}") long cacheSize,
+                        @Value("${app.products.cache.ttl-seconds:300}") long ttlSeconds,
+                        @Value("${app.products.cache.stock-ttl-seconds:5}") long stockTtlSeconds,
+                        MeterRegistry meterRegistry) {
+        this.products = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        this.stock = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(Duration.ofSeconds(stockTtlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, products, "products");
+        CaffeineCacheMetrics.monitor(meterRegistry, stock, "products.stock");
+    }
+
+    /**
+     * The product with current stock, or null if {@code loader} finds nothing.
+     * {@code loader} must return a product whose associations are initialised;
+     * {@code stockLoader} reads only the stock column.
+     */
+    public Product get(Long id, Function<Long, Product> loader, Function<Long, Integer> stockLoader) {
+        Product cached = products.get(id, key -> {
+            Product loaded = loader.apply(key);
+            if (loaded == null) {
+                return null;
+            }
+            stock.put(key, loaded.getStockQuantity());
+            return copyOf(loaded);
+        });
+        if (cached == null) {
+            return null;
+        }
+        Integer quantity = stock.get(id, stockLoader);
+        if (quantity == null) {
+            // Deleted from the table since it was cached
+            products.invalidate(id);
+            return null;
+        }
+        Product view = copyOf(cached);
+        view.setStockQuantity(quantity);
+        return view;
+    }
+
+    /**
+     * The products among {@code ids} that exist, with current stock, by id.
+     * Misses are loaded with one call to {@code loader}, which must initialise
+     * associations like the loader of {@link #get}; stock misses with one call
+     * to {@code stockLoader}.
+     */
+    public Map<Long, Product> getAll(Collection<Long> ids, Function<Set<Long>, List<Product>> loader,
+                                     Function<Set<Long>, Map<Long, Integer>> stockLoader) {
+        Map<Long, Product> found = new HashMap<>(products.getAllPresent(ids));
+        Set<Long> missing = new LinkedHashSet<>(ids);
+        missing.removeAll(found.keySet());
+        if (!missing.isEmpty()) {
+            long seen = evictions.get();
+            Map<Long, Product> loaded = new HashMap<>();
+            for (Product product : loader.apply(missing)) {
+                loaded.put(product.getId(), copyOf(product));
+                stock.put(product.getId(), product.getStockQuantity());
+            }
+            products.putAll(loaded);
+            if (evictions.get() != seen) {
+                // A write may have been evicted before our stale read was put
+                drop(List.copyOf(loaded.keySet()), true);
+            }
+            found.putAll(loaded);
+        }
+
+        Map<Long, Integer> quantities = stock.getAll(found.keySet(), keys -> stockLoader.apply(Set.copyOf(keys)));
+        Map<Long, Product> views = new HashMap<>();
+        found.forEach((id, cached) -> {
+            Integer quantity = quantities.get(id);
+            if (quantity == null) {
+                products.invalidate(id);
+                return;
+            }
+            Product view = copyOf(cached);
+            view.setStockQuantity(quantity);
+            views.put(id, view);
+        });
+        return views;
+    }
+
+    /** Call whenever a product row changes. */
+    public void invalidate(Collection<Long> ids) {
+        evict(ids, true);
+    }
+
+    public void invalidate(Long id) {
+        invalidate(List.of(id));
+    }
+
+    /** Call whenever stock moves without the rest of the product changing. */
+    public void invalidateStock(Collection<Long> ids) {
+        evict(ids, false);
+    }
+
+    private void evict(Collection<Long> ids, boolean details) {
+        List<Long> keys = List.copyOf(ids);
+        drop(keys, details);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // A load between now and commit still reads the old row
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    drop(keys, details);
+                }
+            });
+        }
+    }
+
+    private void drop(List<Long> keys, boolean details) {
+        evictions.incrementAndGet();
+        stock.invalidateAll(keys);
+        if (details) {
+            products.invalidateAll(keys);
+        }
+    }
+
+    private static Product copyOf(Product source) {
+        Product copy = new Product();
+        BeanUtils.copyProperties(source, copy, "imageUrls");
+        copy.setImageUrls(source.getImageUrls() != null ? new ArrayList<>(source.getImageUrls()) : new ArrayList<>());
+        return copy;
+    }
+}
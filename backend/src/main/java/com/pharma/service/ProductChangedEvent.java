@@ -0,0 +1,18 @@
+package com.pharma.service;
+
+import java.util.List;
+
+import com.pharma.model.Product;
+
+/**
+ * Published whenever products are created, edited, restored or soft-deleted.
+ * Listeners that keep derived copies of the catalogue should use
+ * {@code @TransactionalEventListener(fallbackExecution = true)} so they only
+ * see committed changes.
+ */
+public record ProductChangedEvent(List<Product> products) {
+
+    public static ProductChangedEvent of(Product product) {
+        return new ProductChangedEvent(List.of(product));
+    }
+}
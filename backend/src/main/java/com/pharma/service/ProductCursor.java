@@ -0,0 +1,76 @@
+package com.pharma.service;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.data.domain.ScrollPosition;
+
+import com.pharma.model.Product;
+
+/**
+ * Opaque keyset cursor for catalogue listings.
+ *
+ * Encodes the sort field, the id and the sort value of the last product on a
+ * page as base64url("sortBy\nid\nvalue"). Clients must treat it as an opaque
+ * token; it is only valid with the sort it was issued for.
+ */
+record ProductCursor(String sortBy, long id, Object value) {
+
+    static ProductCursor after(Product last, String sortBy) {
+        return new ProductCursor(sortBy, last.getId(), "id".equals(sortBy) ? null : sortValue(last, sortBy));
+    }
+
+    String encode() {
+        String raw = sortBy + '\n' + id + '\n' + (value == null ? "" : value.toString());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static ProductCursor decode(String token, String expectedSortBy) {
+        String[] parts;
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split("\n", 3);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        if (parts.length != 3 || !parts[0].equals(expectedSortBy)) {
+            throw new IllegalArgumentException("Invalid cursor for sort '" + expectedSortBy + "'");
+        }
+        try {
+            long id = Long.parseLong(parts[1]);
+            Object value = switch (expectedSortBy) {
+                case "id" -> null;
+                case "name" -> parts[2];
+                case "price" -> new BigDecimal(parts[2]);
+                case "createdAt", "updatedAt" -> LocalDateTime.parse(parts[2]);
+                default -> throw new IllegalArgumentException("Unsupported sort: " + expectedSortBy);
+            };
+            return new ProductCursor(expectedSortBy, id, value);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    /** Position just past the product this cursor was taken from. */
+    ScrollPosition toPosition() {
+        Map<String, Object> keys = new LinkedHashMap<>();
+        if (value != null) {
+            keys.put(sortBy, value);
+        }
+        keys.put("id", id);
+        return ScrollPosition.forward(keys);
+    }
+
+    private static Object sortValue(Product product, String sortBy) {
+        return switch (sortBy) {
+            case "name" -> product.getName();
+            case "price" -> product.getPrice();
+            case "createdAt" -> product.getCreatedAt();
+            case "updatedAt" -> product.getUpdatedAt();
+            default -> throw new IllegalArgumentException("Unsupported sort: " + sortBy);
+        };
+    }
+}
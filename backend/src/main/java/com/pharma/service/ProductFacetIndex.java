@@ -0,0 +1,404 @@
+package com.pharma.service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.pharma.dto.response.FacetedProductPage.FacetCount;
+import com.pharma.model.Product;
+import com.pharma.repository.ProductRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Facet bitsets over the visible catalogue (not deleted, available for sale)
+ * for GET /api/products/facets.
+ *
+ * Every facet value (a category, a manufacturer, "prescription=true", a price
+ * band, ...) owns a bitset with one bit per product id. A listing ORs the
+ * selected values within each facet, ANDs across facets, and counts every
+ * facet value against all filters except its own facet's, so the storefront
+ * can show how many products each further click would leave.
+ *
+ * Only ids and bitsets are held, no product rows: a query answers the ids of
+ * one page, and ProductService loads those rows by primary key, so the stock
+ * and price shown are always current.
+ *
+ * Built once the application is ready and kept current from
+ * ProductChangedEvent after each commit; a CategoryChangedEvent rebuilds it,
+ * since category keys and labels are copied into every product's entry.
+ * Changes committed while a build runs are queued and re-read once it has
+ * finished, and reloads are applied in the order they were read. Price bands
+ * come from app.facets.price-bands (ascending upper bounds).
+ */
+@Component
+@Slf4j
+public class ProductFacetIndex {
+
+    public static final String CATEGORY = "category";
+    public static final String SUB_CATEGORY = "subCategory";
+    public static final String MANUFACTURER = "manufacturer";
+    public static final String PRESCRIPTION = "prescription";
+    public static final String BUNDLE_OFFER = "bundleOffer";
+    public static final String PRICE_BAND = "priceBand";
+    public static final List<String> FACETS =
+            List.of(CATEGORY, SUB_CATEGORY, MANUFACTURER, PRESCRIPTION, BUNDLE_OFFER, PRICE_BAND);
+
+    /** One page of matching ids, newest first, out of total; facet name -> counted values. */
+    public record Result(List<Long> ids, long total, Map<String, List<FacetCount>> facets) {
+    }
+
+    private final ProductRepository productRepository;
+    private final BigDecimal[] priceBandBounds;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // Held from reading products to applying them, so updates land in the order they were read
+    private final ReentrantLock updateLock = new ReentrantLock();
+    // Ids changed during a build; guarded by itself, as are building and ready transitions
+    private final Set<Long> pending = new HashSet<>();
+    private boolean building;
+    private long[] visible = new long[0];
+    private final Map<String, Map<String, FacetValue>> facets = new HashMap<>();
+    // product id -> its value key per facet, in FACETS order (null when it has none)
+    private final Map<Long, String[]> valuesByProduct = new HashMap<>();
+    private volatile boolean ready;
+
+    public ProductFacetIndex(ProductRepository productRepository,
+                             @Value("${app.facets.price-bands:100,250,500,1000}") String priceBands) {
+        this.productRepository = productRepository;
+        this.priceBandBounds = Arrays.stream(priceBands.split(","))
+                .map(String::trim)
+                .map(BigDecimal::new)
+                .sorted()
+                .toArray(BigDecimal[]::new);
+        for (String facet : FACETS) {
+            facets.put(facet, new HashMap<>());
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    // Renames and slug changes alter the keys and labels of every product in the category
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        rebuild();
+    }
+
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        updateLock.lock();
+        try {
+            synchronized (pending) {
+                building = true;
+            }
+            List<Product> products = productRepository.findAllSearchable();
+            lock.writeLock().lock();
+            try {
+                visible = new long[0];
+                valuesByProduct.clear();
+                facets.values().forEach(Map::clear);
+                for (Product product : products) {
+                    add(product);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+            Set<Long> queued;
+            synchronized (pending) {
+                queued = new HashSet<>(pending);
+                pending.clear();
+                building = false;
+                ready = true;
+            }
+            if (!queued.isEmpty()) {
+                refresh(queued);
+            }
+            log.info("[FACETS] Indexed {} products ({} changed while building) in {} ms",
+                    products.size(), queued.size(), System.currentTimeMillis() - start);
+        } finally {
+            updateLock.unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        Set<Long> ids = new HashSet<>();
+        for (Product product : event.products()) {
+            if (product.getId() != null) {
+                ids.add(product.getId());
+            }
+        }
+        if (ids.isEmpty()) {
+            return;
+        }
+        synchronized (pending) {
+            if (building) {
+                pending.addAll(ids);
+                return;
+            }
+            if (!ready) {
+                // Committed before any build starts reading, so the build will see it
+                return;
+            }
+        }
+        refresh(ids);
+    }
+
+    private void refresh(Set<Long> ids) {
+        updateLock.lock();
+        try {
+            List<Product> stillVisible = productRepository.findSearchableByIdIn(ids);
+            lock.writeLock().lock();
+            try {
+                for (Long id : ids) {
+                    remove(id);
+                }
+                for (Product product : stillVisible) {
+                    add(product);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } finally {
+            updateLock.unlock();
+        }
+    }
+
+    /**
+     * Ids of the products matching {@code filters} (facet name -> accepted
+     * values), newest first, plus the counts for every facet. Unknown facets and
+     * values are ignored; an unknown value in an otherwise empty selection
+     * matches nothing.
+     */
+    public Result query(Map<String, List<String>> filters, Pageable pageable) {
+        List<Long> pageIds = new ArrayList<>();
+        Map<String, List<FacetCount>> counts = new LinkedHashMap<>();
+        long total;
+        lock.readLock().lock();
+        try {
+            int words = visible.length;
+            long[][] masks = new long[FACETS.size()][];
+            List<Set<String>> selected = new ArrayList<>();
+            for (int f = 0; f < FACETS.size(); f++) {
+                String facet = FACETS.get(f);
+                Set<String> keys = new HashSet<>();
+                for (String raw : filters.getOrDefault(facet, List.of())) {
+                    String key = normalize(facet, raw);
+                    if (!key.isEmpty()) {
+                        keys.add(key);
+                    }
+                }
+                selected.add(keys);
+                if (!keys.isEmpty()) {
+                    masks[f] = new long[words];
+                    for (String key : keys) {
+                        FacetValue value = facets.get(facet).get(key);
+                        if (value != null) {
+                            or(masks[f], value.bits);
+                        }
+                    }
+                }
+            }
+
+            long[] result = andAll(masks, -1);
+            total = 0;
+            for (long word : result) {
+                total += Long.bitCount(word);
+            }
+
+            for (int f = 0; f < FACETS.size(); f++) {
+                String facet = FACETS.get(f);
+                long[] base = masks[f] == null ? result : andAll(masks, f);
+                List<FacetCount> values = new ArrayList<>();
+                for (Map.Entry<String, FacetValue> entry : facets.get(facet).entrySet()) {
+                    int count = andCount(entry.getValue().bits, base);
+                    if (count > 0 || selected.get(f).contains(entry.getKey())) {
+                        values.add(new FacetCount(entry.getKey(), entry.getValue().label, count));
+                    }
+                }
+                values.sort(Comparator.comparingInt(FacetCount::getCount).reversed()
+                        .thenComparing(FacetCount::getLabel, String.CASE_INSENSITIVE_ORDER));
+                counts.put(facet, values);
+            }
+
+            // Highest id first; skip the offset, then take one page
+            long skip = pageable.isPaged() ? pageable.getOffset() : 0;
+            int size = pageable.isPaged() ? pageable.getPageSize() : Integer.MAX_VALUE;
+            for (int w = words - 1; w >= 0 && pageIds.size() < size; w--) {
+                long word = result[w];
+                while (word != 0 && pageIds.size() < size) {
+                    int bit = 63 - Long.numberOfLeadingZeros(word);
+                    word &= ~(1L << bit);
+                    if (skip > 0) {
+                        skip--;
+                    } else {
+                        pageIds.add((long) w * 64 + bit);
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return new Result(pageIds, total, counts);
+    }
+
+    static String normalize(String facet, String raw) {
+        if (raw == null) {
+            return "";
+        }
+        return MANUFACTURER.equals(facet)
+                ? String.join(" ", ProductSearchIndex.tokenize(raw))
+                : raw.trim().toLowerCase(Locale.ROOT);
+    }
+
+    String priceBand(BigDecimal price) {
+        if (price == null) {
+            return null;
+        }
+        BigDecimal lower = BigDecimal.ZERO;
+        for (BigDecimal upper : priceBandBounds) {
+            if (price.compareTo(upper) < 0) {
+                return lower.toPlainString() + "-" + upper.toPlainString();
+            }
+            lower = upper;
+        }
+        return lower.toPlainString() + "+";
+    }
+
+    // Callers hold the write lock for add and remove
+
+    private void add(Product product) {
+        if (product.getId() == null || product.getId() >= Integer.MAX_VALUE) {
+            log.warn("[FACETS] Product id {} does not fit a bitset index, not faceted", product.getId());
+            return;
+        }
+        int bit = product.getId().intValue();
+        visible = set(visible, bit);
+
+        String[] keys = new String[FACETS.size()];
+        String[] labels = new String[FACETS.size()];
+        if (product.getCategory() != null) {
+            keys[0] = normalize(CATEGORY, product.getCategory().getSlug());
+            labels[0] = product.getCategory().getName();
+        }
+        if (product.getSubCategory() != null) {
+            keys[1] = normalize(SUB_CATEGORY, product.getSubCategory().getSlug());
+            labels[1] = product.getSubCategory().getName();
+        }
+        if (product.getManufacturer() != null) {
+            keys[2] = normalize(MANUFACTURER, product.getManufacturer());
+            labels[2] = product.getManufacturer().trim();
+        }
+        keys[3] = String.valueOf(Boolean.TRUE.equals(product.getIsPrescriptionRequired()));
+        keys[4] = String.valueOf(Boolean.TRUE.equals(product.getIsBundleOffer()));
+        keys[5] = priceBand(product.getPrice());
+
+        for (int f = 0; f < keys.length; f++) {
+            if (keys[f] == null || keys[f].isEmpty()) {
+                keys[f] = null;
+                continue;
+            }
+            String label = labels[f] != null ? labels[f] : keys[f];
+            FacetValue value = facets.get(FACETS.get(f)).computeIfAbsent(keys[f], k -> new FacetValue(label));
+            value.bits = set(value.bits, bit);
+            value.size++;
+        }
+        valuesByProduct.put(product.getId(), keys);
+    }
+
+    private void remove(Long productId) {
+        String[] keys = valuesByProduct.remove(productId);
+        if (keys == null) {
+            return;
+        }
+        int bit = productId.intValue();
+        clear(visible, bit);
+        for (int f = 0; f < keys.length; f++) {
+            if (keys[f] == null) {
+                continue;
+            }
+            Map<String, FacetValue> values = facets.get(FACETS.get(f));
+            FacetValue value = values.get(keys[f]);
+            clear(value.bits, bit);
+            if (--value.size == 0) {
+                values.remove(keys[f]);
+            }
+        }
+    }
+
+    private long[] andAll(long[][] masks, int except) {
+        long[] out = visible.clone();
+        for (int f = 0; f < masks.length; f++) {
+            if (f != except && masks[f] != null) {
+                for (int w = 0; w < out.length; w++) {
+                    out[w] &= masks[f][w];
+                }
+            }
+        }
+        return out;
+    }
+
+    private static void or(long[] into, long[] bits) {
+        for (int w = 0; w < Math.min(into.length, bits.length); w++) {
+            into[w] |= bits[w];
+        }
+    }
+
+    private static int andCount(long[] a, long[] b) {
+        int count = 0;
+        for (int w = 0; w < Math.min(a.length, b.length); w++) {
+            count += Long.bitCount(a[w] & b[w]);
+        }
+        return count;
+    }
+
+    private static long[] set(long[] bits, int bit) {
+        int word = bit >>> 6;
+        if (word >= bits.length) {
+            bits = Arrays.copyOf(bits, Math.max(word + 1, bits.length * 2));
+        }
+        bits[word] |= 1L << bit;
+        return bits;
+    }
+
+    private static void clear(long[] bits, int bit) {
+        int word = bit >>> 6;
+        if (word < bits.length) {
+            bits[word] &= ~(1L << bit);
+        }
+    }
+
+    private static final class FacetValue {
+        final String label;
+        long[] bits = new long[0];
+        int size;
+
+        FacetValue(String label) {
+            this.label = label;
+        }
+    }
+}
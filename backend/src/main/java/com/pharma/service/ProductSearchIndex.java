@@ -0,0 +1,456 @@
+package com.pharma.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.pharma.model.Product;
+import com.pharma.repository.ProductRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * In-memory inverted index over the visible catalogue (name, manufacturer and
+ * description), used by ProductSearchService when app.search.mode=index.
+ *
+ * Built once the application is ready and kept current from
+ * ProductChangedEvent after each commit, so searches never hit the database.
+ * Changes committed while a build runs are queued and re-read once it has
+ * finished, since the build's own read may predate them. Changed products are
+ * re-read and applied one batch at a time, so a slower reload can never
+ * overwrite a newer one.
+ * Query words are ANDed; each word matches terms it is a prefix of, plus the
+ * synonyms listed in search-synonyms.txt (brand and generic names). Hits are
+ * ranked by field weight (name > manufacturer > description), exact words
+ * beating prefixes, then most recently indexed first.
+ *
+ * Every document gets a dense int id and each term keeps a sorted int[] of
+ * those ids. Updates append a new id and tombstone the old one; the index is
+ * compacted once tombstones pile up.
+ *
+ * The index is for matching and ranking: products are held as of their last
+ * edit, and orders move stock without one, so ProductService replaces the
+ * stock of every result page with a fresh read.
+ */
+@Component
+@Slf4j
+public class ProductSearchIndex {
+
+    static final int NAME_WEIGHT = 8;
+    static final int MANUFACTURER_WEIGHT = 4;
+    static final int DESCRIPTION_WEIGHT = 1;
+
+    private static final byte NAME = 1;
+    private static final byte MANUFACTURER = 2;
+    private static final byte DESCRIPTION = 4;
+
+    // Synonyms of partially typed words only kick in from this length, "pa" would drag in too much
+    private static final int MIN_SYNONYM_PREFIX = 3;
+    private static final int MIN_TOMBSTONES_TO_COMPACT = 1024;
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private final ProductRepository productRepository;
+    private final NavigableMap<String, String[]> synonyms;
+
+    @Value("${app.search.mode:auto}")
+    private String mode = "auto";
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // Held from reading products to applying them, so updates land in the order they were read
+    private final ReentrantLock updateLock = new ReentrantLock();
+    // Ids changed during a build; guarded by itself, as are building and ready transitions
+    private final Set<Long> pending = new HashSet<>();
+    private boolean building;
+    private final TreeMap<String, Postings> terms = new TreeMap<>();
+    private final ArrayList<Product> docs = new ArrayList<>();
+    private final Map<Long, Integer> docIdByProductId = new HashMap<>();
+    private int tombstones;
+    private volatile boolean ready;
+
+    @Autowired
+    public ProductSearchIndex(ProductRepository productRepository) {
+        this(productRepository, loadSynonyms("search-synonyms.txt"));
+    }
+
+    ProductSearchIndex(ProductRepository productRepository, NavigableMap<String, String[]> synonyms) {
+        this.productRepository = productRepository;
+        this.synonyms = synonyms;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if ("index".equalsIgnoreCase(mode)) {
+            rebuild();
+        }
+    }
+
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        updateLock.lock();
+        try {
+            synchronized (pending) {
+                building = true;
+            }
+            List<Product> products = productRepository.findAllSearchable();
+            int termCount;
+            lock.writeLock().lock();
+            try {
+                reset(products);
+                termCount = terms.size();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            Set<Long> queued;
+            synchronized (pending) {
+                queued = new HashSet<>(pending);
+                pending.clear();
+                building = false;
+                ready = true;
+            }
+            if (!queued.isEmpty()) {
+                refresh(queued);
+            }
+            log.info("[SEARCH] Indexed {} products ({} terms, {} changed while building) in {} ms",
+                    products.size(), termCount, queued.size(), System.currentTimeMillis() - start);
+        } finally {
+            updateLock.unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        Set<Long> ids = new HashSet<>();
+        for (Product product : event.products()) {
+            if (product.getId() != null) {
+                ids.add(product.getId());
+            }
+        }
+        if (ids.isEmpty()) {
+            return;
+        }
+        synchronized (pending) {
+            if (building) {
+                pending.addAll(ids);
+                return;
+            }
+            if (!ready) {
+                // Committed before any build starts reading, so the build will see it
+                return;
+            }
+        }
+        refresh(ids);
+    }
+
+    private void refresh(Set<Long> ids) {
+        updateLock.lock();
+        try {
+            // Reload so the index only ever holds committed, fully fetched, still-visible products
+            List<Product> visible = productRepository.findSearchableByIdIn(ids);
+            apply(ids, visible);
+        } finally {
+            updateLock.unlock();
+        }
+    }
+
+    private void apply(Set<Long> ids, List<Product> visible) {
+        lock.writeLock().lock();
+        try {
+            for (Long id : ids) {
+                remove(id);
+            }
+            for (Product product : visible) {
+                add(product);
+            }
+            if (tombstones >= MIN_TOMBSTONES_TO_COMPACT && tombstones * 4 >= docs.size()) {
+                reset(liveDocs());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Relevance-ordered search; the caller's sort is ignored. An empty or
+     * punctuation-only query matches nothing.
+     */
+    public Page<Product> search(String query, Pageable pageable) {
+        List<String> tokens = tokenize(query);
+        if (tokens.isEmpty()) {
+            return Page.empty(pageable);
+        }
+        lock.readLock().lock();
+        try {
+            // Each entry packs (docId << 32 | score), sorted by docId
+            long[] matches = null;
+            for (String token : tokens) {
+                long[] tokenMatches = matchToken(token);
+                matches = matches == null ? tokenMatches : intersect(matches, tokenMatches);
+                if (matches.length == 0) {
+                    return new PageImpl<>(List.of(), pageable, 0);
+                }
+            }
+
+            long[] ranked = new long[matches.length];
+            int hits = 0;
+            for (long match : matches) {
+                int doc = (int) (match >>> 32);
+                if (docs.get(doc) != null) {
+                    ranked[hits++] = (match << 32) | doc;
+                }
+            }
+            Arrays.sort(ranked, 0, hits);
+
+            List<Product> content = new ArrayList<>();
+            long from = pageable.isPaged() ? pageable.getOffset() : 0;
+            int size = pageable.isPaged() ? pageable.getPageSize() : hits;
+            for (long i = from; i < hits && content.size() < size; i++) {
+                // Ascending (score, docId) read backwards: best score first, newest first on ties
+                content.add(docs.get((int) ranked[(int) (hits - 1 - i)]));
+            }
+            return new PageImpl<>(content, pageable, hits);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return docIdByProductId.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Lower-case, strip accents and split on anything that is not a letter or digit.
+     */
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        String folded = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        List<String> tokens = new ArrayList<>();
+        for (String token : SEPARATORS.split(folded)) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    static NavigableMap<String, String[]> loadSynonyms(String resource) {
+        NavigableMap<String, String[]> groups = new TreeMap<>();
+        ClassPathResource file = new ClassPathResource(resource);
+        if (!file.exists()) {
+            return groups;
+        }
+        try (InputStream in = file.getInputStream();
+             BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank() || line.trim().startsWith("#")) {
+                    continue;
+                }
+                String[] members = tokenize(line).toArray(String[]::new);
+                for (String member : members) {
+                    groups.put(member, members);
+                }
+            }
+        } catch (IOException e) {
+            log.warn("[SEARCH] Could not read {}, searching without synonyms: {}", resource, e.getMessage());
+        }
+        return groups;
+    }
+
+    private long[] matchToken(String token) {
+        // term -> score multiplier; exact words count double so "dolo" ranks Dolo above Dolomite
+        Map<String, Integer> expansions = new LinkedHashMap<>();
+        for (String term : prefixRange(terms, token).keySet()) {
+            expansions.put(term, term.equals(token) ? 2 : 1);
+        }
+        Iterable<String> synonymKeys = token.length() >= MIN_SYNONYM_PREFIX
+                ? prefixRange(synonyms, token).keySet()
+                : synonyms.containsKey(token) ? List.of(token) : List.of();
+        for (String key : synonymKeys) {
+            for (String member : synonyms.get(key)) {
+                expansions.putIfAbsent(member, 1);
+            }
+        }
+
+        int total = 0;
+        List<Postings> lists = new ArrayList<>(expansions.size());
+        List<Integer> multipliers = new ArrayList<>(expansions.size());
+        for (Map.Entry<String, Integer> expansion : expansions.entrySet()) {
+            Postings postings = terms.get(expansion.getKey());
+            if (postings != null) {
+                lists.add(postings);
+                multipliers.add(expansion.getValue());
+                total += postings.size;
+            }
+        }
+
+        long[] packed = new long[total];
+        int n = 0;
+        for (int l = 0; l < lists.size(); l++) {
+            Postings postings = lists.get(l);
+            int multiplier = multipliers.get(l);
+            for (int i = 0; i < postings.size; i++) {
+                packed[n++] = ((long) postings.docs[i] << 32) | (weight(postings.fields[i]) * multiplier);
+            }
+        }
+        if (lists.size() > 1) {
+            Arrays.sort(packed);
+        }
+
+        // Fold entries for the same doc (one per matching term) into a single summed score
+        int out = 0;
+        for (int i = 0; i < n; i++) {
+            if (out > 0 && (packed[out - 1] >>> 32) == (packed[i] >>> 32)) {
+                packed[out - 1] += (int) packed[i];
+            } else {
+                packed[out++] = packed[i];
+            }
+        }
+        return out == n ? packed : Arrays.copyOf(packed, out);
+    }
+
+    private static long[] intersect(long[] a, long[] b) {
+        long[] out = new long[Math.min(a.length, b.length)];
+        int i = 0;
+        int j = 0;
+        int n = 0;
+        while (i < a.length && j < b.length) {
+            long docA = a[i] >>> 32;
+            long docB = b[j] >>> 32;
+            if (docA < docB) {
+                i++;
+            } else if (docA > docB) {
+                j++;
+            } else {
+                out[n++] = a[i++] + (int) b[j++];
+            }
+        }
+        return n == out.length ? out : Arrays.copyOf(out, n);
+    }
+
+    private static <V> NavigableMap<String, V> prefixRange(NavigableMap<String, V> map, String prefix) {
+        return map.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+    }
+
+    private static int weight(byte fields) {
+        int weight = 0;
+        if ((fields & NAME) != 0) {
+            weight += NAME_WEIGHT;
+        }
+        if ((fields & MANUFACTURER) != 0) {
+            weight += MANUFACTURER_WEIGHT;
+        }
+        if ((fields & DESCRIPTION) != 0) {
+            weight += DESCRIPTION_WEIGHT;
+        }
+        return weight;
+    }
+
+    // Callers hold the write lock for everything below
+
+    private void reset(List<Product> products) {
+        terms.clear();
+        docs.clear();
+        docIdByProductId.clear();
+        tombstones = 0;
+        for (Product product : products) {
+            add(product);
+        }
+        docs.trimToSize();
+    }
+
+    private List<Product> liveDocs() {
+        List<Product> live = new ArrayList<>(docIdByProductId.size());
+        for (Product product : docs) {
+            if (product != null) {
+                live.add(product);
+            }
+        }
+        return live;
+    }
+
+    private void add(Product product) {
+        int doc = docs.size();
+        docs.add(product);
+        docIdByProductId.put(product.getId(), doc);
+        // New ids are always the largest, so appending keeps every posting list sorted
+        addField(doc, product.getName(), NAME);
+        addField(doc, product.getManufacturer(), MANUFACTURER);
+        addField(doc, product.getDescription(), DESCRIPTION);
+    }
+
+    private void addField(int doc, String text, byte field) {
+        for (String token : tokenize(text)) {
+            terms.computeIfAbsent(token, t -> new Postings()).add(doc, field);
+        }
+    }
+
+    private void remove(Long productId) {
+        Integer doc = docIdByProductId.remove(productId);
+        if (doc != null) {
+            docs.set(doc, null);
+            tombstones++;
+        }
+    }
+
+    /** Sorted doc ids for one term, with a parallel bitmask of the fields it occurs in. */
+    private static final class Postings {
+        int[] docs = new int[2];
+        byte[] fields = new byte[2];
+        int size;
+
+        void add(int doc, byte field) {
+            if (size > 0 && docs[size - 1] == doc) {
+                fields[size - 1] |= field;
+                return;
+            }
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                fields = Arrays.copyOf(fields, size * 2);
+            }
+            docs[size] = doc;
+            fields[size++] = field;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.pharma.service;
+
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import com.pharma.model.Product;
+import com.pharma.repository.ProductRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Storefront product search.
+ *
+ * On PostgreSQL with the products.search_vector column in place
+ * (scripts/add_product_search_vector.sql) searches go through the GIN-indexed
+ * tsvector, weighted name > manufacturer > description, ranked with ts_rank and
+ * prefix-matched so partial words work while the user is typing. Anywhere
+ * else (H2 in tests, or a database the script has not been applied to) it
+ * falls back to the original LIKE query.
+ *
+ * In index mode searches are answered from ProductSearchIndex in memory; until
+ * the index has been built they are served as in auto mode.
+ *
+ * Switch via:
+ *   app.search.mode=auto|index|fulltext|like
+ */
+@Service
+@Slf4j
+public class ProductSearchService {
+
+    private final ProductRepository productRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final ProductSearchIndex productSearchIndex;
+
+    @Value("${app.search.mode:auto}")
+    private String mode = "auto";
+
+    private volatile Boolean fullText;
+
+    public ProductSearchService(ProductRepository productRepository, JdbcTemplate jdbcTemplate,
+                                ProductSearchIndex productSearchIndex) {
+        this.productRepository = productRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.productSearchIndex = productSearchIndex;
+    }
+
+    public Page<Product> search(String searchTerm, Pageable pageable) {
+        if ("index".equalsIgnoreCase(mode) && productSearchIndex.isReady()) {
+            return productSearchIndex.search(searchTerm, pageable);
+        }
+        String tsQuery = toPrefixTsQuery(searchTerm);
+        if (tsQuery == null || !isFullTextEnabled()) {
+            return productRepository.searchProducts(searchTerm, pageable);
+        }
+        // Results are ordered by relevance; the caller's sort would be appended after ts_rank and is dropped
+        return productRepository.fullTextSearch(tsQuery,
+                PageRequest.of(pageable.getPageNumber(), pageable.getPageSize()));
+    }
+
+    /**
+     * Turn free text into a to_tsquery expression that ANDs a prefix match per word,
+     * e.g. "Para 500" becomes "para:* & 500:*". Returns null if there are no words.
+     */
+    static String toPrefixTsQuery(String searchTerm) {
+        if (searchTerm == null) {
+            return null;
+        }
+        List<String> terms = new ArrayList<>();
+        for (String token : searchTerm.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!token.isEmpty()) {
+                terms.add(token + ":*");
+            }
+        }
+        return terms.isEmpty() ? null : String.join(" & ", terms);
+    }
+
+    boolean isFullTextEnabled() {
+        Boolean enabled = fullText;
+        if (enabled == null) {
+            enabled = switch (mode.toLowerCase(Locale.ROOT)) {
+                case "fulltext" -> true;
+                case "like" -> false;
+                default -> detectFullText();
+            };
+            fullText = enabled;
+            log.info("[SEARCH] Product search mode: {}", enabled ? "full-text (tsvector)" : "LIKE");
+        }
+        return enabled;
+    }
+
+    private boolean detectFullText() {
+        try {
+            return Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) con -> {
+                DatabaseMetaData meta = con.getMetaData();
+                if (!"PostgreSQL".equalsIgnoreCase(meta.getDatabaseProductName())) {
+                    return false;
+                }
+                try (ResultSet rs = meta.getColumns(null, null, "products", "search_vector")) {
+                    return rs.next();
+                }
+            }));
+        } catch (RuntimeException e) {
+            log.warn("[SEARCH] Could not detect full-text support, using LIKE: {}", e.getMessage());
+            return false;
+        }
+    }
+}
@@ -1,15 +1,47 @@
 package com.pharma.service;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.BiFunction;
 import java.util.stream.Collectors;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.JpaSort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.pharma.dto.request.ProductRequest;
+import com.pharma.dto.response.CursorPage;
+import com.pharma.dto.response.FacetedProductPage;
+import com.pharma.dto.response.ProductBatchResponse;
+import com.pharma.dto.response.ProductChangesResponse;
+import com.pharma.dto.response.ProductPageResponse;
+import com.pharma.dto.response.ProductSuggestion;
+import com.pharma.dto.response.ProductSummary;
 import com.pharma.exception.ResourceNotFoundException;
+import com.pharma.model.CartItem;
 import com.pharma.model.Category;
 import com.pharma.model.Product;
 import com.pharma.model.SubCategory;
@@ -17,19 +49,55 @@ import com.pharma.repository.CategoryRepository;
 import com.pharma.repository.ProductRepository;
 import com.pharma.repository.SubCategoryRepository;
 
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 
 @Service
 @RequiredArgsConstructor
+@Slf4j
 public class ProductService {
 
     private final ProductRepository productRepository;
     private final CategoryRepository categoryRepository;
     private final SubCategoryRepository subCategoryRepository;
+    private final ProductSearchService productSearchService;
+    private final ProductSuggestIndex productSuggestIndex;
+    private final ProductFacetIndex productFacetIndex;
+    private final ProductCache productCache;
+    private final CategoryTree categoryTree;
+    private final ApplicationEventPublisher eventPublisher;
+    // Concurrent identical listing requests share one query; getProductById is coalesced by ProductCache
+    private final SingleFlight singleFlight;
+    private final SearchAnalytics searchAnalytics;
+    private final SearchResultCache searchResultCache;
+    private final PricingEngine pricingEngine;
+    private final CoPurchaseIndex coPurchaseIndex;
 
-    // Public: excludes products hidden from sale
-    public Page<Product> getAllProducts(Pageable pageable) {
-        return productRepository.findByIsDeletedFalseAndIsAvailableForSaleTrue(pageable);
+    // The product page's independent lookups run side by side, a virtual thread each, so blocking on JDBC costs no pool thread
+    private final ExecutorService pageLookups = Executors.newVirtualThreadPerTaskExecutor();
+
+    public static final int MAX_CURSOR_LIMIT = 100;
+    public static final int MAX_BATCH_IDS = 500;
+    public static final int MAX_CHANGES_LIMIT = 500;
+    public static final int MAX_RELATED = 12;
+    // Most viewed first (see ProductViewCounter), newest among equals; offset listings only
+    public static final Sort POPULARITY = JpaSort.unsafe(Sort.Direction.DESC, "COALESCE(ps.viewCount, 0)")
+            .and(Sort.by(Sort.Direction.DESC, "id"));
+
+    // Rows younger than this are held back from delta sync; see getProductChanges
+    @Value("${app.products.changes.settle-seconds:60}")
+    private long changesSettleSeconds = 60;
+
+    // Timeout of every transaction that writes product rows; the settle window must be longer
+    @Value("${app.products.write-timeout-seconds:30}")
+    private long writeTimeoutSeconds = 30;
+
+    // Public: excludes products hidden from sale; listing cards only, see ProductSummary
+    public Page<ProductSummary> getAllProducts(Pageable pageable) {
+        return singleFlight.load("products.page", pageable,
+                () -> withImages(productRepository.findVisibleSummaries(pageable)));
     }
 
     // Admin: includes all non-deleted products regardless of availability
@@ -37,34 +105,361 @@ public class ProductService {
         return productRepository.findByIsDeletedFalse(pageable);
     }
 
+    // Public, cursor mode: keyset pagination on (sortBy, id) descending, no count query
+    public CursorPage<ProductSummary> scrollProducts(String sortBy, String after, int limit) {
+        return singleFlight.load("products.scroll", Arrays.asList(sortBy, after, limit), () ->
+                scroll(sortBy, after, limit, (position, sort) ->
+                        productRepository.findByIsDeletedFalseAndIsAvailableForSaleTrue(position, sort, Limit.of(limit))));
+    }
+
+    public CursorPage<ProductSummary> scrollProductsByCategory(String categorySlug, List<String> subCategorySlugs,
+                                                        String after, int limit) {
+        return singleFlight.load("products.category.scroll", Arrays.asList(categorySlug, subCategorySlugs, after, limit), () -> {
+            Category category = resolveCategory(categorySlug);
+            if (subCategorySlugs == null || subCategorySlugs.isEmpty()) {
+                return scroll("id", after, limit, (position, sort) -> productRepository
+                        .findByCategoryAndIsDeletedFalseAndIsAvailableForSaleTrue(category, position, sort, Limit.of(limit)));
+            }
+            List<SubCategory> subCategories = resolveSubCategories(category, subCategorySlugs);
+            return scroll("id", after, limit, (position, sort) -> productRepository
+                    .findByCategoryAndSubCategoryInAndIsDeletedFalseAndIsAvailableForSaleTrue(
+                            category, subCategories, position, sort, Limit.of(limit)));
+        });
+    }
+
+    private CursorPage<ProductSummary> scroll(String sortBy, String after, int limit,
+                                       BiFunction<ScrollPosition, Sort, Window<Product>> query) {
+        if (limit < 1 || limit > MAX_CURSOR_LIMIT) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_CURSOR_LIMIT);
+        }
+        ScrollPosition position = after == null || after.isBlank()
+                ? ScrollPosition.keyset()
+                : ProductCursor.decode(after, sortBy).toPosition();
+        // id breaks ties so the order is total and no product is skipped or repeated between pages
+        Sort sort = "id".equals(sortBy)
+                ? Sort.by(Sort.Direction.DESC, "id")
+                : Sort.by(Sort.Direction.DESC, sortBy, "id");
+
+        Window<Product> window = query.apply(position, sort);
+        List<Product> content = window.getContent();
+        String nextCursor = window.hasNext() && !content.isEmpty()
+                ? ProductCursor.after(content.get(content.size() - 1), sortBy).encode()
+                : null;
+        return new CursorPage<>(summarize(content), nextCursor, window.hasNext());
+    }
+
+    /*
+     * Delta sync: every product written after the cursor, oldest first, as
+     * upserts of visible products and removals of deleted or hidden ones.
+     * updatedAt is stamped when a row is written but only visible at commit,
+     * so a transaction could commit a timestamp behind a cursor already handed
+     * out. Every transaction writing products therefore runs under
+     * app.products.write-timeout-seconds, and rows younger than the longer
+     * settle window are held back until their writer has surely committed or
+     * rolled back.
+     *
+     * Stock moved by orders does not touch updatedAt, so it is left out of the
+     * feed (stockQuantity is null); clients read it live, e.g. from /batch.
+     */
+    public ProductChangesResponse getProductChanges(String since, int limit) {
+        if (limit < 1 || limit > MAX_CHANGES_LIMIT) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_CHANGES_LIMIT);
+        }
+        ScrollPosition position = since == null || since.isBlank()
+                ? ScrollPosition.keyset()
+                : ProductCursor.decode(since, "updatedAt").toPosition();
+        LocalDateTime settled = LocalDateTime.now().minusSeconds(changesSettleSeconds);
+        Window<Product> window = productRepository.findByUpdatedAtLessThanEqual(settled, position,
+                Sort.by(Sort.Direction.ASC, "updatedAt", "id"), Limit.of(limit));
+        List<Product> rows = window.getContent();
+
+        List<Product> visible = rows.stream()
+                .filter(p -> !Boolean.TRUE.equals(p.getIsDeleted()) && Boolean.TRUE.equals(p.getIsAvailableForSale()))
+                .toList();
+        Map<Long, ProductSummary> summaries = new HashMap<>();
+        for (ProductSummary summary : summarize(visible)) {
+            summary.setStockQuantity(null);
+            summaries.put(summary.getId(), summary);
+        }
+        List<ProductChangesResponse.Change> changes = new ArrayList<>(rows.size());
+        for (Product row : rows) {
+            ProductSummary summary = summaries.get(row.getId());
+            changes.add(new ProductChangesResponse.Change(row.getId(), summary == null, row.getUpdatedAt(), summary));
+        }
+        String nextCursor = rows.isEmpty()
+                ? (since == null || since.isBlank() ? null : since)
+                : ProductCursor.after(rows.get(rows.size() - 1), "updatedAt").encode();
+        return new ProductChangesResponse(changes, nextCursor, window.hasNext());
+    }
+
+    // Read path, served from ProductCache; returns a detached copy, so never modify and save it
     public Product getProductById(Long id) {
+        Product product = productCache.get(id,
+                productId -> productRepository.findDetailedById(productId).orElse(null),
+                productId -> productRepository.findStockQuantityById(productId).orElse(null));
+        if (product == null) {
+            throw new ResourceNotFoundException("Product not found with id: " + id);
+        }
+        return product;
+    }
+
+    /*
+     * The storefront product page in one call. The product (from ProductCache)
+     * and its related products (one summary query plus one image query, keyed
+     * on the product id so they need not wait for the product) are fetched in
+     * parallel; category names come from CategoryTree and the bundle quote from
+     * PricingEngine, both in memory.
+     */
+    public ProductPageResponse getProductPage(Long id, int relatedLimit) {
+        if (relatedLimit < 0 || relatedLimit > MAX_RELATED) {
+            throw new IllegalArgumentException("related must be between 0 and " + MAX_RELATED);
+        }
+        CompletableFuture<Product> productLookup = CompletableFuture.supplyAsync(() -> getProductById(id), pageLookups);
+        CompletableFuture<List<ProductSummary>> relatedLookup = relatedLimit == 0
+                ? CompletableFuture.completedFuture(List.of())
+                : CompletableFuture.supplyAsync(() -> withImages(productRepository.findVisibleSummariesRelatedTo(id,
+                        PageRequest.of(0, relatedLimit, POPULARITY))), pageLookups);
+
+        Product product = join(productLookup);
+        CategoryTree.Snapshot tree = categoryTree.current();
+        Category category = tree.category(product.getCategory().getId()).orElse(product.getCategory());
+        SubCategory subCategory = product.getSubCategory() == null ? null
+                : tree.subCategory(product.getSubCategory().getId()).orElse(product.getSubCategory());
+        boolean inStock = product.getStockQuantity() != null && product.getStockQuantity() > 0;
+        return new ProductPageResponse(product, category.getName(), category.getSlug(),
+                subCategory != null ? subCategory.getName() : null,
+                subCategory != null ? subCategory.getSlug() : null,
+                inStock, bundleQuote(product), join(relatedLookup));
+    }
+
+    // "Frequently bought together" from CoPurchaseIndex, most often first; products since hidden are left out
+    public List<ProductSummary> getFrequentlyBoughtTogether(Long id, int limit) {
+        if (limit < 1 || limit > MAX_RELATED) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_RELATED);
+        }
+        // All top-k ids, so that hidden ones can be skipped without a second round
+        List<Long> ids = coPurchaseIndex.related(id, Integer.MAX_VALUE);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, ProductSummary> visible = productRepository.findVisibleSummariesByIdIn(ids).stream()
+                .collect(Collectors.toMap(ProductSummary::getId, summary -> summary));
+        List<ProductSummary> related = ids.stream()
+                .map(visible::get)
+                .filter(Objects::nonNull)
+                .limit(limit)
+                .collect(Collectors.toCollection(ArrayList::new));
+        return withImages(related);
+    }
+
+    // Storefront summaries of whichever of these products are still visible, in no particular order
+    public List<ProductSummary> getVisibleSummaries(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return withImages(new ArrayList<>(productRepository.findVisibleSummariesByIdIn(ids)));
+    }
+
+    // One bundle priced by PricingEngine, exactly as the cart would charge it
+    private ProductPageResponse.BundleQuote bundleQuote(Product product) {
+        if (!Boolean.TRUE.equals(product.getIsBundleOffer()) || product.getBundlePrice() == null
+                || product.getBundleBuyQuantity() == null || product.getBundleFreeQuantity() == null) {
+            return null;
+        }
+        int quantity = product.getBundleBuyQuantity() + product.getBundleFreeQuantity();
+        if (quantity <= 0) {
+            return null;
+        }
+        CartItem item = new CartItem();
+        item.setProduct(product);
+        item.setQuantity(quantity);
+        PricingEngine.CartPricing pricing = pricingEngine.price(List.of(item));
+        boolean available = product.getStockQuantity() != null && product.getStockQuantity() >= quantity;
+        return new ProductPageResponse.BundleQuote(quantity, pricing.freeQuantity(0), pricing.total(),
+                pricing.listTotal(), pricing.savings(), available);
+    }
+
+    // Rethrows what the lookup threw, e.g. ResourceNotFoundException -> 404
+    private static <T> T join(CompletableFuture<T> lookup) {
+        try {
+            return lookup.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    @PostConstruct
+    void checkChangesSettle() {
+        if (changesSettleSeconds <= writeTimeoutSeconds) {
+            log.warn("[CHANGES] app.products.changes.settle-seconds ({}) is not longer than "
+                            + "app.products.write-timeout-seconds ({}); delta sync can miss slow product writes",
+                    changesSettleSeconds, writeTimeoutSeconds);
+        }
+    }
+
+    @PreDestroy
+    void shutdownPageLookups() {
+        pageLookups.close();
+    }
+
+    // Many getProductById calls in one: cache hits plus a single query for the rest
+    public ProductBatchResponse getProductsByIds(List<Long> ids) {
+        Set<Long> requested = new LinkedHashSet<>();
+        if (ids != null) {
+            ids.stream().filter(Objects::nonNull).forEach(requested::add);
+        }
+        if (requested.isEmpty() || requested.size() > MAX_BATCH_IDS) {
+            throw new IllegalArgumentException("ids must name between 1 and " + MAX_BATCH_IDS + " products");
+        }
+        Map<Long, Product> found = productCache.getAll(requested,
+                productRepository::findDetailedByIdIn,
+                productIds -> productRepository.findStockQuantitiesByIdIn(productIds).stream()
+                        .collect(Collectors.toMap(row -> (Long) row[0], row -> (Integer) row[1])));
+
+        List<Product> products = new ArrayList<>(found.size());
+        List<Long> missingIds = new ArrayList<>();
+        for (Long id : requested) {
+            Product product = found.get(id);
+            if (product != null) {
+                products.add(product);
+            } else {
+                missingIds.add(id);
+            }
+        }
+        return new ProductBatchResponse(products, missingIds);
+    }
+
+    // Write path: the managed entity from this transaction
+    private Product loadProduct(Long id) {
         return productRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + id));
     }
 
-    public Page<Product> searchProducts(String searchTerm, Pageable pageable) {
-        return productRepository.searchProducts(searchTerm, pageable);
+    /*
+     * Popular terms are answered from SearchResultCache until the next product
+     * write. Hits may come from ProductSearchIndex, whose products are as of
+     * their last edit, so each page's stock is read fresh when it is built.
+     */
+    public Page<ProductSummary> searchProducts(String searchTerm, Pageable pageable) {
+        Page<ProductSummary> results = searchResultCache.get(searchTerm, pageable, term -> {
+            Page<Product> page = productSearchService.search(term, pageable);
+            return new PageImpl<>(withLiveStock(summarize(page.getContent())), page.getPageable(),
+                    page.getTotalElements());
+        });
+        searchAnalytics.record(searchTerm, results.getTotalElements());
+        return results;
     }
 
-    public Page<Product> getProductsByCategory(String categorySlug, Pageable pageable) {
-        Category category = categoryRepository.findBySlug(categorySlug)
-                .orElseThrow(() -> new ResourceNotFoundException("Category not found: " + categorySlug));
-        return productRepository.findByCategoryAndIsDeletedFalseAndIsAvailableForSaleTrue(category, pageable);
+    // Typeahead: served from memory, never queries the database
+    public List<ProductSuggestion> suggestProducts(String query, int limit) {
+        return productSuggestIndex.suggest(query, limit);
+    }
+
+    // Filtered listing plus live facet counts in one call: ids from ProductFacetIndex, the page's rows from the database
+    public FacetedProductPage getFacetedProducts(Map<String, List<String>> filters, Pageable pageable) {
+        ProductFacetIndex.Result result = productFacetIndex.query(filters, pageable);
+        // Still visible ones only: a product hidden since the index was updated drops out of this page
+        List<ProductSummary> products = new ArrayList<>(getVisibleSummaries(result.ids()));
+        products.sort(Comparator.comparing(ProductSummary::getId).reversed());
+        return new FacetedProductPage(new PageImpl<>(products, pageable, result.total()), result.facets());
+    }
+
+    public Page<ProductSummary> getProductsByCategory(String categorySlug, Pageable pageable) {
+        return singleFlight.load("products.category", Arrays.asList(categorySlug, pageable), () -> {
+            Category category = resolveCategory(categorySlug);
+            return withImages(productRepository.findVisibleSummariesByCategory(category, pageable));
+        });
+    }
+
+    public Page<ProductSummary> getProductsByCategoryAndSubCategory(String categorySlug, List<String> subCategorySlugs, Pageable pageable) {
+        return singleFlight.load("products.category", Arrays.asList(categorySlug, subCategorySlugs, pageable), () -> {
+            Category category = resolveCategory(categorySlug);
+
+            List<SubCategory> subCategoryEntities = resolveSubCategories(category, subCategorySlugs);
+
+            return withImages(productRepository.findVisibleSummariesByCategoryAndSubCategoryIn(
+                    category, subCategoryEntities, pageable));
+        });
+    }
+
+    // Cards for products already loaded as entities: names from CategoryTree, images in one query
+    private List<ProductSummary> summarize(List<Product> products) {
+        CategoryTree.Snapshot tree = categoryTree.current();
+        List<ProductSummary> summaries = new ArrayList<>(products.size());
+        for (Product product : products) {
+            // getId on the lazy proxies does not initialise them; only a taxonomy miss loads the row
+            Category category = tree.category(product.getCategory().getId()).orElse(product.getCategory());
+            SubCategory subCategory = product.getSubCategory() == null ? null
+                    : tree.subCategory(product.getSubCategory().getId()).orElse(product.getSubCategory());
+            summaries.add(new ProductSummary(product.getId(), product.getName(), product.getDescription(),
+                    product.getManufacturer(), product.getPrice(), product.getStockQuantity(),
+                    product.getIsPrescriptionRequired(), product.getIsBundleOffer(), product.getBundleBuyQuantity(),
+                    product.getBundleFreeQuantity(), product.getBundlePrice(), category.getName(), category.getSlug(),
+                    subCategory != null ? subCategory.getName() : null,
+                    subCategory != null ? subCategory.getSlug() : null));
+        }
+        return withImages(summaries);
+    }
+
+    // Current stock for the whole page in one query; orders move stock without a ProductChangedEvent
+    private List<ProductSummary> withLiveStock(List<ProductSummary> summaries) {
+        if (summaries.isEmpty()) {
+            return summaries;
+        }
+        Map<Long, ProductSummary> byId = new HashMap<>();
+        for (ProductSummary summary : summaries) {
+            byId.put(summary.getId(), summary);
+        }
+        for (Object[] row : productRepository.findStockQuantitiesByIdIn(byId.keySet())) {
+            byId.get((Long) row[0]).setStockQuantity((Integer) row[1]);
+        }
+        return summaries;
     }
 
-    public Page<Product> getProductsByCategoryAndSubCategory(String categorySlug, List<String> subCategorySlugs, Pageable pageable) {
-        Category category = categoryRepository.findBySlug(categorySlug)
+    private Page<ProductSummary> withImages(Page<ProductSummary> page) {
+        withImages(page.getContent());
+        return page;
+    }
+
+    // First image per product for the whole page in one query, instead of one imageUrls load per row
+    private List<ProductSummary> withImages(List<ProductSummary> summaries) {
+        if (summaries.isEmpty()) {
+            return summaries;
+        }
+        Map<Long, ProductSummary> byId = new HashMap<>();
+        for (ProductSummary summary : summaries) {
+            byId.put(summary.getId(), summary);
+        }
+        for (Object[] row : productRepository.findImageUrlsByProductIdIn(byId.keySet())) {
+            ProductSummary summary = byId.get((Long) row[0]);
+            if (summary.getImageUrl() == null) {
+                summary.setImageUrl((String) row[1]);
+            }
+        }
+        return summaries;
+    }
+
+    // Slugs resolve against the in-memory taxonomy; see CategoryTree
+    private Category resolveCategory(String categorySlug) {
+        return categoryTree.current().category(categorySlug)
                 .orElseThrow(() -> new ResourceNotFoundException("Category not found: " + categorySlug));
+    }
 
-        List<SubCategory> subCategoryEntities = subCategorySlugs.stream()
-                .map(slug -> subCategoryRepository.findBySlugAndCategory(slug, category)
+    private List<SubCategory> resolveSubCategories(Category category, List<String> subCategorySlugs) {
+        CategoryTree.Snapshot tree = categoryTree.current();
+        return subCategorySlugs.stream()
+                .map(slug -> tree.subCategory(category, slug)
                         .orElseThrow(() -> new ResourceNotFoundException("SubCategory not found: " + slug)))
                 .collect(Collectors.toList());
-
-        return productRepository.findByCategoryAndSubCategoryInAndIsDeletedFalseAndIsAvailableForSaleTrue(category, subCategoryEntities, pageable);
     }
 
-    @Transactional
+    @Transactional(timeoutString = "${app.products.write-timeout-seconds:30}")
     public Product createProduct(ProductRequest request) {
         Product product = new Product();
         product.setName(request.getName());
@@ -93,12 +488,15 @@ public class ProductService {
         product.setBundlePrice(request.getBundlePrice());
         product.setIsDeleted(false);
 
-        return productRepository.save(product);
+        Product saved = productRepository.save(product);
+        productCache.invalidate(saved.getId());
+        eventPublisher.publishEvent(ProductChangedEvent.of(saved));
+        return saved;
     }
 
-    @Transactional
+    @Transactional(timeoutString = "${app.products.write-timeout-seconds:30}")
     public Product updateProduct(Long id, ProductRequest request) {
-        Product product = getProductById(id);
+        Product product = loadProduct(id);
 
         product.setName(request.getName());
         product.setDescription(request.getDescription());
@@ -127,14 +525,19 @@ public class ProductService {
         product.setBundleFreeQuantity(request.getBundleFreeQuantity());
         product.setBundlePrice(request.getBundlePrice());
 
-        return productRepository.save(product);
+        Product saved = productRepository.save(product);
+        productCache.invalidate(saved.getId());
+        eventPublisher.publishEvent(ProductChangedEvent.of(saved));
+        return saved;
     }
 
-    @Transactional
+    @Transactional(timeoutString = "${app.products.write-timeout-seconds:30}")
     public void deleteProduct(Long id) {
-        Product product = getProductById(id);
+        Product product = loadProduct(id);
         product.setIsDeleted(true);
         productRepository.save(product);
+        productCache.invalidate(id);
+        eventPublisher.publishEvent(ProductChangedEvent.of(product));
     }
 
     public List<Product> getLowStockProducts(Integer threshold) {
@@ -0,0 +1,265 @@
+package com.pharma.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.pharma.dto.response.ProductSuggestion;
+import com.pharma.repository.OrderItemRepository;
+import com.pharma.repository.ProductRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Typeahead over product names and manufacturers (GET /api/products/suggest).
+ *
+ * Suggestions are ranked once per build by popularity (units sold in orders
+ * that were not cancelled), so a suggestion's array index is its rank. Every
+ * word-start suffix of a suggestion ("dolo 650", "650") is a key in one sorted
+ * array, so the keys matching a prefix are one contiguous run found by binary
+ * search. A segment tree over that array gives the best rank in any run, and
+ * the top N are taken by repeatedly splitting the run around its best entry:
+ * O(N log keys) per keystroke however many products share the prefix.
+ *
+ * Builds produce a new immutable snapshot that is swapped in with one volatile
+ * write: lookups never lock and never see a half-built structure. Units sold
+ * are aggregated over order_items only at startup and every
+ * app.suggest.refresh-interval-ms; product changes rebuild the keys against
+ * those cached figures. A burst of changes (a bulk upload) coalesces: a change
+ * arriving while a rebuild is already waiting to start is covered by it.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProductSuggestIndex {
+
+    public static final int MAX_LIMIT = 20;
+
+    private final ProductRepository productRepository;
+    private final OrderItemRepository orderItemRepository;
+
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+    private volatile Map<Long, Long> unitsSold = Map.of();
+    // Set by a change, cleared when a rebuild starts reading; set already means one is waiting
+    private final AtomicBoolean rebuildRequested = new AtomicBoolean();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        refreshPopularity();
+    }
+
+    @Async
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (!rebuildRequested.getAndSet(true)) {
+            rebuild();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.suggest.refresh-interval-ms:600000}",
+            initialDelayString = "${app.suggest.refresh-interval-ms:600000}")
+    public void refreshPopularity() {
+        Map<Long, Long> sold = new HashMap<>();
+        for (Object[] row : orderItemRepository.sumQuantityByProduct()) {
+            sold.put((Long) row[0], ((Number) row[1]).longValue());
+        }
+        unitsSold = sold;
+        rebuild();
+    }
+
+    // Serialised so a slow build cannot overwrite the result of a newer one
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        rebuildRequested.set(false);
+        Map<Long, Long> unitsSold = this.unitsSold;
+
+        List<Candidate> candidates = new ArrayList<>();
+        Map<String, Candidate> manufacturers = new LinkedHashMap<>();
+        for (Object[] row : productRepository.findSuggestionSources()) {
+            Long id = (Long) row[0];
+            String name = (String) row[1];
+            String manufacturer = (String) row[2];
+            long popularity = unitsSold.getOrDefault(id, 0L);
+            if (name != null && !name.isBlank()) {
+                candidates.add(new Candidate(name.trim(), id, popularity));
+            }
+            if (manufacturer != null && !manufacturer.isBlank()) {
+                // One suggestion per manufacturer however it is capitalised, as popular as all its products
+                manufacturers.merge(String.join(" ", ProductSearchIndex.tokenize(manufacturer)),
+                        new Candidate(manufacturer.trim(), null, popularity),
+                        (a, b) -> new Candidate(a.text(), null, a.popularity() + b.popularity()));
+            }
+        }
+        candidates.addAll(manufacturers.values());
+
+        Snapshot built = Snapshot.build(candidates);
+        snapshot = built;
+        log.debug("[SUGGEST] Rebuilt {} suggestions ({} keys) in {} ms",
+                built.texts.length, built.keys.length, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Up to {@code limit} suggestions (capped at {@link #MAX_LIMIT}) whose words
+     * start with the query's words, most popular first.
+     */
+    public List<ProductSuggestion> suggest(String query, int limit) {
+        String prefix = String.join(" ", ProductSearchIndex.tokenize(query));
+        int max = Math.max(1, Math.min(limit, MAX_LIMIT));
+        if (prefix.isEmpty()) {
+            return List.of();
+        }
+        Snapshot current = snapshot;
+        int from = current.lowerBound(prefix);
+        int to = current.lowerBound(prefix + Character.MAX_VALUE);
+
+        // Ranges ordered by the rank of their best key: {rank, from, to, position of best}
+        PriorityQueue<int[]> ranges = new PriorityQueue<>(Comparator.comparingInt((int[] r) -> r[0]));
+        current.offerRange(ranges, from, to);
+        List<ProductSuggestion> suggestions = new ArrayList<>(max);
+        Set<Integer> seen = new HashSet<>();
+        while (suggestions.size() < max && !ranges.isEmpty()) {
+            int[] range = ranges.poll();
+            // A suggestion with several words starting with the prefix appears more than once
+            if (seen.add(range[0])) {
+                suggestions.add(current.suggestion(range[0]));
+            }
+            current.offerRange(ranges, range[1], range[3]);
+            current.offerRange(ranges, range[3] + 1, range[2]);
+        }
+        return suggestions;
+    }
+
+    private record Candidate(String text, Long productId, long popularity) {
+    }
+
+    private static final class Snapshot {
+
+        static final Snapshot EMPTY = build(List.of());
+
+        // Indexed by rank
+        final String[] texts;
+        final Long[] productIds;
+
+        // Sorted word-start keys and the rank each one points at
+        final String[] keys;
+        final int[] keyEntries;
+
+        // Implicit segment tree: tree[leaves + i] = i, each parent holds whichever child points at the better rank
+        final int leaves;
+        final int[] tree;
+
+        private Snapshot(String[] texts, Long[] productIds, String[] keys, int[] keyEntries) {
+            this.texts = texts;
+            this.productIds = productIds;
+            this.keys = keys;
+            this.keyEntries = keyEntries;
+            this.leaves = Integer.highestOneBit(Math.max(1, keys.length - 1)) << 1;
+            this.tree = new int[2 * leaves];
+            Arrays.fill(tree, -1);
+            for (int i = 0; i < keys.length; i++) {
+                tree[leaves + i] = i;
+            }
+            for (int node = leaves - 1; node > 0; node--) {
+                tree[node] = better(tree[2 * node], tree[2 * node + 1]);
+            }
+        }
+
+        // First position whose key is >= key (Arrays.binarySearch may land on any of several equal keys)
+        int lowerBound(String key) {
+            int lo = 0;
+            int hi = keys.length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (keys[mid].compareTo(key) < 0) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+
+        /** Queue the best key position in [from, to), if the range is not empty. */
+        void offerRange(PriorityQueue<int[]> ranges, int from, int to) {
+            if (from >= to) {
+                return;
+            }
+            int best = -1;
+            for (int lo = from + leaves, hi = to + leaves; lo < hi; lo >>= 1, hi >>= 1) {
+                if ((lo & 1) == 1) {
+                    best = better(best, tree[lo++]);
+                }
+                if ((hi & 1) == 1) {
+                    best = better(best, tree[--hi]);
+                }
+            }
+            ranges.add(new int[] { keyEntries[best], from, to, best });
+        }
+
+        private int better(int a, int b) {
+            if (a < 0) {
+                return b;
+            }
+            if (b < 0) {
+                return a;
+            }
+            return keyEntries[b] < keyEntries[a] ? b : a;
+        }
+
+        ProductSuggestion suggestion(int rank) {
+            Long productId = productIds[rank];
+            return new ProductSuggestion(texts[rank],
+                    productId != null ? ProductSuggestion.PRODUCT : ProductSuggestion.MANUFACTURER, productId);
+        }
+
+        static Snapshot build(List<Candidate> candidates) {
+            List<Candidate> ranked = new ArrayList<>(candidates);
+            ranked.sort(Comparator.comparingLong(Candidate::popularity).reversed()
+                    .thenComparing(Candidate::text, String.CASE_INSENSITIVE_ORDER)
+                    .thenComparing(Candidate::productId, Comparator.nullsFirst(Comparator.naturalOrder())));
+
+            String[] texts = new String[ranked.size()];
+            Long[] productIds = new Long[ranked.size()];
+            List<String> keyList = new ArrayList<>();
+            List<Integer> keyRanks = new ArrayList<>();
+            for (int rank = 0; rank < ranked.size(); rank++) {
+                texts[rank] = ranked.get(rank).text();
+                productIds[rank] = ranked.get(rank).productId();
+                List<String> words = ProductSearchIndex.tokenize(texts[rank]);
+                for (int w = 0; w < words.size(); w++) {
+                    keyList.add(String.join(" ", words.subList(w, words.size())));
+                    keyRanks.add(rank);
+                }
+            }
+
+            Integer[] order = new Integer[keyList.size()];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, Comparator.comparing((Integer i) -> keyList.get(i)).thenComparing(keyRanks::get));
+            String[] keys = new String[order.length];
+            int[] keyEntries = new int[order.length];
+            for (int i = 0; i < order.length; i++) {
+                keys[i] = keyList.get(order[i]);
+                keyEntries[i] = keyRanks.get(order[i]);
+            }
+            return new Snapshot(texts, productIds, keys, keyEntries);
+        }
+    }
+}
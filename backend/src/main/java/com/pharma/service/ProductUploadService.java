@@ -18,7 +18,11 @@ import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.Workbook;
 import org.apache.poi.ss.util.CellRangeAddressList;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
 import com.pharma.model.Category;
@@ -39,6 +43,13 @@ public class ProductUploadService {
     private final ProductRepository productRepository;
     private final CategoryRepository categoryRepository;
     private final SubCategoryRepository subCategoryRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ProductCache productCache;
+    private final PlatformTransactionManager transactionManager;
+
+    // Every product write must commit within this; delta sync's settle window relies on it
+    @Value("${app.products.write-timeout-seconds:30}")
+    private int writeTimeoutSeconds = 30;
 
     public Map<String, Object> uploadProducts(MultipartFile file) throws IOException {
         Map<String, Object> result = new HashMap<>();
@@ -91,10 +102,15 @@ public class ProductUploadService {
                 rowNum++;
             }
 
-            // Save all valid products
+            // Save all valid products; only this is transactional, parsing the sheet is not timed
             if (!validProducts.isEmpty()) {
-                List<Product> savedProducts = productRepository.saveAll(validProducts);
+                TransactionTemplate write = new TransactionTemplate(transactionManager);
+                write.setTimeout(writeTimeoutSeconds);
+                List<Product> savedProducts = write.execute(status -> productRepository.saveAll(validProducts));
                 successCount = savedProducts.size();
+                // Rows may be existing products restored or overwritten by the sheet
+                productCache.invalidate(savedProducts.stream().map(Product::getId).toList());
+                eventPublisher.publishEvent(new ProductChangedEvent(savedProducts));
             }
 
         } catch (Exception e) {
@@ -0,0 +1,123 @@
+package com.pharma.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Counts product detail views in memory and adds them to product_stats in
+ * batches, instead of one write per view.
+ *
+ * Each product has a LongAdder, so concurrent views of the same hot product
+ * increment different cells instead of contending on one. Adders are never
+ * reset: a flush writes sum() minus what was already flushed, so a view
+ * counted while a flush runs is simply part of the next one, and a failed
+ * flush is retried in full. The map holds one entry per product ever viewed
+ * on this node, i.e. at most the catalogue, so boxing its keys costs little;
+ * it is a ConcurrentHashMap rather than a LongIntMap because request threads
+ * add products while the flush reads it.
+ *
+ * Every app.products.views.flush-interval-ms (and at shutdown) the deltas go
+ * out as MERGE statements of up to 500 rows each. Views not yet flushed when
+ * the process dies are lost; these are popularity statistics, not money.
+ *
+ * Metrics: products.views (recorded), products.views.flushed.
+ */
+@Component
+@Slf4j
+public class ProductViewCounter {
+
+    private static final int CHUNK_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ConcurrentHashMap<Long, Views> views = new ConcurrentHashMap<>();
+    private final Counter recordedCounter;
+    private final Counter flushedCounter;
+
+    public ProductViewCounter(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.recordedCounter = Counter.builder("products.views")
+                .description("Product detail views counted in memory")
+                .register(meterRegistry);
+        this.flushedCounter = Counter.builder("products.views.flushed")
+                .description("Product detail views written to product_stats")
+                .register(meterRegistry);
+    }
+
+    public void record(Long productId) {
+        Views entry = views.get(productId);
+        if (entry == null) {
+            entry = views.computeIfAbsent(productId, id -> new Views());
+        }
+        entry.count.increment();
+        recordedCounter.increment();
+    }
+
+    @Scheduled(fixedDelayString = "${app.products.views.flush-interval-ms:30000}")
+    @PreDestroy
+    public synchronized void flush() {
+        List<Map.Entry<Long, Long>> deltas = new ArrayList<>();
+        views.forEach((productId, entry) -> {
+            long delta = entry.count.sum() - entry.flushed;
+            if (delta > 0) {
+                deltas.add(Map.entry(productId, delta));
+            }
+        });
+        for (int from = 0; from < deltas.size(); from += CHUNK_SIZE) {
+            List<Map.Entry<Long, Long>> chunk = deltas.subList(from, Math.min(deltas.size(), from + CHUNK_SIZE));
+            try {
+                jdbcTemplate.update(mergeSql(chunk.size()), chunkArgs(chunk));
+            } catch (RuntimeException e) {
+                // Not marked as flushed, so the next flush sends these again
+                log.warn("[VIEWS] Flushing {} product view counters failed: {}", deltas.size() - from, e.getMessage());
+                return;
+            }
+            long total = 0;
+            for (Map.Entry<Long, Long> delta : chunk) {
+                views.get(delta.getKey()).flushed += delta.getValue();
+                total += delta.getValue();
+            }
+            flushedCounter.increment(total);
+        }
+        if (!deltas.isEmpty()) {
+            log.debug("[VIEWS] Flushed view counts for {} products", deltas.size());
+        }
+    }
+
+    // MERGE is in both PostgreSQL (15+) and H2; a UNION ALL source works in both where VALUES column aliases do not
+    static String mergeSql(int rows) {
+        String source = String.join(" UNION ALL ",
+                Collections.nCopies(rows, "SELECT CAST(? AS BIGINT) AS product_id, CAST(? AS BIGINT) AS views"));
+        return "MERGE INTO product_stats s USING (" + source + ") d ON s.product_id = d.product_id "
+                + "WHEN MATCHED THEN UPDATE SET view_count = s.view_count + d.views, updated_at = CURRENT_TIMESTAMP "
+                + "WHEN NOT MATCHED THEN INSERT (product_id, view_count, updated_at) "
+                + "VALUES (d.product_id, d.views, CURRENT_TIMESTAMP)";
+    }
+
+    private static Object[] chunkArgs(List<Map.Entry<Long, Long>> chunk) {
+        Object[] args = new Object[chunk.size() * 2];
+        for (int i = 0; i < chunk.size(); i++) {
+            args[2 * i] = chunk.get(i).getKey();
+            args[2 * i + 1] = chunk.get(i).getValue();
+        }
+        return args;
+    }
+
+    private static final class Views {
+        final LongAdder count = new LongAdder();
+        // Only read and written inside flush
+        long flushed;
+    }
+}
@@ -0,0 +1,67 @@
+package com.pharma.service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.pharma.dto.response.SearchTermStatsResponse;
+
+/**
+ * What customers search for, in fixed memory: every storefront search term
+ * goes into one TermSketch and terms that found nothing into a second one.
+ * Terms are lowercased, whitespace-collapsed and cut to
+ * {@value #MAX_TERM_LENGTH} characters, so "Dolo 650" and " dolo  650" count
+ * as one.
+ *
+ * Counts are estimates since startup on this instance: never too low, and too
+ * high by at most (searches * e / app.search.analytics.width) with
+ * probability 1 - e^-depth. Recording is lock-free.
+ */
+@Component
+public class SearchAnalytics {
+
+    static final int MAX_TERM_LENGTH = 100;
+
+    private final TermSketch searches;
+    private final TermSketch zeroResults;
+    private final LocalDateTime since = LocalDateTime.now();
+
+    public SearchAnalytics(@Value("${app.search.analytics.depth:4}") int depth,
+                           @Value("${app.search.analytics.width:4096}") int width,
+                           @Value("${app.search.analytics.top-k:100}") int topK) {
+        this.searches = new TermSketch(depth, width, topK);
+        this.zeroResults = new TermSketch(depth, width, topK);
+    }
+
+    public void record(String searchTerm, long results) {
+        String term = normalize(searchTerm);
+        if (term.isEmpty()) {
+            return;
+        }
+        searches.add(term);
+        if (results == 0) {
+            zeroResults.add(term);
+        }
+    }
+
+    public SearchTermStatsResponse stats(int limit) {
+        return new SearchTermStatsResponse(since, searches.total(), zeroResults.total(),
+                terms(searches.top(limit)), terms(zeroResults.top(limit)));
+    }
+
+    static String normalize(String searchTerm) {
+        if (searchTerm == null) {
+            return "";
+        }
+        String term = searchTerm.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+        return term.length() > MAX_TERM_LENGTH ? term.substring(0, MAX_TERM_LENGTH) : term;
+    }
+
+    private static List<SearchTermStatsResponse.TermCount> terms(List<Map.Entry<String, Long>> top) {
+        return top.stream().map(e -> new SearchTermStatsResponse.TermCount(e.getKey(), e.getValue())).toList();
+    }
+}
@@ -0,0 +1,110 @@
+package com.pharma.service;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.pharma.dto.response.ProductSummary;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Result pages of storefront searches, keyed by normalised term, page and
+ * sort, in front of ProductService.searchProducts. Search traffic is
+ * dominated by a few terms, so the hottest pages are answered without a
+ * query; the least used are evicted once app.products.search-cache.size
+ * pages are held.
+ *
+ * Any product or category write invalidates every page at once by bumping a
+ * generation that is part of the key, immediately and again after the
+ * writing transaction commits. A search that started before the write caches
+ * its result under the old generation, where no later search looks.
+ *
+ * Stock moved by orders is not a product write and leaves pages cached.
+ * ProductService reads each page's stock from the database when it builds the
+ * page, even when the hits come from ProductSearchIndex, so cached stock is
+ * at most app.products.search-cache.ttl-seconds stale.
+ *
+ * Concurrent misses for one key share a single load. Pages are shared between
+ * callers and must not be modified.
+ *
+ * Metrics (tag cache=products.search): cache.gets{result=hit|miss},
+ * cache.evictions, cache.size, cache.puts.
+ */
+@Component
+public class SearchResultCache {
+
+    private record Key(long generation, String term, Pageable pageable) {
+    }
+
+    private final Cache<Key, Page<ProductSummary>> results;
+    private final AtomicLong generation = new AtomicLong();
+
+    public SearchResultCache(@Value("${app.products.search-cache.size:1000}") long cacheSize,
+                             @Value("${app.products.search-cache.ttl-seconds:30}") long ttlSeconds,
+                             MeterRegistry meterRegistry) {
+        this.results = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, results, "products.search");
+    }
+
+    /**
+     * The cached page for {@code searchTerm}, or the one {@code loader} returns
+     * for the normalised term. Terms differing only in case or spacing share
+     * an entry, so the loader must search case-insensitively.
+     */
+    public Page<ProductSummary> get(String searchTerm, Pageable pageable, Function<String, Page<ProductSummary>> loader) {
+        String term = normalize(searchTerm);
+        return results.get(new Key(generation.get(), term, pageable), key -> loader.apply(term));
+    }
+
+    // Trimmed, inner whitespace collapsed to one space, lowercased
+    static String normalize(String searchTerm) {
+        return searchTerm == null ? "" : searchTerm.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    // Plain listeners: they run inside the writing transaction, so the second bump can wait for its commit
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        invalidateAll();
+    }
+
+    @EventListener
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        invalidateAll();
+    }
+
+    public void invalidateAll() {
+        bump();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // A search between now and commit still sees the old rows
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    bump();
+                }
+            });
+        }
+    }
+
+    private void bump() {
+        generation.incrementAndGet();
+        // Old-generation pages are unreachable already; this just frees their slots
+        results.invalidateAll();
+    }
+}
@@ -0,0 +1,81 @@
+package com.pharma.service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Request coalescing for hot reads: concurrent calls with the same name and
+ * key share one in-flight load instead of each running it. The first caller
+ * runs the loader on its own thread; callers arriving while it runs wait for
+ * its result (or its exception). Nothing is kept once the load finishes, so
+ * this sits in front of an uncached read or a cache miss, not in place of a
+ * cache.
+ *
+ * A caller that joins a load started before some write can get the pre-write
+ * result, as if its read had raced the write. Where that matters, put a
+ * version in the key (see CategoryTree). Results are shared between callers
+ * and must not be modified. A loader must not call back into the same key.
+ *
+ * Metrics: singleflight.calls{name, result=loaded|coalesced}.
+ */
+@Component
+public class SingleFlight {
+
+    private final ConcurrentHashMap<Flight, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+
+    public SingleFlight(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * The result of {@code loader}, shared with every concurrent call for the
+     * same {@code name} and {@code key}. Keys need value equality; use
+     * Arrays.asList for composite keys that may contain nulls.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T load(String name, Object key, Supplier<T> loader) {
+        Flight flight = new Flight(name, key);
+        CompletableFuture<Object> mine = new CompletableFuture<>();
+        CompletableFuture<Object> running = inFlight.putIfAbsent(flight, mine);
+        if (running != null) {
+            meterRegistry.counter("singleflight.calls", "name", name, "result", "coalesced").increment();
+            return (T) await(running);
+        }
+        meterRegistry.counter("singleflight.calls", "name", name, "result", "loaded").increment();
+        try {
+            T value = loader.get();
+            mine.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(flight, mine);
+        }
+    }
+
+    private static Object await(CompletableFuture<Object> running) {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            // Waiters see the loader's own exception, e.g. ResourceNotFoundException -> 404
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private record Flight(String name, Object key) {
+    }
+}
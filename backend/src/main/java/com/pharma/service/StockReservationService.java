@@ -0,0 +1,163 @@
+package com.pharma.service;
+
+import java.sql.Connection;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import com.pharma.exception.InsufficientStockException;
+import com.pharma.model.CartItem;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Row-locking stock reservation used by the "locked" checkout mode.
+ *
+ * All product rows in the cart are locked with one SELECT ... FOR UPDATE in
+ * ascending id order, so two checkouts with overlapping carts always queue on
+ * the same first row instead of deadlocking. Stock is validated in memory and
+ * the decrements go out as a single JDBC batch.
+ *
+ * The rows are first requested with FOR UPDATE NOWAIT. If another checkout
+ * holds one of them, that probe fails at once; the failure is counted as
+ * contention and the blocking FOR UPDATE then waits its turn.
+ *
+ * Must run inside the caller's transaction. Each lock attempt is wrapped in a
+ * JDBC savepoint on the transaction's connection: if it loses a deadlock or
+ * times out, only the savepoint is rolled back and the lock is retried,
+ * leaving the rest of the checkout intact.
+ *
+ * Metrics:
+ *   checkout.lock.acquire   — timer around acquiring the locks (probe plus any wait)
+ *   checkout.lock.contended — NOWAIT probes refused because another transaction held a row
+ *   checkout.lock.retries   — savepoint retries after a deadlock / lock timeout
+ */
+@Service
+@Slf4j
+public class StockReservationService {
+
+    private static final String LOCK_SQL =
+            "SELECT id, stock_quantity FROM products WHERE id IN (:ids) ORDER BY id FOR UPDATE";
+
+    private static final String LOCK_NOWAIT_SQL = LOCK_SQL + " NOWAIT";
+
+    private static final String DECREMENT_SQL =
+            "UPDATE products SET stock_quantity = stock_quantity - ? WHERE id = ?";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final Timer lockAcquireTimer;
+    private final Counter contendedLockCounter;
+    private final Counter lockRetryCounter;
+
+    @Value("${app.checkout.lock.max-retries:3}")
+    private int maxRetries = 3;
+
+    public StockReservationService(NamedParameterJdbcTemplate jdbcTemplate,
+                                   MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.lockAcquireTimer = Timer.builder("checkout.lock.acquire")
+                .description("Time spent acquiring product row locks at checkout")
+                .register(meterRegistry);
+        this.contendedLockCounter = Counter.builder("checkout.lock.contended")
+                .description("Checkout lock attempts that found a product row already locked")
+                .register(meterRegistry);
+        this.lockRetryCounter = Counter.builder("checkout.lock.retries")
+                .description("Checkout lock attempts retried after a deadlock or lock timeout")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Lock every product in the cart, verify stock and decrement it in one batch.
+     *
+     * @throws InsufficientStockException if any line cannot be fulfilled
+     */
+    public void reserve(List<CartItem> items) {
+        // Merge duplicate lines and sort by id — the sort order is what prevents deadlocks
+        TreeMap<Long, Integer> wanted = new TreeMap<>();
+        Map<Long, String> names = new HashMap<>();
+        for (CartItem item : items) {
+            Long productId = item.getProduct().getId();
+            wanted.merge(productId, item.getQuantity(), Integer::sum);
+            names.putIfAbsent(productId, item.getProduct().getName());
+        }
+
+        JdbcTemplate jdbc = jdbcTemplate.getJdbcTemplate();
+        int attempt = 0;
+        while (true) {
+            Savepoint savepoint = jdbc.execute((ConnectionCallback<Savepoint>) Connection::setSavepoint);
+            try {
+                lockAndDecrement(wanted, names, savepoint);
+                jdbc.execute((ConnectionCallback<Void>) con -> {
+                    con.releaseSavepoint(savepoint);
+                    return null;
+                });
+                return;
+            } catch (PessimisticLockingFailureException e) {
+                rollbackTo(savepoint);
+                if (++attempt > maxRetries) {
+                    log.error("[CHECKOUT] Giving up on stock lock after {} retries", maxRetries);
+                    throw e;
+                }
+                lockRetryCounter.increment();
+                log.warn("[CHECKOUT] Stock lock conflict, retrying ({}/{}): {}", attempt, maxRetries, e.getMessage());
+            }
+        }
+    }
+
+    private void lockAndDecrement(TreeMap<Long, Integer> wanted, Map<Long, String> names, Savepoint savepoint) {
+        long start = System.nanoTime();
+        Map<Long, Integer> stock;
+        try {
+            stock = lockRows(LOCK_NOWAIT_SQL, wanted.keySet());
+        } catch (PessimisticLockingFailureException | QueryTimeoutException e) {
+            // Another transaction holds a row (H2 reports a refused NOWAIT as a timeout); the failed
+            // probe must be undone before waiting for it
+            contendedLockCounter.increment();
+            rollbackTo(savepoint);
+            stock = lockRows(LOCK_SQL, wanted.keySet());
+        }
+        lockAcquireTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+        List<Object[]> batch = new ArrayList<>(wanted.size());
+        for (Map.Entry<Long, Integer> line : wanted.entrySet()) {
+            Integer available = stock.get(line.getKey());
+            if (available == null || available < line.getValue()) {
+                throw new InsufficientStockException("Insufficient stock for product: " + names.get(line.getKey()));
+            }
+            batch.add(new Object[] { line.getValue(), line.getKey() });
+        }
+
+        // Rows are locked and verified, so the plain decrement cannot oversell
+        jdbcTemplate.getJdbcTemplate().batchUpdate(DECREMENT_SQL, batch);
+    }
+
+    private Map<Long, Integer> lockRows(String sql, Set<Long> ids) {
+        Map<Long, Integer> stock = new HashMap<>();
+        jdbcTemplate.query(sql, Map.of("ids", ids),
+                rs -> { stock.put(rs.getLong("id"), rs.getInt("stock_quantity")); });
+        return stock;
+    }
+
+    private void rollbackTo(Savepoint savepoint) {
+        jdbcTemplate.getJdbcTemplate().execute((ConnectionCallback<Void>) con -> {
+            con.rollback(savepoint);
+            return null;
+        });
+    }
+}
@@ -19,10 +19,12 @@ public class SubCategoryService {
 
     private final SubCategoryRepository subCategoryRepository;
     private final CategoryService categoryService;
+    private final CategoryTree categoryTree;
 
+    // Served from the in-memory taxonomy snapshot, not the database
     public List<SubCategory> getSubCategoriesByCategory(Long categoryId) {
-        Category category = categoryService.getCategoryById(categoryId);
-        return subCategoryRepository.findByCategory(category);
+        return categoryTree.current().subCategories(categoryId)
+                .orElseThrow(() -> new ResourceNotFoundException("Category not found with id: " + categoryId));
     }
 
     public SubCategory getSubCategoryById(Long id) {
@@ -38,7 +40,9 @@ public class SubCategoryService {
         subCategory.setDescription(request.getDescription());
         subCategory.setCategory(category);
         subCategory.setSlug(generateSlug(request.getName()));
-        return subCategoryRepository.save(subCategory);
+        SubCategory saved = subCategoryRepository.save(subCategory);
+        categoryTree.invalidate();
+        return saved;
     }
 
     @Transactional
@@ -50,13 +54,16 @@ public class SubCategoryService {
         subCategory.setDescription(request.getDescription());
         subCategory.setCategory(category);
         subCategory.setSlug(generateSlug(request.getName()));
-        return subCategoryRepository.save(subCategory);
+        SubCategory saved = subCategoryRepository.save(subCategory);
+        categoryTree.invalidate();
+        return saved;
     }
 
     @Transactional
     public void deleteSubCategory(Long id) {
         SubCategory subCategory = getSubCategoryById(id);
         subCategoryRepository.delete(subCategory);
+        categoryTree.invalidate();
     }
 
     private String generateSlug(String name) {
@@ -0,0 +1,144 @@
+package com.pharma.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Approximate counts of a stream of terms in fixed memory: a count-min sketch
+ * of {@code depth} rows by {@code width} counters, plus the terms with the
+ * highest estimates so far.
+ *
+ * An estimate never undercounts and overcounts by at most total * e / width
+ * with probability 1 - e^-depth. Memory is depth * width longs plus at most
+ * about 2 * topK candidate terms, however many distinct terms arrive.
+ *
+ * add never blocks: counters are atomic increments, candidates live in a
+ * concurrent map, and the occasional trim of that map back to topK entries
+ * is done by whichever caller wins a compareAndSet while the others carry on.
+ */
+final class TermSketch {
+
+    private final int depth;
+    private final int mask;
+    private final int topK;
+    private final AtomicLongArray counters;
+    private final LongAdder total = new LongAdder();
+
+    // Terms that may be in the top K (values unused); trimmed back to topK once it holds 2 * topK
+    private final ConcurrentHashMap<String, Boolean> candidates = new ConcurrentHashMap<>();
+    // Estimate a term needs to become a candidate; raised by each trim
+    private volatile long floor;
+    private final AtomicBoolean trimming = new AtomicBoolean();
+
+    /** {@code width} is rounded up to a power of two. */
+    TermSketch(int depth, int width, int topK) {
+        if (depth < 1 || width < 1 || topK < 1) {
+            throw new IllegalArgumentException("depth, width and topK must be positive");
+        }
+        int columns = Integer.highestOneBit(Math.max(1, width - 1)) << 1;
+        this.depth = depth;
+        this.mask = columns - 1;
+        this.topK = topK;
+        this.counters = new AtomicLongArray(depth * columns);
+    }
+
+    /** Counts one occurrence of {@code term} and returns its new estimate. */
+    long add(String term) {
+        long hash = hash(term);
+        int h1 = (int) hash;
+        // Odd, so the rows' columns h1 + i * h2 differ for every row
+        int h2 = (int) (hash >>> 32) | 1;
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counters.incrementAndGet(index(row, h1, h2)));
+        }
+        total.increment();
+
+        if (estimate >= floor || candidates.containsKey(term)) {
+            candidates.put(term, Boolean.TRUE);
+            if (candidates.size() >= 2 * topK) {
+                trim();
+            }
+        }
+        return estimate;
+    }
+
+    long estimate(String term) {
+        long hash = hash(term);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counters.get(index(row, h1, h2)));
+        }
+        return estimate;
+    }
+
+    // Counter of the term in the given row: double hashing, column h1 + row * h2
+    private int index(int row, int h1, int h2) {
+        return row * (mask + 1) + ((h1 + row * h2) & mask);
+    }
+
+    long total() {
+        return total.sum();
+    }
+
+    int candidateCount() {
+        return candidates.size();
+    }
+
+    /** Up to {@code limit} (at most topK) terms with the highest estimates, highest first. */
+    List<Map.Entry<String, Long>> top(int limit) {
+        List<Map.Entry<String, Long>> ranked = rank();
+        return ranked.subList(0, Math.min(ranked.size(), Math.min(limit, topK)));
+    }
+
+    // Candidates with their current estimates, highest first
+    private List<Map.Entry<String, Long>> rank() {
+        List<Map.Entry<String, Long>> ranked = new ArrayList<>();
+        for (String term : candidates.keySet()) {
+            ranked.add(Map.entry(term, estimate(term)));
+        }
+        ranked.sort(Map.Entry.<String, Long>comparingByValue().reversed()
+                .thenComparing(Map.Entry.<String, Long>comparingByKey()));
+        return ranked;
+    }
+
+    private void trim() {
+        if (!trimming.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            List<Map.Entry<String, Long>> ranked = rank();
+            if (ranked.size() <= topK) {
+                return;
+            }
+            for (Map.Entry<String, Long> dropped : ranked.subList(topK, ranked.size())) {
+                candidates.remove(dropped.getKey());
+            }
+            floor = ranked.get(topK - 1).getValue();
+        } finally {
+            trimming.set(false);
+        }
+    }
+
+    // 64-bit FNV-1a over the UTF-16 chars, then a murmur3 finalizer to spread the high bits
+    private static long hash(String term) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < term.length(); i++) {
+            hash ^= term.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
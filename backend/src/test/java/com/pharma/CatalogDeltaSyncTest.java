@@ -0,0 +1,128 @@
+package com.pharma;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import com.pharma.dto.request.ProductRequest;
+import com.pharma.dto.response.ProductChangesResponse;
+import com.pharma.model.Product;
+import com.pharma.service.ProductService;
+
+/**
+ * Syncs the catalogue from scratch, writes through ProductService and checks
+ * that the next sync from the returned cursor reports exactly those writes,
+ * with deletes and hidden products as removals.
+ */
+public class CatalogDeltaSyncTest extends IntegrationTestBase {
+
+    @Autowired
+    private ProductService productService;
+
+    private Long categoryId;
+    private String word;
+
+    @BeforeEach
+    public void setUp() {
+        word = uniqueWord("sync");
+        categoryId = createCategory("Sync " + word, word).getId();
+    }
+
+    @Test
+    public void changesSinceCursor_ReportEveryWrite() {
+        Product kept = productService.createProduct(request(word + " kept"));
+        Product deleted = productService.createProduct(request(word + " deleted"));
+        Product hidden = productService.createProduct(request(word + " hidden"));
+        String cursor = drain(null, new ArrayList<>());
+
+        Product created = productService.createProduct(request(word + " created"));
+        productService.updateProduct(kept.getId(), request(word + " kept v2"));
+        productService.deleteProduct(deleted.getId());
+        ProductRequest hide = request(word + " hidden");
+        hide.setIsAvailableForSale(false);
+        productService.updateProduct(hidden.getId(), hide);
+
+        List<ProductChangesResponse.Change> changes = new ArrayList<>();
+        String next = drain(cursor, changes);
+
+        // writes this close together may share a timestamp, so compare by id rather than position
+        Map<Long, ProductChangesResponse.Change> byId = changes.stream()
+                .collect(Collectors.toMap(ProductChangesResponse.Change::getId, Function.identity()));
+        assertEquals(Set.of(created.getId(), kept.getId(), deleted.getId(), hidden.getId()), byId.keySet());
+        assertFalse(byId.get(created.getId()).isRemoved());
+        assertEquals(word + " kept v2", byId.get(kept.getId()).getProduct().getName());
+        assertEquals("Sync " + word, byId.get(kept.getId()).getProduct().getCategoryName());
+        // updatedAt does not cover stock, so the feed leaves it out
+        assertNull(byId.get(kept.getId()).getProduct().getStockQuantity());
+        assertTrue(byId.get(deleted.getId()).isRemoved());
+        assertNull(byId.get(deleted.getId()).getProduct());
+        assertTrue(byId.get(hidden.getId()).isRemoved());
+
+        ProductChangesResponse quiet = productService.getProductChanges(next, 10);
+        assertTrue(quiet.getChanges().isEmpty());
+        assertFalse(quiet.isHasMore());
+        assertEquals(next, quiet.getNextCursor());
+    }
+
+    @Test
+    public void smallPages_ReportEveryChangeOnce() {
+        String cursor = drain(null, new ArrayList<>());
+        List<Long> written = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            written.add(productService.createProduct(request(word + " " + i)).getId());
+        }
+
+        List<ProductChangesResponse.Change> changes = new ArrayList<>();
+        String after = cursor;
+        ProductChangesResponse page;
+        do {
+            page = productService.getProductChanges(after, 3);
+            changes.addAll(page.getChanges());
+            after = page.getNextCursor();
+        } while (page.isHasMore());
+
+        assertEquals(written, changes.stream().map(ProductChangesResponse.Change::getId).toList());
+    }
+
+    @Test
+    public void badCursorOrLimit_IsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> productService.getProductChanges("not-a-cursor", 10));
+        assertThrows(IllegalArgumentException.class, () -> productService.getProductChanges(null, 0));
+    }
+
+    private String drain(String since, List<ProductChangesResponse.Change> into) {
+        ProductChangesResponse page;
+        String cursor = since;
+        do {
+            page = productService.getProductChanges(cursor, ProductService.MAX_CHANGES_LIMIT);
+            into.addAll(page.getChanges());
+            cursor = page.getNextCursor();
+        } while (page.isHasMore());
+        assertNotNull(cursor);
+        return cursor;
+    }
+
+    private ProductRequest request(String name) {
+        ProductRequest request = new ProductRequest();
+        request.setName(name);
+        request.setManufacturer("Acme");
+        request.setPrice(BigDecimal.TEN);
+        request.setStockQuantity(5);
+        request.setCategoryId(categoryId);
+        return request;
+    }
+}
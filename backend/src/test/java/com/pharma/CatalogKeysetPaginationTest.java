@@ -0,0 +1,126 @@
+package com.pharma;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import com.pharma.dto.response.CursorPage;
+import com.pharma.dto.response.ProductSummary;
+import com.pharma.model.Category;
+import com.pharma.model.Product;
+import com.pharma.repository.ProductRepository;
+import com.pharma.service.ProductService;
+
+/**
+ * Walks the catalogue page by page in cursor mode and checks that every
+ * visible product is returned exactly once, in (sort key, id) order, even when
+ * many products share the same sort value.
+ */
+public class CatalogKeysetPaginationTest extends IntegrationTestBase {
+
+    private static final int PRODUCTS = 23;
+    private static final int LIMIT = 5;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    private String categorySlug;
+    private Set<Long> hiddenIds;
+
+    @BeforeEach
+    public void setUp() {
+        categorySlug = uniqueWord("keyset-");
+        Category saved = createCategory("Keyset " + categorySlug, categorySlug);
+
+        hiddenIds = new HashSet<>();
+        for (int i = 0; i < PRODUCTS; i++) {
+            Product product = new Product();
+            product.setName("Keyset product " + (i % 4)); // duplicate names and prices force id tie-breaks
+            product.setPrice(BigDecimal.valueOf(100 + (i % 3), 2));
+            product.setStockQuantity(i);
+            product.setCategory(saved);
+            product.setIsAvailableForSale(i % 10 != 9);
+            product = productRepository.save(product);
+            if (!product.getIsAvailableForSale()) {
+                hiddenIds.add(product.getId());
+            }
+        }
+    }
+
+    @Test
+    public void categoryListing_VisitsEveryVisibleProductOnceInIdOrder() {
+        List<ProductSummary> seen = new ArrayList<>();
+        String after = null;
+        int pages = 0;
+        do {
+            CursorPage<ProductSummary> page = productService.scrollProductsByCategory(categorySlug, null, after, LIMIT);
+            assertTrue(page.getContent().size() <= LIMIT);
+            seen.addAll(page.getContent());
+            after = page.getNextCursor();
+            assertEquals(page.isHasNext(), after != null);
+            pages++;
+        } while (after != null);
+
+        int visible = PRODUCTS - hiddenIds.size();
+        assertEquals(visible, seen.size());
+        assertEquals(visible, seen.stream().map(ProductSummary::getId).distinct().count());
+        assertEquals((visible + LIMIT - 1) / LIMIT, pages);
+        assertTrue(seen.stream().noneMatch(p -> hiddenIds.contains(p.getId())));
+
+        List<ProductSummary> expected = new ArrayList<>(seen);
+        expected.sort(Comparator.comparing(ProductSummary::getId).reversed());
+        assertEquals(expected, seen);
+    }
+
+    @Test
+    public void globalListing_ByPrice_TieBreaksOnId() {
+        List<ProductSummary> seen = new ArrayList<>();
+        String after = null;
+        do {
+            CursorPage<ProductSummary> page = productService.scrollProducts("price", after, LIMIT);
+            seen.addAll(page.getContent());
+            after = page.getNextCursor();
+        } while (after != null);
+
+        assertEquals(seen.size(), seen.stream().map(ProductSummary::getId).distinct().count());
+        for (int i = 1; i < seen.size(); i++) {
+            ProductSummary prev = seen.get(i - 1);
+            ProductSummary cur = seen.get(i);
+            int byPrice = prev.getPrice().compareTo(cur.getPrice());
+            assertTrue(byPrice > 0 || (byPrice == 0 && prev.getId() > cur.getId()),
+                    "out of order at " + i + ": " + prev.getId() + " then " + cur.getId());
+        }
+    }
+
+    @Test
+    public void lastPage_HasNoCursor() {
+        CursorPage<ProductSummary> page = productService.scrollProductsByCategory(categorySlug, null, null, 100);
+
+        assertFalse(page.isHasNext());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    public void cursorFromAnotherSort_IsRejected() {
+        String cursor = productService.scrollProducts("price", null, 1).getNextCursor();
+
+        assertThrows(IllegalArgumentException.class, () -> productService.scrollProducts("name", cursor, LIMIT));
+        assertThrows(IllegalArgumentException.class, () -> productService.scrollProducts("id", "not-a-cursor", LIMIT));
+        assertThrows(IllegalArgumentException.class, () -> productService.scrollProducts("id", null, 0));
+    }
+}
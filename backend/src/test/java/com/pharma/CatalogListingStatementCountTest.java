@@ -0,0 +1,128 @@
+package com.pharma;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import com.pharma.dto.response.ProductSummary;
+import com.pharma.model.Category;
+import com.pharma.model.Product;
+import com.pharma.model.SubCategory;
+import com.pharma.repository.ProductRepository;
+import com.pharma.repository.SubCategoryRepository;
+import com.pharma.service.ProductSearchIndex;
+import com.pharma.service.ProductService;
+
+/**
+ * Counts the SQL statements behind one page of each storefront listing and
+ * checks the number does not grow with the page size, i.e. categories and
+ * images are not lazily loaded per product.
+ */
+public class CatalogListingStatementCountTest extends IntegrationTestBase {
+
+    private static final int PRODUCTS = 30;
+    private static final Sort NEWEST = Sort.by(Sort.Direction.DESC, "id");
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private SubCategoryRepository subCategoryRepository;
+
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    private String word;
+
+    @BeforeEach
+    public void setUp() {
+        word = uniqueWord("lean");
+        Category category = createCategory("Lean " + word, word);
+
+        SubCategory subCategory = new SubCategory();
+        subCategory.setName("Tablets " + word);
+        subCategory.setSlug("tablets");
+        subCategory.setCategory(category);
+        subCategory = subCategoryRepository.save(subCategory);
+
+        for (int i = 0; i < PRODUCTS; i++) {
+            Product product = new Product();
+            product.setName(word + " product " + i);
+            product.setPrice(BigDecimal.TEN);
+            product.setStockQuantity(10);
+            product.setCategory(category);
+            product.setSubCategory(subCategory);
+            product.setImageUrls(new ArrayList<>(List.of("/img/" + i + "-front.png", "/img/" + i + "-back.png")));
+            productRepository.save(product);
+        }
+        // load the new taxonomy now so it is not counted below
+        categoryTree.invalidate();
+        categoryTree.current();
+        // the products were saved without a ProductChangedEvent, so the search index must reread them
+        productSearchIndex.rebuild();
+    }
+
+    @Test
+    public void categoryListing_IsPageCountAndImagesWhateverThePageSize() {
+        // page + count + images
+        assertEquals(3, statements(() -> productService.getProductsByCategory(word, PageRequest.of(0, 5, NEWEST))));
+        assertEquals(3, statements(() -> productService.getProductsByCategory(word, PageRequest.of(0, 25, NEWEST))));
+        assertEquals(3, statements(() -> productService.getProductsByCategoryAndSubCategory(
+                word, List.of("tablets"), PageRequest.of(0, 25, NEWEST))));
+    }
+
+    @Test
+    public void allProducts_IsPageCountAndImages() {
+        assertEquals(3, statements(() -> productService.getAllProducts(PageRequest.of(0, 5, NEWEST))));
+        assertEquals(3, statements(() -> productService.getAllProducts(PageRequest.of(0, 25, NEWEST))));
+    }
+
+    @Test
+    public void search_IsImagesAndStock() {
+        // the page itself comes from the in-memory index; only images and live stock are read
+        assertEquals(2, statements(() -> productService.searchProducts(word, PageRequest.of(0, 5, NEWEST))));
+        assertEquals(2, statements(() -> productService.searchProducts(word, PageRequest.of(0, 25, NEWEST))));
+    }
+
+    @Test
+    public void cursorListing_IsWindowAndImages() {
+        assertEquals(2, statements(() -> productService.scrollProductsByCategory(word, null, null, 5)));
+        assertEquals(2, statements(() -> productService.scrollProductsByCategory(word, null, null, 25)));
+    }
+
+    @Test
+    public void summaries_CarryCategoryNamesAndFirstImage() {
+        Page<ProductSummary> page = productService.getProductsByCategory(word, PageRequest.of(0, 25, NEWEST));
+
+        assertEquals(PRODUCTS, page.getTotalElements());
+        for (ProductSummary summary : page.getContent()) {
+            int i = Integer.parseInt(summary.getName().substring(summary.getName().lastIndexOf(' ') + 1));
+            assertEquals("Lean " + word, summary.getCategoryName());
+            assertEquals("Tablets " + word, summary.getSubCategoryName());
+            assertTrue(summary.getImageUrl().startsWith("/img/" + i + "-"), summary.getImageUrl());
+        }
+    }
+
+    private static int statements(Supplier<?> listing) {
+        StatementCounter.COUNT.set(new int[1]);
+        try {
+            listing.get();
+            return StatementCounter.COUNT.get()[0];
+        } finally {
+            StatementCounter.COUNT.remove();
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.pharma;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+
+import com.pharma.dto.request.ProductRequest;
+import com.pharma.dto.response.ProductSummary;
+import com.pharma.model.Product;
+import com.pharma.service.ProductSearchIndex;
+import com.pharma.service.ProductService;
+
+/**
+ * Runs searches against the in-memory index with products written through
+ * ProductService, checking that committed creates, edits and deletes reach
+ * the index.
+ */
+public class CatalogSearchIndexTest extends IntegrationTestBase {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    private Long categoryId;
+    private String word;
+
+    @BeforeEach
+    public void setUp() {
+        word = uniqueWord("idx");
+        categoryId = createCategory("Index " + word, word).getId();
+    }
+
+    @Test
+    public void indexIsBuiltAtStartup() {
+        assertTrue(productSearchIndex.isReady());
+    }
+
+    @Test
+    public void createUpdateDelete_AreSearchableAfterCommit() {
+        Product created = productService.createProduct(request(word + " Crocin Tablets", "Acme"));
+
+        assertEquals(List.of(created.getId()), search(word));
+        assertEquals(List.of(created.getId()), search(word + " paracetamol"));
+
+        productService.updateProduct(created.getId(), request(word + " Crocin Tablets", "Globex"));
+        assertEquals(List.of(created.getId()), search(word + " globex"));
+        assertTrue(search(word + " acme").isEmpty());
+
+        productService.deleteProduct(created.getId());
+        assertTrue(search(word).isEmpty());
+    }
+
+    @Test
+    public void hiddenProducts_AreNotIndexed() {
+        ProductRequest hidden = request(word + " hidden", "Acme");
+        hidden.setIsAvailableForSale(false);
+        productService.createProduct(hidden);
+
+        assertTrue(search(word).isEmpty());
+    }
+
+    private List<Long> search(String query) {
+        return productService.searchProducts(query, PageRequest.of(0, 10)).getContent().stream()
+                .map(ProductSummary::getId)
+                .toList();
+    }
+
+    private ProductRequest request(String name, String manufacturer) {
+        ProductRequest request = new ProductRequest();
+        request.setName(name);
+        request.setManufacturer(manufacturer);
+        request.setPrice(BigDecimal.TEN);
+        request.setStockQuantity(5);
+        request.setCategoryId(categoryId);
+        return request;
+    }
+}
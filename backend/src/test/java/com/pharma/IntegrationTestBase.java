@@ -0,0 +1,82 @@
+package com.pharma;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.mail.javamail.JavaMailSender;
+
+import com.pharma.model.Category;
+import com.pharma.repository.CategoryRepository;
+import com.pharma.service.CategoryTree;
+
+/**
+ * Base class for tests that boot the whole application against the H2 test
+ * database. Every subclass has the same properties and mocks, so Spring
+ * caches one context for the suite instead of one per class. Add settings
+ * here rather than on a subclass: a property of its own gives that class a
+ * context of its own, with its own schedulers, on the same database.
+ *
+ * The database is not cleared between tests. Fixtures are named after
+ * {@link #uniqueWord} and assertions only look at rows the test made.
+ */
+@SpringBootTest(properties = {
+        "spring.mail.username=test@example.com",
+        "app.email.admin-address=admin@example.com",
+        "app.email.notifications.order-placed.enabled=false",
+        // As in production; this file replaces the main application.properties, whose setting it is
+        "app.search.mode=index",
+        // Read the change feed up to the present; no test write outlives its call
+        "app.products.changes.settle-seconds=0",
+        // Views are flushed by the tests that count them
+        "app.products.views.flush-interval-ms=3600000",
+        // Small enough that the export tests cross several cursor fetches
+        "app.orders.export.fetch-size=50",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "com.pharma.IntegrationTestBase$StatementCounter"
+})
+@AutoConfigureMockMvc
+public abstract class IntegrationTestBase {
+
+    @MockBean
+    private JavaMailSender javaMailSender;
+
+    @Autowired
+    protected CategoryRepository categoryRepository;
+
+    @Autowired
+    protected CategoryTree categoryTree;
+
+    /** The prefix followed by a token no other test run has used, for names and slugs. */
+    protected static String uniqueWord(String prefix) {
+        return prefix + Long.toHexString(System.nanoTime());
+    }
+
+    protected Category createCategory(String name, String slug) {
+        Category category = new Category();
+        category.setName(name);
+        category.setSlug(slug);
+        category = categoryRepository.save(category);
+        categoryTree.invalidate(); // saved behind CategoryService's back
+        return category;
+    }
+
+    /**
+     * Counts statements prepared on the calling thread while COUNT is set, so
+     * background jobs cannot skew the numbers; inert otherwise.
+     */
+    public static class StatementCounter implements StatementInspector {
+
+        static final ThreadLocal<int[]> COUNT = new ThreadLocal<>();
+
+        @Override
+        public String inspect(String sql) {
+            int[] count = COUNT.get();
+            if (count != null) {
+                count[0]++;
+            }
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.pharma;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.pharma.dto.request.OrderRequest;
+import com.pharma.exception.InsufficientStockException;
+import com.pharma.model.Cart;
+import com.pharma.model.CartItem;
+import com.pharma.model.Category;
+import com.pharma.model.Product;
+import com.pharma.model.User;
+import com.pharma.model.enums.PaymentMethod;
+import com.pharma.model.enums.Role;
+import com.pharma.repository.CartItemRepository;
+import com.pharma.repository.CartRepository;
+import com.pharma.repository.OrderItemRepository;
+import com.pharma.repository.ProductRepository;
+import com.pharma.repository.UserRepository;
+import com.pharma.service.OrderService;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Hammers a single SKU with many parallel checkouts and asserts that the
+ * stock reservation never lets more units out of the door than exist, in both
+ * the guarded-UPDATE and the row-locking checkout modes.
+ */
+public class OrderConcurrencyStressTest extends IntegrationTestBase {
+
+    private static final int INITIAL_STOCK = 50;
+    private static final int BUYERS = 200;
+    private static final int THREADS = 32;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @AfterEach
+    public void resetStockMode() {
+        setStockMode("guarded");
+    }
+
+    @Test
+    public void parallelCheckouts_NeverOversell() throws Exception {
+        runStampede("guarded");
+    }
+
+    @Test
+    public void parallelCheckouts_LockedMode_NeverOversell() throws Exception {
+        setStockMode("locked");
+        double contendedBefore = meterRegistry.counter("checkout.lock.contended").count();
+
+        runStampede("locked");
+
+        // Every checkout wants the same row, so some NOWAIT probes must have found it taken
+        assertTrue(meterRegistry.counter("checkout.lock.contended").count() > contendedBefore);
+    }
+
+    private void setStockMode(String mode) {
+        OrderService target = AopTestUtils.getTargetObject(orderService);
+        ReflectionTestUtils.setField(target, "stockMode", mode);
+    }
+
+    private void runStampede(String label) throws Exception {
+        Category category = categoryRepository.findBySlug("stress-test")
+                .orElseGet(() -> {
+                    Category c = new Category();
+                    c.setName("Stress Test");
+                    c.setSlug("stress-test");
+                    return categoryRepository.save(c);
+                });
+
+        Product product = new Product();
+        product.setName("Hot SKU (" + label + ")");
+        product.setPrice(BigDecimal.valueOf(5.0));
+        product.setStockQuantity(INITIAL_STOCK);
+        product.setCategory(category);
+        product = productRepository.save(product);
+
+        // One buyer per cart so every checkout competes for the same product row
+        String runId = Long.toHexString(System.nanoTime());
+        List<String> buyers = new ArrayList<>();
+        for (int i = 0; i < BUYERS; i++) {
+            User user = new User();
+            user.setEmail("buyer" + i + "-" + runId + "@example.com");
+            user.setPassword("password");
+            user.setFirstName("Buyer");
+            user.setLastName(String.valueOf(i));
+            user.setRole(Role.CUSTOMER);
+            user = userRepository.save(user);
+
+            Cart cart = new Cart();
+            cart.setUser(user);
+            cart = cartRepository.save(cart);
+
+            CartItem item = new CartItem();
+            item.setCart(cart);
+            item.setProduct(product);
+            item.setQuantity(1);
+            cartItemRepository.save(item);
+
+            buyers.add(user.getEmail());
+        }
+
+        OrderRequest request = new OrderRequest();
+        request.setShippingAddress("1 Load Test Lane");
+        request.setPaymentMethod(PaymentMethod.COD);
+
+        AtomicInteger placed = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (String email : buyers) {
+            futures.add(pool.submit(() -> {
+                start.await();
+                try {
+                    orderService.createOrder(email, request);
+                    placed.incrementAndGet();
+                } catch (InsufficientStockException e) {
+                    rejected.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+
+        Product after = productRepository.findById(product.getId()).orElseThrow();
+        long unitsSold = orderItemRepository.findAll().stream()
+                .filter(oi -> oi.getProduct().getId().equals(after.getId()))
+                .mapToLong(oi -> oi.getQuantity())
+                .sum();
+
+        assertEquals(INITIAL_STOCK, placed.get());
+        assertEquals(BUYERS - INITIAL_STOCK, rejected.get());
+        assertEquals(0, after.getStockQuantity());
+        assertEquals(INITIAL_STOCK, unitsSold);
+    }
+}
@@ -0,0 +1,130 @@
+package com.pharma;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.pharma.model.User;
+import com.pharma.model.enums.Role;
+import com.pharma.repository.UserRepository;
+import com.pharma.service.OrderExportService;
+
+/**
+ * The streamed export holds exactly the orders its SQL filters select, in id order, across
+ * more rows than the SXSSF window and the cursor's fetch size.
+ */
+public class OrderExportTest extends IntegrationTestBase {
+
+    @Autowired
+    private OrderExportService orderExportService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private String runId;
+    private User alice;
+    private User bob;
+
+    @BeforeEach
+    public void setUp() {
+        runId = Long.toHexString(System.nanoTime());
+        alice = createUser("alice");
+        bob = createUser("bob");
+    }
+
+    @Test
+    public void allOrders_FilteredByEmailPartAndDates() throws Exception {
+        insertOrder(alice, LocalDateTime.of(2024, 1, 10, 10, 0));
+        Long inRange = insertOrder(alice, LocalDateTime.of(2024, 2, 15, 10, 0));
+        insertOrder(alice, LocalDateTime.of(2024, 3, 20, 10, 0));
+        insertOrder(bob, LocalDateTime.of(2024, 2, 15, 10, 0));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        orderExportService.writeAllOrders("ALICE-" + runId.toUpperCase(),
+                LocalDateTime.of(2024, 2, 1, 0, 0), LocalDateTime.of(2024, 2, 29, 23, 59, 59), out);
+
+        try (XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(out.toByteArray()))) {
+            Sheet sheet = workbook.getSheetAt(0);
+            assertEquals("Order ID", sheet.getRow(0).getCell(0).getStringCellValue());
+            assertEquals(1, sheet.getLastRowNum());
+            Row row = sheet.getRow(1);
+            assertEquals(inRange.doubleValue(), row.getCell(0).getNumericCellValue());
+            assertEquals("2024-02-15 10:00", row.getCell(1).getStringCellValue());
+            assertEquals(alice.getEmail(), row.getCell(2).getStringCellValue());
+            assertEquals("DELIVERED", row.getCell(3).getStringCellValue());
+            assertEquals(125.5, row.getCell(4).getNumericCellValue());
+        }
+    }
+
+    @Test
+    public void allOrders_EmailFilterTreatsWildcardsLiterally() throws Exception {
+        insertOrder(alice, LocalDateTime.of(2024, 2, 15, 10, 0));
+
+        assertEquals(0, exportedRows("alice_" + runId));
+        assertEquals(0, exportedRows("alice%" + runId));
+        assertEquals(1, exportedRows("alice-" + runId));
+    }
+
+    @Test
+    public void userOrders_StreamsEveryRowInIdOrder() throws Exception {
+        List<Long> ids = new ArrayList<>();
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 9, 0);
+        for (int i = 0; i < 450; i++) {
+            ids.add(insertOrder(alice, start.plusHours(i)));
+        }
+        insertOrder(bob, start);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        orderExportService.writeUserOrders(alice.getEmail(), out);
+
+        try (XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(out.toByteArray()))) {
+            Sheet sheet = workbook.getSheetAt(0);
+            assertEquals(ids.size(), sheet.getLastRowNum());
+            for (int i = 0; i < ids.size(); i++) {
+                assertEquals(ids.get(i).doubleValue(), sheet.getRow(i + 1).getCell(0).getNumericCellValue());
+            }
+        }
+    }
+
+    private int exportedRows(String customerEmail) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        orderExportService.writeAllOrders(customerEmail, null, null, out);
+        try (XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(out.toByteArray()))) {
+            return workbook.getSheetAt(0).getLastRowNum();
+        }
+    }
+
+    private User createUser(String name) {
+        User user = new User();
+        user.setEmail(name + "-" + runId + "@example.com");
+        user.setPassword("password");
+        user.setFirstName(name);
+        user.setLastName("Export");
+        user.setRole(Role.CUSTOMER);
+        return userRepository.save(user);
+    }
+
+    // Through JDBC so order_date is ours rather than @CreationTimestamp's
+    private Long insertOrder(User user, LocalDateTime orderDate) {
+        jdbcTemplate.update("INSERT INTO orders (user_id, total_amount, status, payment_method, payment_status, "
+                        + "shipping_address, order_date) VALUES (?, ?, 'DELIVERED', 'COD', 'COMPLETED', 'Export St', ?)",
+                user.getId(), new BigDecimal("125.50"), Timestamp.valueOf(orderDate));
+        return jdbcTemplate.queryForObject("SELECT MAX(id) FROM orders WHERE user_id = ?", Long.class, user.getId());
+    }
+}
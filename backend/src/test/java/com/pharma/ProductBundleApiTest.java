@@ -5,11 +5,7 @@ import java.math.BigDecimal;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
-import org.springframework.boot.test.context.SpringBootTest;
-import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
-import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
@@ -26,16 +22,9 @@ import com.pharma.model.Category;
 import com.pharma.model.User;
 import com.pharma.model.enums.PaymentMethod;
 import com.pharma.model.enums.Role;
-import com.pharma.repository.CategoryRepository;
 import com.pharma.repository.UserRepository;
 
-@SpringBootTest(properties = {
-        "spring.mail.username=test@example.com",
-        "app.email.admin-address=admin@example.com",
-        "app.email.notifications.order-placed.enabled=false"
-})
-@AutoConfigureMockMvc
-public class ProductBundleApiTest {
+public class ProductBundleApiTest extends IntegrationTestBase {
 
     @Autowired
     private MockMvc mockMvc;
@@ -46,12 +35,6 @@ public class ProductBundleApiTest {
     @Autowired
     private UserRepository userRepository;
 
-    @MockBean
-    private JavaMailSender javaMailSender;
-
-    @Autowired
-    private CategoryRepository categoryRepository;
-
     private Long testCategoryId;
 
     @BeforeEach
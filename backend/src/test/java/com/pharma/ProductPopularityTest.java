@@ -0,0 +1,116 @@
+package com.pharma;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.pharma.dto.request.ProductRequest;
+import com.pharma.dto.response.ProductSummary;
+import com.pharma.service.ProductService;
+import com.pharma.service.ProductViewCounter;
+
+/**
+ * Views counted in memory reach product_stats through the batched MERGE,
+ * add up across flushes and concurrent callers, and order listings sorted by
+ * popularity.
+ */
+public class ProductPopularityTest extends IntegrationTestBase {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductViewCounter productViewCounter;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private String word;
+    private Long categoryId;
+
+    @BeforeEach
+    public void setUp() {
+        word = uniqueWord("popular");
+        categoryId = createCategory("Popular " + word, word).getId();
+    }
+
+    @Test
+    public void flushedViews_AddUpAndOrderTheListing() {
+        Long quiet = create("quiet");
+        Long some = create("some");
+        Long most = create("most");
+        view(some, 2);
+        view(most, 3);
+        productViewCounter.flush();
+        view(most, 2);
+        productViewCounter.flush();
+        productViewCounter.flush();
+
+        assertEquals(2L, viewCount(some));
+        assertEquals(5L, viewCount(most));
+        assertNull(viewCount(quiet));
+
+        List<Long> order = productService.getProductsByCategory(word,
+                PageRequest.of(0, 10, ProductService.POPULARITY)).getContent().stream()
+                .map(ProductSummary::getId).toList();
+        assertEquals(List.of(most, some, quiet), order);
+    }
+
+    @Test
+    public void concurrentViews_AreAllCounted() throws Exception {
+        Long id = create("hot");
+        int threads = 8;
+        int viewsPerThread = 1000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> calls = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                calls.add(executor.submit(() -> view(id, viewsPerThread)));
+            }
+            // Flushing while views arrive must neither lose nor double-count any
+            productViewCounter.flush();
+            for (Future<?> call : calls) {
+                call.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        productViewCounter.flush();
+
+        assertEquals((long) threads * viewsPerThread, viewCount(id));
+    }
+
+    private void view(Long id, int times) {
+        for (int i = 0; i < times; i++) {
+            productViewCounter.record(id);
+        }
+    }
+
+    private Long create(String name) {
+        ProductRequest request = new ProductRequest();
+        request.setName(word + " " + name);
+        request.setManufacturer("Acme");
+        request.setPrice(BigDecimal.TEN);
+        request.setStockQuantity(5);
+        request.setCategoryId(categoryId);
+        return productService.createProduct(request).getId();
+    }
+
+    // What the flush wrote, or null when the product has no product_stats row
+    private Long viewCount(Long productId) {
+        List<Long> counts = jdbcTemplate.queryForList(
+                "SELECT view_count FROM product_stats WHERE product_id = ?", Long.class, productId);
+        return counts.isEmpty() ? null : counts.get(0);
+    }
+}
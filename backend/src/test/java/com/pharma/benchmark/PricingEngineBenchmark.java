@@ -0,0 +1,109 @@
+package com.pharma.benchmark;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.pharma.model.CartItem;
+import com.pharma.model.Product;
+import com.pharma.service.PricingEngine;
+
+/**
+ * Prices a 10k-line cart with PricingEngine and, for comparison, with the
+ * per-line BigDecimal arithmetic createOrder used before it.
+ *
+ * Scores are per cart line (OperationsPerInvocation), so "avgt" is ns/line and
+ * the GC profiler's gc.alloc.rate.norm is bytes/line.
+ *
+ * Run with:
+ *   mvn test-compile exec:java -Dexec.classpathScope=test \
+ *       -Dexec.mainClass=com.pharma.benchmark.PricingEngineBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PricingEngineBenchmark {
+
+    private static final int LINES = 10_000;
+
+    private final PricingEngine pricingEngine = new PricingEngine();
+    private List<CartItem> cart;
+
+    @Setup
+    public void buildCart() {
+        Random random = new Random(42);
+        cart = new ArrayList<>(LINES);
+        for (int i = 0; i < LINES; i++) {
+            Product product = new Product();
+            product.setId((long) i);
+            product.setPrice(BigDecimal.valueOf(50 + random.nextInt(10_000), 2));
+            // Roughly a quarter of the catalogue runs a "buy 10 get 2" offer
+            if (i % 4 == 0) {
+                product.setIsBundleOffer(true);
+                product.setBundleBuyQuantity(10);
+                product.setBundleFreeQuantity(2);
+                product.setBundlePrice(product.getPrice().multiply(BigDecimal.valueOf(9)));
+            }
+            CartItem item = new CartItem();
+            item.setProduct(product);
+            item.setQuantity(1 + random.nextInt(30));
+            cart.add(item);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LINES)
+    public long pricingEngine() {
+        return pricingEngine.price(cart).totalMinor();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LINES)
+    public BigDecimal legacyBigDecimal() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (CartItem item : cart) {
+            Product product = item.getProduct();
+            int qty = item.getQuantity();
+            BigDecimal itemTotal;
+            if (Boolean.TRUE.equals(product.getIsBundleOffer()) && qty >= 12) {
+                int unitSize = product.getBundleBuyQuantity() + product.getBundleFreeQuantity();
+                int bundles = qty / unitSize;
+                int remainder = qty % unitSize;
+                itemTotal = product.getBundlePrice().multiply(BigDecimal.valueOf(bundles))
+                        .add(product.getPrice().multiply(BigDecimal.valueOf(remainder)));
+            } else {
+                itemTotal = product.getPrice().multiply(BigDecimal.valueOf(qty));
+            }
+            total = total.add(itemTotal);
+        }
+        return total;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(PricingEngineBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,153 @@
+package com.pharma.benchmark;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * First-page latency of the LIKE search versus the tsvector/GIN search at
+ * 10k, 100k and 1M products.
+ *
+ * Needs a scratch PostgreSQL 12+ database; the benchmark creates and drops its
+ * own schema (bench_search) and never touches the application tables. The
+ * queries mirror ProductRepository.searchProducts and fullTextSearch.
+ *
+ * Run with:
+ *   mvn test-compile exec:java -Dexec.classpathScope=test \
+ *       -Dexec.mainClass=com.pharma.benchmark.ProductSearchBenchmark \
+ *       -Dbench.jdbc.url=jdbc:postgresql://localhost:5432/bench \
+ *       -Dbench.jdbc.user=postgres -Dbench.jdbc.password=postgres
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductSearchBenchmark {
+
+    private static final String[] TERMS = {
+            "paracetamol", "ibupro", "amoxi", "cetiri", "pharmaco", "vitamin", "500", "tablet relief"
+    };
+
+    private static final String LIKE_SQL =
+            "SELECT id FROM bench_search.products WHERE is_deleted = false AND is_available_for_sale = true "
+            + "AND (LOWER(name) LIKE ? OR LOWER(description) LIKE ? OR LOWER(manufacturer) LIKE ?) "
+            + "ORDER BY id DESC LIMIT 12";
+
+    private static final String FULL_TEXT_SQL =
+            "SELECT id FROM bench_search.products WHERE is_deleted = false AND is_available_for_sale = true "
+            + "AND search_vector @@ to_tsquery('simple', ?) "
+            + "ORDER BY ts_rank(search_vector, to_tsquery('simple', ?)) DESC, id DESC LIMIT 12";
+
+    @Param({ "10000", "100000", "1000000" })
+    public int products;
+
+    private Connection connection;
+    private PreparedStatement like;
+    private PreparedStatement fullText;
+
+    @Setup(Level.Trial)
+    public void seed() throws SQLException {
+        connection = DriverManager.getConnection(
+                System.getProperty("bench.jdbc.url", "jdbc:postgresql://localhost:5432/bench"),
+                System.getProperty("bench.jdbc.user", "postgres"),
+                System.getProperty("bench.jdbc.password", "postgres"));
+        try (Statement st = connection.createStatement()) {
+            st.execute("DROP SCHEMA IF EXISTS bench_search CASCADE");
+            st.execute("CREATE SCHEMA bench_search");
+            st.execute("CREATE TABLE bench_search.products ("
+                    + " id BIGINT PRIMARY KEY, name VARCHAR(255) NOT NULL, manufacturer VARCHAR(255),"
+                    + " description TEXT, is_deleted BOOLEAN NOT NULL, is_available_for_sale BOOLEAN NOT NULL,"
+                    + " search_vector tsvector GENERATED ALWAYS AS ("
+                    + "  setweight(to_tsvector('simple', coalesce(name, '')), 'A') ||"
+                    + "  setweight(to_tsvector('simple', coalesce(manufacturer, '')), 'B') ||"
+                    + "  setweight(to_tsvector('simple', coalesce(description, '')), 'C')) STORED)");
+            st.execute("INSERT INTO bench_search.products (id, name, manufacturer, description, is_deleted, is_available_for_sale) "
+                    + "SELECT i,"
+                    + " (ARRAY['Paracetamol','Ibuprofen','Amoxicillin','Cetirizine','Omeprazole','Metformin',"
+                    + "        'Atorvastatin','Vitamin C','Vitamin D3','Azithromycin'])[1 + i % 10]"
+                    + "   || ' ' || (ARRAY['250','500','650','1000'])[1 + i % 4] || 'mg ' || md5(i::text),"
+                    + " (ARRAY['PharmaCo','HealthMeds','Cipla','Sun Pharma','GSK'])[1 + i % 5],"
+                    + " 'Tablet for relief of ' || md5((i * 7)::text) || ' ' || repeat('store below 25 degrees ', 6),"
+                    + " i % 50 = 0, i % 20 <> 0 "
+                    + "FROM generate_series(1, " + products + ") AS i");
+            st.execute("CREATE INDEX ON bench_search.products USING GIN (search_vector)");
+            st.execute("ANALYZE bench_search.products");
+        }
+        like = connection.prepareStatement(LIKE_SQL);
+        fullText = connection.prepareStatement(FULL_TEXT_SQL);
+    }
+
+    @TearDown(Level.Trial)
+    public void drop() throws SQLException {
+        try (Statement st = connection.createStatement()) {
+            st.execute("DROP SCHEMA IF EXISTS bench_search CASCADE");
+        }
+        connection.close();
+    }
+
+    @Benchmark
+    public int likeSearch() throws SQLException {
+        String pattern = "%" + randomTerm() + "%";
+        like.setString(1, pattern);
+        like.setString(2, pattern);
+        like.setString(3, pattern);
+        return drain(like);
+    }
+
+    @Benchmark
+    public int fullTextSearch() throws SQLException {
+        // Same shape ProductSearchService builds: one prefix match per word
+        String query = String.join(":* & ", randomTerm().split(" ")) + ":*";
+        fullText.setString(1, query);
+        fullText.setString(2, query);
+        return drain(fullText);
+    }
+
+    private static String randomTerm() {
+        return TERMS[ThreadLocalRandom.current().nextInt(TERMS.length)];
+    }
+
+    private static int drain(PreparedStatement statement) throws SQLException {
+        int rows = 0;
+        try (ResultSet rs = statement.executeQuery()) {
+            while (rs.next()) {
+                rows++;
+            }
+        }
+        return rows;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ProductSearchBenchmark.class.getSimpleName())
+                .jvmArgsAppend(
+                        "-Dbench.jdbc.url=" + System.getProperty("bench.jdbc.url", "jdbc:postgresql://localhost:5432/bench"),
+                        "-Dbench.jdbc.user=" + System.getProperty("bench.jdbc.user", "postgres"),
+                        "-Dbench.jdbc.password=" + System.getProperty("bench.jdbc.password", "postgres"))
+                .build()).run();
+    }
+}
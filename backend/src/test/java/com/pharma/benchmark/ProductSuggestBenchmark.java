@@ -0,0 +1,96 @@
+package com.pharma.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.pharma.dto.response.ProductSuggestion;
+import com.pharma.repository.OrderItemRepository;
+import com.pharma.repository.ProductRepository;
+import com.pharma.service.ProductSuggestIndex;
+
+/**
+ * Per-keystroke latency of ProductSuggestIndex.suggest over a synthetic
+ * catalogue, typing real-looking queries one character at a time.
+ *
+ * Run with:
+ *   mvn test-compile exec:java -Dexec.classpathScope=test \
+ *       -Dexec.mainClass=com.pharma.benchmark.ProductSuggestBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductSuggestBenchmark {
+
+    private static final String[] GENERICS = {
+            "Paracetamol", "Ibuprofen", "Amoxicillin", "Cetirizine", "Omeprazole", "Metformin",
+            "Atorvastatin", "Vitamin C", "Vitamin D3", "Azithromycin", "Pantoprazole", "Diclofenac"
+    };
+    private static final String[] FORMS = { "Tablets", "Capsules", "Syrup", "Gel", "Drops", "Injection" };
+    private static final String[] MANUFACTURERS = { "PharmaCo", "HealthMeds", "Cipla", "Sun Pharma", "GSK", "Abbott" };
+    private static final String[] TYPED = { "paracetamol 500", "vitamin d", "cipla", "ome", "azithro", "syrup", "amox 2" };
+
+    @Param({ "10000", "100000" })
+    public int products;
+
+    private ProductSuggestIndex index;
+    private String[] keystrokes;
+
+    @Setup
+    public void build() {
+        Random random = new Random(42);
+        List<Object[]> rows = new ArrayList<>(products);
+        List<Object[]> sales = new ArrayList<>(products);
+        for (long id = 1; id <= products; id++) {
+            String name = GENERICS[random.nextInt(GENERICS.length)] + " " + (50 * (1 + random.nextInt(20))) + "mg "
+                    + FORMS[random.nextInt(FORMS.length)] + " " + Long.toString(id, 36);
+            rows.add(new Object[] { id, name, MANUFACTURERS[random.nextInt(MANUFACTURERS.length)] });
+            sales.add(new Object[] { id, (long) random.nextInt(1_000) });
+        }
+        ProductRepository productRepository = mock(ProductRepository.class);
+        OrderItemRepository orderItemRepository = mock(OrderItemRepository.class);
+        when(productRepository.findSuggestionSources()).thenReturn(rows);
+        when(orderItemRepository.sumQuantityByProduct()).thenReturn(sales);
+        index = new ProductSuggestIndex(productRepository, orderItemRepository);
+        index.refreshPopularity();
+
+        List<String> prefixes = new ArrayList<>();
+        for (String typed : TYPED) {
+            for (int len = 1; len <= typed.length(); len++) {
+                prefixes.add(typed.substring(0, len));
+            }
+        }
+        keystrokes = prefixes.toArray(String[]::new);
+    }
+
+    @Benchmark
+    public List<ProductSuggestion> suggest() {
+        return index.suggest(keystrokes[ThreadLocalRandom.current().nextInt(keystrokes.length)], 8);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ProductSuggestBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -1,5 +1,7 @@
 package com.pharma.controller;
 
+import java.io.ByteArrayOutputStream;
+import java.time.LocalDateTime;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -12,12 +14,14 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.pharma.dto.response.ApiResponse;
 import com.pharma.model.Order;
@@ -99,14 +103,14 @@ class AdminControllerTest {
     }
 
     @Test
-    void exportOrders_ShouldReturnExcelFile() throws Exception {
-        byte[] mockExcelContent = "mock excel content".getBytes();
-        when(orderExportService.exportAllOrders(any(), any(), any())).thenReturn(mockExcelContent);
-
-        ResponseEntity<byte[]> response = adminController.exportOrders(null, null, "user@test.com", "2023-01-01", "2023-12-31");
+    void exportOrders_ShouldStreamExcelFile() throws Exception {
+        ResponseEntity<StreamingResponseBody> response = adminController.exportOrders(null, null, "user@test.com", "2023-01-01", "2023-12-31");
 
         assertNotNull(response);
         assertEquals(200, response.getStatusCode().value());
-        assertEquals(mockExcelContent, response.getBody());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+        verify(orderExportService).writeAllOrders("user@test.com", LocalDateTime.of(2023, 1, 1, 0, 0),
+                LocalDateTime.of(2023, 12, 31, 23, 59, 59), out);
     }
 }
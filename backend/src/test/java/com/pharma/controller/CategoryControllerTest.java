@@ -4,6 +4,7 @@ import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -13,10 +14,14 @@ import static org.mockito.ArgumentMatchers.eq;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
 
 import com.pharma.dto.request.CategoryRequest;
 import com.pharma.dto.request.SubCategoryRequest;
@@ -25,6 +30,7 @@ import com.pharma.model.Category;
 import com.pharma.model.SubCategory;
 import com.pharma.service.AuditService;
 import com.pharma.service.CategoryService;
+import com.pharma.service.CategoryTree;
 import com.pharma.service.SubCategoryService;
 
 @ExtendWith(MockitoExtension.class)
@@ -39,6 +45,12 @@ class CategoryControllerTest {
     @Mock
     private AuditService auditService;
 
+    @Mock
+    private CategoryTree categoryTree;
+
+    @Mock
+    private CategoryTree.Snapshot snapshot;
+
     @InjectMocks
     private CategoryController categoryController;
 
@@ -70,9 +82,12 @@ class CategoryControllerTest {
 
     @Test
     void getAllCategories_ShouldReturnList() {
+        when(categoryTree.current()).thenReturn(snapshot);
+        when(snapshot.etag()).thenReturn("\"v1\"");
         when(categoryService.getAllCategories()).thenReturn(List.of(testCategory));
 
-        ResponseEntity<ApiResponse<List<Category>>> response = categoryController.getAllCategories();
+        ResponseEntity<ApiResponse<List<Category>>> response =
+                categoryController.getAllCategories(webRequest(null));
 
         assertNotNull(response);
         assertEquals(200, response.getStatusCode().value());
@@ -80,13 +95,45 @@ class CategoryControllerTest {
         assertEquals("Categories retrieved successfully", response.getBody().getMessage());
         assertEquals(1, response.getBody().getData().size());
         assertEquals("Category", response.getBody().getData().get(0).getName());
+        assertEquals("\"v1\"", response.getHeaders().getETag());
+        assertEquals("no-cache", response.getHeaders().getCacheControl());
+    }
+
+    @Test
+    void getAllCategories_MatchingETag_ShouldReturnNotModified() {
+        when(categoryTree.current()).thenReturn(snapshot);
+        when(snapshot.etag()).thenReturn("\"v1\"");
+
+        ResponseEntity<ApiResponse<List<Category>>> response =
+                categoryController.getAllCategories(webRequest("\"v1\""));
+
+        assertEquals(304, response.getStatusCode().value());
+        assertNull(response.getBody());
+        assertEquals("\"v1\"", response.getHeaders().getETag());
+        verify(categoryService, never()).getAllCategories();
+    }
+
+    @Test
+    void getAllCategories_StaleETag_ShouldReturnList() {
+        when(categoryTree.current()).thenReturn(snapshot);
+        when(snapshot.etag()).thenReturn("\"v2\"");
+        when(categoryService.getAllCategories()).thenReturn(List.of(testCategory));
+
+        ResponseEntity<ApiResponse<List<Category>>> response =
+                categoryController.getAllCategories(webRequest("\"v1\""));
+
+        assertEquals(200, response.getStatusCode().value());
+        assertEquals("\"v2\"", response.getHeaders().getETag());
     }
 
     @Test
     void getSubCategoriesByCategory_ShouldReturnList() {
+        when(categoryTree.current()).thenReturn(snapshot);
+        when(snapshot.etag()).thenReturn("\"v1\"");
         when(subCategoryService.getSubCategoriesByCategory(1L)).thenReturn(List.of(testSubCategory));
 
-        ResponseEntity<ApiResponse<List<SubCategory>>> response = categoryController.getSubCategoriesByCategory(1L);
+        ResponseEntity<ApiResponse<List<SubCategory>>> response =
+                categoryController.getSubCategoriesByCategory(1L, webRequest(null));
 
         assertNotNull(response);
         assertEquals(200, response.getStatusCode().value());
@@ -94,6 +141,20 @@ class CategoryControllerTest {
         assertEquals("SubCategories retrieved successfully", response.getBody().getMessage());
         assertEquals(1, response.getBody().getData().size());
         assertEquals("SubCategory", response.getBody().getData().get(0).getName());
+        assertEquals("\"v1\"", response.getHeaders().getETag());
+    }
+
+    @Test
+    void getSubCategoriesByCategory_MatchingETag_ShouldReturnNotModified() {
+        when(categoryTree.current()).thenReturn(snapshot);
+        when(snapshot.etag()).thenReturn("\"v1\"");
+
+        ResponseEntity<ApiResponse<List<SubCategory>>> response =
+                categoryController.getSubCategoriesByCategory(1L, webRequest("\"v1\""));
+
+        assertEquals(304, response.getStatusCode().value());
+        assertNull(response.getBody());
+        verify(subCategoryService, never()).getSubCategoriesByCategory(1L);
     }
 
     @Test
@@ -176,4 +237,12 @@ class CategoryControllerTest {
         assertEquals("SubCategory deleted successfully", response.getBody().getMessage());
         verify(subCategoryService).deleteSubCategory(1L);
     }
+
+    private static ServletWebRequest webRequest(String ifNoneMatch) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/categories");
+        if (ifNoneMatch != null) {
+            request.addHeader("If-None-Match", ifNoneMatch);
+        }
+        return new ServletWebRequest(request, new MockHttpServletResponse());
+    }
 }
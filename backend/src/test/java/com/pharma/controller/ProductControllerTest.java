@@ -2,6 +2,7 @@ package com.pharma.controller;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
@@ -18,15 +19,25 @@ import static org.mockito.Mockito.when;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.ResponseEntity;
 
 import com.pharma.dto.response.ApiResponse;
+import com.pharma.dto.response.CursorPage;
+import com.pharma.dto.response.FacetedProductPage;
+import com.pharma.dto.response.ProductBatchResponse;
+import com.pharma.dto.response.ProductChangesResponse;
+import com.pharma.dto.response.ProductPageResponse;
+import com.pharma.dto.response.ProductSuggestion;
+import com.pharma.dto.response.ProductSummary;
 import com.pharma.model.Category;
 import com.pharma.model.Product;
 import com.pharma.model.SubCategory;
+import com.pharma.service.ProductFacetIndex;
 import com.pharma.service.ProductService;
 import com.pharma.service.ProductUploadService;
+import com.pharma.service.ProductViewCounter;
 
 @ExtendWith(MockitoExtension.class)
 class ProductControllerTest {
@@ -37,10 +48,14 @@ class ProductControllerTest {
     @Mock
     private ProductUploadService productUploadService;
 
+    @Mock
+    private ProductViewCounter productViewCounter;
+
     @InjectMocks
     private ProductController productController;
 
     private Product product;
+    private ProductSummary summary;
 
     private Category category;
     private SubCategory subCategory;
@@ -63,11 +78,17 @@ class ProductControllerTest {
         product.setName("Test Vaccine");
         product.setCategory(category);
         product.setSubCategory(subCategory);
+
+        summary = new ProductSummary();
+        summary.setId(1L);
+        summary.setName("Test Vaccine");
+        summary.setCategoryName("Vaccines");
+        summary.setSubCategoryName("Tdap");
     }
 
     @Test
     void getProductsByCategory_WithSubCategory() {
-        Page<Product> productPage = new PageImpl<>(Collections.singletonList(product));
+        Page<ProductSummary> productPage = new PageImpl<>(Collections.singletonList(summary));
         List<String> subCategories = List.of("tdap");
         
         when(productService.getProductsByCategoryAndSubCategory(
@@ -76,11 +97,12 @@ class ProductControllerTest {
                 any(Pageable.class)
         )).thenReturn(productPage);
 
-        ResponseEntity<ApiResponse<Page<Product>>> response = productController.getProductsByCategory(
+        ResponseEntity<ApiResponse<Page<ProductSummary>>> response = productController.getProductsByCategory(
                 "vaccines",
                 subCategories,
                 0,
-                12
+                12,
+                "id"
         );
 
         assertNotNull(response);
@@ -94,4 +116,97 @@ class ProductControllerTest {
                 any(Pageable.class)
         );
     }
+
+    @Test
+    void scrollProducts_UnknownSortFallsBackToId() {
+        CursorPage<ProductSummary> slice = new CursorPage<>(List.of(summary), "next", true);
+        when(productService.scrollProducts("id", null, 24)).thenReturn(slice);
+
+        ResponseEntity<ApiResponse<CursorPage<ProductSummary>>> response =
+                productController.scrollProducts(null, 24, "password");
+
+        assertEquals(200, response.getStatusCode().value());
+        assertEquals("next", response.getBody().getData().getNextCursor());
+        verify(productService).scrollProducts("id", null, 24);
+    }
+
+    @Test
+    void getProductsBatch_ReturnsBatchFromService() {
+        ProductBatchResponse batch = new ProductBatchResponse(List.of(product), List.of(9L));
+        when(productService.getProductsByIds(List.of(1L, 9L))).thenReturn(batch);
+
+        ResponseEntity<ApiResponse<ProductBatchResponse>> get = productController.getProductsBatch(List.of(1L, 9L));
+        ResponseEntity<ApiResponse<ProductBatchResponse>> post = productController.postProductsBatch(List.of(1L, 9L));
+
+        assertEquals(batch, get.getBody().getData());
+        assertEquals(batch, post.getBody().getData());
+    }
+
+    @Test
+    void getProductById_CountsTheView() {
+        when(productService.getProductById(1L)).thenReturn(product);
+
+        ResponseEntity<ApiResponse<Product>> response = productController.getProductById(1L);
+
+        assertEquals(product, response.getBody().getData());
+        verify(productViewCounter).record(1L);
+    }
+
+    @Test
+    void getProductPage_CountsTheView() {
+        ProductPageResponse productPage = new ProductPageResponse(product, "Vaccines", "vaccines", null, null,
+                true, null, List.of(summary));
+        when(productService.getProductPage(1L, 4)).thenReturn(productPage);
+
+        ResponseEntity<ApiResponse<ProductPageResponse>> response = productController.getProductPage(1L, 4);
+
+        assertEquals(productPage, response.getBody().getData());
+        verify(productViewCounter).record(1L);
+    }
+
+    @Test
+    void getProductsByCategory_SortedByPopularity() {
+        when(productService.getProductsByCategory(eq("vaccines"), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(summary)));
+
+        productController.getProductsByCategory("vaccines", null, 0, 12, "popularity");
+
+        verify(productService).getProductsByCategory("vaccines", PageRequest.of(0, 12, ProductService.POPULARITY));
+    }
+
+    @Test
+    void getProductChanges_PassesCursorAndLimit() {
+        ProductChangesResponse changes = new ProductChangesResponse(List.of(), "c2", false);
+        when(productService.getProductChanges("c1", 200)).thenReturn(changes);
+
+        ResponseEntity<ApiResponse<ProductChangesResponse>> response = productController.getProductChanges("c1", 200);
+
+        assertEquals(200, response.getStatusCode().value());
+        assertEquals("c2", response.getBody().getData().getNextCursor());
+    }
+
+    @Test
+    void suggestProducts_ReturnsIndexSuggestions() {
+        List<ProductSuggestion> suggestions = List.of(new ProductSuggestion("Test Vaccine", ProductSuggestion.PRODUCT, 1L));
+        when(productService.suggestProducts("tes", 8)).thenReturn(suggestions);
+
+        ResponseEntity<ApiResponse<List<ProductSuggestion>>> response = productController.suggestProducts("tes", 8);
+
+        assertEquals(200, response.getStatusCode().value());
+        assertEquals(suggestions, response.getBody().getData());
+    }
+
+    @Test
+    void getFacetedProducts_PassesOnlyGivenFacets() {
+        FacetedProductPage result = new FacetedProductPage(new PageImpl<>(List.of(summary)), Map.of());
+        when(productService.getFacetedProducts(any(), any(Pageable.class))).thenReturn(result);
+
+        ResponseEntity<ApiResponse<FacetedProductPage>> response = productController.getFacetedProducts(
+                List.of("vaccines"), null, List.of("Cipla", "GSK"), null, null, List.of(), 0, 12);
+
+        assertEquals(result, response.getBody().getData());
+        verify(productService).getFacetedProducts(eq(Map.of(
+                ProductFacetIndex.CATEGORY, List.of("vaccines"),
+                ProductFacetIndex.MANUFACTURER, List.of("Cipla", "GSK"))), any(Pageable.class));
+    }
 }
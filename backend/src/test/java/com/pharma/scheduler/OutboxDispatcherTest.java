@@ -0,0 +1,203 @@
+package com.pharma.scheduler;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.mail.MailSendException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.pharma.model.Order;
+import com.pharma.model.OutboxEvent;
+import com.pharma.model.enums.OrderStatus;
+import com.pharma.model.enums.OutboxEventType;
+import com.pharma.model.enums.OutboxStatus;
+import com.pharma.repository.OrderRepository;
+import com.pharma.repository.OutboxEventRepository;
+import com.pharma.service.EmailService;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxDispatcherTest {
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private EmailService emailService;
+
+    @Spy
+    private TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
+
+    @InjectMocks
+    private OutboxDispatcher dispatcher;
+
+    private Order order;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(dispatcher, "dispatcherEnabled", true);
+        ReflectionTestUtils.setField(dispatcher, "batchSize", 50);
+        ReflectionTestUtils.setField(dispatcher, "maxAttempts", 3);
+        ReflectionTestUtils.setField(dispatcher, "backoffBaseSeconds", 30L);
+        ReflectionTestUtils.setField(dispatcher, "claimLeaseSeconds", 300L);
+
+        order = new Order();
+        order.setId(7L);
+    }
+
+    private OutboxEvent event(OutboxEventType type, String payload, int attempts) {
+        return event(1L, type, payload, attempts);
+    }
+
+    private OutboxEvent event(Long id, OutboxEventType type, String payload, int attempts) {
+        return OutboxEvent.builder()
+                .id(id)
+                .eventType(type)
+                .aggregateId(7L)
+                .payload(payload)
+                .attempts(attempts)
+                .nextAttemptAt(LocalDateTime.now())
+                .build();
+    }
+
+    @Test
+    void dispatch_DeliversAndMarksDone() throws Exception {
+        OutboxEvent event = event(OutboxEventType.CUSTOMER_ORDER_STATUS_UPDATE, "SHIPPED", 0);
+        when(outboxEventRepository.claimDue(eq(OutboxStatus.PENDING), any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(List.of(event));
+        when(orderRepository.findWithItemsById(7L)).thenReturn(Optional.of(order));
+
+        dispatcher.dispatch();
+
+        verify(emailService).sendOrderStatusUpdate(order, OrderStatus.SHIPPED);
+        assertEquals(OutboxStatus.DONE, event.getStatus());
+        assertNotNull(event.getProcessedAt());
+        verify(outboxEventRepository).recordOutcome(eq(1L), any(LocalDateTime.class), eq(OutboxStatus.DONE), eq(0),
+                any(LocalDateTime.class), eq(null), eq(event.getProcessedAt()));
+    }
+
+    @Test
+    void dispatch_RecordsOutcomeOnlyUnderItsOwnLease() throws Exception {
+        OutboxEvent event = event(OutboxEventType.ADMIN_ORDER_PLACED, null, 0);
+        when(outboxEventRepository.claimDue(eq(OutboxStatus.PENDING), any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(List.of(event));
+        when(orderRepository.findWithItemsById(7L)).thenReturn(Optional.of(order));
+        LocalDateTime[] lease = new LocalDateTime[1];
+        doAnswer(invocation -> {
+            lease[0] = event.getNextAttemptAt();
+            return null;
+        }).when(emailService).sendOrderPlacedNotification(order);
+        // Another node reclaimed the row while the send ran
+        when(outboxEventRepository.recordOutcome(any(), any(), any(), anyInt(), any(), any(), any())).thenReturn(0);
+
+        dispatcher.dispatch();
+
+        verify(outboxEventRepository).recordOutcome(eq(1L), eq(lease[0]), eq(OutboxStatus.DONE), eq(0),
+                any(LocalDateTime.class), eq(null), any(LocalDateTime.class));
+        verify(outboxEventRepository, never()).save(any());
+    }
+
+    @Test
+    void dispatch_ClaimLeasesRowsBeforeSending() throws Exception {
+        OutboxEvent event = event(OutboxEventType.ADMIN_ORDER_PLACED, null, 0);
+        when(outboxEventRepository.claimDue(eq(OutboxStatus.PENDING), any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(List.of(event));
+        when(orderRepository.findWithItemsById(7L)).thenReturn(Optional.of(order));
+        LocalDateTime before = LocalDateTime.now();
+        LocalDateTime[] leaseSeenBySend = new LocalDateTime[1];
+        doAnswer(invocation -> {
+            leaseSeenBySend[0] = event.getNextAttemptAt();
+            return null;
+        }).when(emailService).sendOrderPlacedNotification(order);
+
+        dispatcher.dispatch();
+
+        // Claim and outcome are two transactions, with the send between them
+        verify(transactionTemplate, times(2)).execute(any());
+        assertTrue(!leaseSeenBySend[0].isBefore(before.plusSeconds(300)));
+    }
+
+    @Test
+    void dispatch_FailedOutcomeWriteDoesNotStopTheBatch() throws Exception {
+        OutboxEvent first = event(1L, OutboxEventType.ADMIN_ORDER_PLACED, null, 0);
+        OutboxEvent second = event(2L, OutboxEventType.CUSTOMER_ORDER_CONFIRMATION, null, 0);
+        when(outboxEventRepository.claimDue(eq(OutboxStatus.PENDING), any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(List.of(first, second));
+        when(orderRepository.findWithItemsById(7L)).thenReturn(Optional.of(order));
+        when(outboxEventRepository.recordOutcome(eq(1L), any(), any(), anyInt(), any(), any(), any()))
+                .thenThrow(new IllegalStateException("connection lost"));
+
+        dispatcher.dispatch();
+
+        verify(emailService).sendCustomerOrderConfirmation(order);
+        verify(outboxEventRepository).recordOutcome(eq(2L), any(), eq(OutboxStatus.DONE), anyInt(), any(), any(), any());
+        assertEquals(OutboxStatus.DONE, second.getStatus());
+    }
+
+    @Test
+    void dispatch_FailureSchedulesRetryWithBackoff() throws Exception {
+        OutboxEvent event = event(OutboxEventType.ADMIN_ORDER_PLACED, null, 1);
+        when(outboxEventRepository.claimDue(eq(OutboxStatus.PENDING), any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(List.of(event));
+        when(orderRepository.findWithItemsById(7L)).thenReturn(Optional.of(order));
+        doThrow(new MailSendException("SMTP down")).when(emailService).sendOrderPlacedNotification(order);
+
+        LocalDateTime before = LocalDateTime.now();
+        dispatcher.dispatch();
+
+        assertEquals(OutboxStatus.PENDING, event.getStatus());
+        assertEquals(2, event.getAttempts());
+        // Second attempt waits base * 2 = 60s
+        assertTrue(!event.getNextAttemptAt().isBefore(before.plusSeconds(60)));
+        assertTrue(event.getLastError().contains("SMTP down"));
+    }
+
+    @Test
+    void dispatch_GivesUpAfterMaxAttempts() throws Exception {
+        OutboxEvent event = event(OutboxEventType.CUSTOMER_ORDER_CONFIRMATION, null, 2);
+        when(outboxEventRepository.claimDue(eq(OutboxStatus.PENDING), any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(List.of(event));
+        when(orderRepository.findWithItemsById(7L)).thenReturn(Optional.of(order));
+        doThrow(new MailSendException("SMTP down")).when(emailService).sendCustomerOrderConfirmation(order);
+
+        dispatcher.dispatch();
+
+        assertEquals(OutboxStatus.FAILED, event.getStatus());
+        assertEquals(3, event.getAttempts());
+    }
+
+    @Test
+    void dispatch_Disabled_DoesNotPoll() {
+        ReflectionTestUtils.setField(dispatcher, "dispatcherEnabled", false);
+
+        dispatcher.dispatch();
+
+        verify(outboxEventRepository, never()).claimDue(any(), any(), any());
+    }
+}
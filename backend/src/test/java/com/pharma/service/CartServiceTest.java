@@ -1,5 +1,6 @@
 package com.pharma.service;
 
+import com.pharma.dto.response.CartQuoteResponse;
 import com.pharma.model.Cart;
 import com.pharma.model.CartItem;
 import com.pharma.model.Product;
@@ -10,10 +11,12 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -35,6 +38,12 @@ class CartServiceTest {
     @Mock
     private ProductService productService;
 
+    @Spy
+    private PricingEngine pricingEngine = new PricingEngine();
+
+    @Spy
+    private CartQuoteCache cartQuoteCache = new CartQuoteCache(100, 60);
+
     @InjectMocks
     private CartService cartService;
 
@@ -247,4 +256,82 @@ class CartServiceTest {
 
         assertThrows(RuntimeException.class, () -> cartService.removeItemFromCart("test@example.com", 10L));
     }
+
+    @Test
+    void getCartQuote_PricesWithCheckoutRules() {
+        product.setIsBundleOffer(true);
+        product.setBundleBuyQuantity(2);
+        product.setBundleFreeQuantity(1);
+        product.setBundlePrice(BigDecimal.valueOf(20));
+        CartItem item = new CartItem();
+        item.setId(5L);
+        item.setProduct(product);
+        item.setQuantity(4); // one bundle of 3 + 1 at unit price
+        cart.getItems().add(item);
+        when(cartRepository.findWithItemsByUserEmail("test@example.com")).thenReturn(Optional.of(cart));
+
+        CartQuoteResponse quote = cartService.getCartQuote("test@example.com");
+
+        assertEquals(new BigDecimal("30.00"), quote.getTotal());
+        assertEquals(new BigDecimal("40.00"), quote.getSubtotal());
+        assertEquals(new BigDecimal("10.00"), quote.getSavings());
+        assertEquals(4, quote.getItemCount());
+        assertEquals(1, quote.getLines().get(0).getFreeQuantity());
+    }
+
+    @Test
+    void getCartQuote_RepeatCall_ServedFromCache() {
+        when(cartRepository.findWithItemsByUserEmail("test@example.com")).thenReturn(Optional.of(cart));
+
+        CartQuoteResponse first = cartService.getCartQuote("test@example.com");
+        CartQuoteResponse second = cartService.getCartQuote("test@example.com");
+
+        assertSame(first, second);
+        verify(cartRepository, times(1)).findWithItemsByUserEmail("test@example.com");
+    }
+
+    @Test
+    void getCartQuote_NoCart_ReturnsEmptyQuoteWithoutCreatingOne() {
+        when(cartRepository.findWithItemsByUserEmail("test@example.com")).thenReturn(Optional.empty());
+
+        CartQuoteResponse quote = cartService.getCartQuote("test@example.com");
+
+        assertEquals(List.of(), quote.getLines());
+        assertEquals(new BigDecimal("0.00"), quote.getTotal());
+        verify(cartRepository, never()).save(any(Cart.class));
+    }
+
+    @Test
+    void updateCartItem_InvalidatesCachedQuote() {
+        cart.setId(100L);
+        CartItem cartItem = new CartItem();
+        cartItem.setId(10L);
+        cartItem.setCart(cart);
+        cartItem.setProduct(product);
+        cartItem.setQuantity(1);
+        cart.getItems().add(cartItem);
+        when(cartRepository.findWithItemsByUserEmail("test@example.com")).thenReturn(Optional.of(cart));
+        when(userService.getUserByEmail("test@example.com")).thenReturn(user);
+        when(cartRepository.findByUser(user)).thenReturn(Optional.of(cart));
+        when(cartItemRepository.findById(10L)).thenReturn(Optional.of(cartItem));
+
+        assertEquals(new BigDecimal("10.00"), cartService.getCartQuote("test@example.com").getTotal());
+        cartService.updateCartItem("test@example.com", 10L, 3);
+
+        assertEquals(new BigDecimal("30.00"), cartService.getCartQuote("test@example.com").getTotal());
+        verify(cartQuoteCache).invalidate("test@example.com");
+    }
+
+    @Test
+    void getCartQuote_CartChangedWhilePricing_QuoteIsNotReused() {
+        when(cartRepository.findWithItemsByUserEmail("test@example.com")).thenAnswer(invocation -> {
+            // A concurrent add lands after the version was read but before pricing finished
+            cartQuoteCache.invalidate("test@example.com");
+            return Optional.of(cart);
+        });
+
+        cartService.getCartQuote("test@example.com");
+
+        assertNull(cartQuoteCache.get("test@example.com"));
+    }
 }
@@ -0,0 +1,241 @@
+package com.pharma.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import static org.mockito.ArgumentMatchers.any;
+import org.mockito.Mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.pharma.dto.response.ProductSummary;
+import com.pharma.model.Category;
+import com.pharma.model.Product;
+
+@ExtendWith(MockitoExtension.class)
+class CatalogSnapshotWriterTest {
+
+    @Mock
+    private ProductService productService;
+
+    @Mock
+    private CategoryTree categoryTree;
+
+    @TempDir
+    Path dir;
+
+    private final ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+    private final List<ProductSummary> catalogue = new ArrayList<>();
+    private CatalogSnapshotWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        writer = new CatalogSnapshotWriter(productService, categoryTree, objectMapper);
+        ReflectionTestUtils.setField(writer, "enabled", true);
+        ReflectionTestUtils.setField(writer, "dir", dir.toString());
+        ReflectionTestUtils.setField(writer, "pageSize", 2);
+    }
+
+    @Test
+    void rebuild_WritesCataloguePagesAndCategoryPages() throws IOException {
+        stubCatalogue();
+        add(5L, "pain-relief");
+        add(4L, "vitamins");
+        add(3L, "pain-relief");
+        add(2L, "pain-relief");
+        add(1L, "vitamins");
+
+        writer.rebuild();
+
+        assertEquals(List.of(5L, 4L, 3L, 2L, 1L), ids(read("products.json.gz").get("data")));
+        assertEquals(List.of(5L, 4L), ids(read("products/page-0.json.gz").get("data").get("content")));
+        JsonNode last = read("products/page-2.json.gz").get("data");
+        assertEquals(List.of(1L), ids(last.get("content")));
+        assertEquals(5, last.get("totalElements").asInt());
+        assertEquals(3, last.get("totalPages").asInt());
+        assertEquals(List.of(5L, 3L), ids(read("category/pain-relief/page-0.json.gz").get("data").get("content")));
+        assertEquals(List.of(2L), ids(read("category/pain-relief/page-1.json.gz").get("data").get("content")));
+        assertEquals(List.of(4L, 1L), ids(read("category/vitamins/page-0.json.gz").get("data").get("content")));
+        // a category without products still answers page 0, like the API
+        assertEquals(0, read("category/antibiotics/page-0.json.gz").get("data").get("totalElements").asInt());
+        assertEquals("pain-relief", read("categories.json.gz").get("data").get(0).get("slug").asText());
+
+        try (Stream<Path> files = Files.walk(dir)) {
+            assertTrue(files.noneMatch(path -> path.toString().endsWith(".tmp")));
+        }
+    }
+
+    @Test
+    void rebuild_RewritesOnlyChangedFilesAndRemovesStalePages() throws IOException {
+        stubCatalogue();
+        add(4L, "pain-relief");
+        add(3L, "vitamins");
+        add(2L, "vitamins");
+        add(1L, "vitamins");
+        writer.rebuild();
+        Object painRelief = fileKey("category/pain-relief/page-0.json.gz");
+        Object vitamins = fileKey("category/vitamins/page-0.json.gz");
+
+        catalogue.removeIf(product -> product.getId() == 1L);
+        writer.rebuild();
+
+        assertEquals(painRelief, fileKey("category/pain-relief/page-0.json.gz"));
+        assertNotEquals(vitamins, fileKey("category/vitamins/page-0.json.gz"));
+        assertFalse(Files.exists(dir.resolve("category/vitamins/page-1.json.gz")));
+        assertFalse(Files.exists(dir.resolve("products/page-2.json.gz")));
+    }
+
+    @Test
+    void flush_WaitsForWritesToSettle() {
+        ReflectionTestUtils.setField(writer, "debounceMs", 60_000L);
+        writer.flush();
+        writer.markDirty();
+        writer.flush();
+        verify(productService, never()).getAllProducts(any());
+
+        stubCatalogue();
+        ReflectionTestUtils.setField(writer, "debounceMs", 0L);
+        writer.flush();
+        verify(productService).getAllProducts(any());
+        assertTrue(Files.exists(dir.resolve("products/page-0.json.gz")));
+    }
+
+    @Test
+    void flush_AfterEdit_RewritesOnlyThePagesHoldingIt() throws IOException {
+        stubCatalogue();
+        stubVisibleSummaries();
+        add(5L, "pain-relief");
+        add(4L, "vitamins");
+        add(3L, "pain-relief");
+        add(2L, "pain-relief");
+        add(1L, "vitamins");
+        writer.rebuild();
+        Object firstPage = fileKey("products/page-0.json.gz");
+        Object painRelief = fileKey("category/pain-relief/page-0.json.gz");
+
+        catalogue.removeIf(product -> product.getId() == 1L);
+        add(1L, "vitamins", "Renamed");
+        changed(1L);
+
+        assertEquals("Renamed", read("products/page-2.json.gz").get("data").get("content").get(0).get("name").asText());
+        assertEquals("Renamed", read("category/vitamins/page-0.json.gz").get("data").get("content").get(1).get("name").asText());
+        assertEquals("Renamed", read("products.json.gz").get("data").get(4).get("name").asText());
+        assertEquals(firstPage, fileKey("products/page-0.json.gz"));
+        assertEquals(painRelief, fileKey("category/pain-relief/page-0.json.gz"));
+        verify(productService, times(1)).getAllProducts(any());
+    }
+
+    @Test
+    void flush_AfterAddAndRemove_RerendersOnlyTheirListings() throws IOException {
+        stubCatalogue();
+        stubVisibleSummaries();
+        add(4L, "pain-relief");
+        add(3L, "vitamins");
+        add(2L, "vitamins");
+        add(1L, "vitamins");
+        writer.rebuild();
+        Object painRelief = fileKey("category/pain-relief/page-0.json.gz");
+
+        add(5L, "vitamins");
+        catalogue.removeIf(product -> product.getId() == 2L || product.getId() == 1L);
+        changed(5L, 2L, 1L);
+
+        assertEquals(List.of(5L, 4L), ids(read("products/page-0.json.gz").get("data").get("content")));
+        JsonNode last = read("products/page-1.json.gz").get("data");
+        assertEquals(List.of(3L), ids(last.get("content")));
+        assertEquals(3, last.get("totalElements").asInt());
+        assertFalse(Files.exists(dir.resolve("products/page-2.json.gz")));
+        assertEquals(List.of(5L, 3L), ids(read("category/vitamins/page-0.json.gz").get("data").get("content")));
+        assertFalse(Files.exists(dir.resolve("category/vitamins/page-1.json.gz")));
+        assertEquals(painRelief, fileKey("category/pain-relief/page-0.json.gz"));
+        verify(productService, times(1)).getAllProducts(any());
+    }
+
+    private void changed(Long... ids) {
+        List<Product> products = new ArrayList<>();
+        for (Long id : ids) {
+            Product product = new Product();
+            product.setId(id);
+            products.add(product);
+        }
+        writer.onProductChanged(new ProductChangedEvent(products));
+        ReflectionTestUtils.setField(writer, "debounceMs", 0L);
+        writer.flush();
+    }
+
+    private void stubCatalogue() {
+        when(categoryTree.current()).thenAnswer(invocation -> CategoryTree.Snapshot.of(
+                List.of(category(1L, "pain-relief"), category(2L, "vitamins"), category(3L, "antibiotics")), List.of()));
+        when(productService.getAllProducts(any())).thenAnswer(invocation -> {
+            Pageable pageable = invocation.getArgument(0);
+            return new PageImpl<>(List.copyOf(catalogue), pageable, catalogue.size());
+        });
+    }
+
+    private void stubVisibleSummaries() {
+        when(productService.getVisibleSummaries(any())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            return catalogue.stream().filter(product -> ids.contains(product.getId())).toList();
+        });
+    }
+
+    private void add(Long id, String categorySlug) {
+        add(id, categorySlug, "Product " + id);
+    }
+
+    private void add(Long id, String categorySlug, String name) {
+        ProductSummary product = new ProductSummary(id, name, null, "Acme", BigDecimal.TEN, 5,
+                false, false, null, null, null, categorySlug, categorySlug, null, null);
+        catalogue.add(product);
+    }
+
+    private static Category category(Long id, String slug) {
+        Category category = new Category();
+        category.setId(id);
+        category.setName(slug);
+        category.setSlug(slug);
+        return category;
+    }
+
+    private JsonNode read(String name) throws IOException {
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(dir.resolve(name)))) {
+            return objectMapper.readTree(in);
+        }
+    }
+
+    private static List<Long> ids(JsonNode array) {
+        List<Long> ids = new ArrayList<>();
+        array.forEach(node -> ids.add(node.get("id").asLong()));
+        return ids;
+    }
+
+    private Object fileKey(String name) throws IOException {
+        return Files.readAttributes(dir.resolve(name), BasicFileAttributes.class).fileKey();
+    }
+}
@@ -29,6 +29,9 @@ class CategoryServiceTest {
     @Mock
     private CategoryRepository categoryRepository;
 
+    @Mock
+    private CategoryTree categoryTree;
+
     @InjectMocks
     private CategoryService categoryService;
 
@@ -50,14 +53,14 @@ class CategoryServiceTest {
 
     @Test
     void getAllCategories_ShouldReturnListOfCategories() {
-        when(categoryRepository.findAll()).thenReturn(List.of(testCategory));
+        when(categoryTree.current()).thenReturn(CategoryTree.Snapshot.of(List.of(testCategory), List.of()));
 
         List<Category> categories = categoryService.getAllCategories();
 
         assertNotNull(categories);
         assertEquals(1, categories.size());
         assertEquals("Test Category", categories.get(0).getName());
-        verify(categoryRepository).findAll();
+        verify(categoryRepository, never()).findAll();
     }
 
     @Test
@@ -101,6 +104,7 @@ class CategoryServiceTest {
         assertEquals("New Category!@#", savedCategory.getName());
         assertEquals("New Description", savedCategory.getDescription());
         assertEquals("new-category", savedCategory.getSlug());
+        verify(categoryTree).invalidate();
     }
 
     @Test
@@ -117,6 +121,7 @@ class CategoryServiceTest {
         assertEquals("Updated Category", savedCategory.getName());
         assertEquals("Updated Description", savedCategory.getDescription());
         assertEquals("updated-category", savedCategory.getSlug());
+        verify(categoryTree).invalidate();
     }
 
     @Test
@@ -138,6 +143,7 @@ class CategoryServiceTest {
         categoryService.deleteCategory(1L);
 
         verify(categoryRepository).delete(testCategory);
+        verify(categoryTree).invalidate();
     }
 
     @Test
@@ -150,5 +156,6 @@ class CategoryServiceTest {
 
         assertEquals("Category not found with id: 1", exception.getMessage());
         verify(categoryRepository, never()).delete(any());
+        verify(categoryTree, never()).invalidate();
     }
 }
@@ -0,0 +1,133 @@
+package com.pharma.service;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import com.pharma.model.Category;
+import com.pharma.model.SubCategory;
+import com.pharma.repository.CategoryRepository;
+import com.pharma.repository.SubCategoryRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+class CategoryTreeTest {
+
+    @Mock
+    private CategoryRepository categoryRepository;
+
+    @Mock
+    private SubCategoryRepository subCategoryRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Spy
+    private SingleFlight singleFlight = new SingleFlight(new SimpleMeterRegistry());
+
+    @InjectMocks
+    private CategoryTree categoryTree;
+
+    private Category painRelief;
+    private Category vitamins;
+    private SubCategory paracetamol;
+
+    @BeforeEach
+    void setUp() {
+        painRelief = category(1L, "Pain Relief", "pain-relief");
+        vitamins = category(2L, "Vitamins", "vitamins");
+        paracetamol = new SubCategory();
+        paracetamol.setId(10L);
+        paracetamol.setName("Paracetamol");
+        paracetamol.setSlug("paracetamol");
+        paracetamol.setCategory(painRelief);
+    }
+
+    @Test
+    void current_LoadsOnceUntilInvalidated() {
+        when(categoryRepository.findAll()).thenReturn(List.of(vitamins, painRelief));
+        when(subCategoryRepository.findAll()).thenReturn(List.of(paracetamol));
+
+        CategoryTree.Snapshot first = categoryTree.current();
+        assertSame(first, categoryTree.current());
+        verify(categoryRepository, times(1)).findAll();
+
+        categoryTree.invalidate();
+        categoryTree.current();
+        verify(categoryRepository, times(2)).findAll();
+        verify(subCategoryRepository, times(2)).findAll();
+        verify(eventPublisher).publishEvent(new CategoryChangedEvent());
+    }
+
+    @Test
+    void checkForOutsideChanges_ReloadsOnlyWhenTheTablesMoved() {
+        when(categoryRepository.findAll()).thenReturn(List.of(vitamins, painRelief));
+        when(subCategoryRepository.findAll()).thenReturn(List.of(paracetamol));
+        when(categoryRepository.findChangeMarker()).thenReturn(List.<Object[]>of(new Object[] { 2L, "t1" }));
+        when(subCategoryRepository.findChangeMarker()).thenReturn(List.<Object[]>of(new Object[] { 1L, "t1" }));
+        CategoryTree.Snapshot first = categoryTree.current();
+
+        categoryTree.checkForOutsideChanges();
+        assertSame(first, categoryTree.current());
+
+        // Renamed on another node
+        when(categoryRepository.findChangeMarker()).thenReturn(List.<Object[]>of(new Object[] { 2L, "t2" }));
+        categoryTree.checkForOutsideChanges();
+
+        assertNotSame(first, categoryTree.current());
+        verify(categoryRepository, times(2)).findAll();
+        verify(eventPublisher).publishEvent(new CategoryChangedEvent());
+    }
+
+    @Test
+    void snapshot_IndexesCategoriesAndSubCategoriesBySlug() {
+        CategoryTree.Snapshot snapshot = CategoryTree.Snapshot.of(List.of(vitamins, painRelief), List.of(paracetamol));
+
+        assertEquals(List.of(1L, 2L), snapshot.categories().stream().map(Category::getId).toList());
+        assertEquals(1L, snapshot.category("pain-relief").orElseThrow().getId());
+        assertEquals(10L, snapshot.subCategory(painRelief, "paracetamol").orElseThrow().getId());
+        assertTrue(snapshot.subCategory(vitamins, "paracetamol").isEmpty());
+        assertTrue(snapshot.category("missing").isEmpty());
+        assertEquals(List.of(), snapshot.subCategories(2L).orElseThrow());
+        assertTrue(snapshot.subCategories(3L).isEmpty());
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.categories().add(vitamins));
+    }
+
+    @Test
+    void etag_DependsOnContentNotRowOrder() {
+        CategoryTree.Snapshot snapshot = CategoryTree.Snapshot.of(List.of(painRelief, vitamins), List.of(paracetamol));
+        CategoryTree.Snapshot reordered = CategoryTree.Snapshot.of(List.of(vitamins, painRelief), List.of(paracetamol));
+
+        assertEquals(snapshot.etag(), reordered.etag());
+        assertTrue(snapshot.etag().startsWith("\"") && snapshot.etag().endsWith("\""));
+
+        paracetamol.setName("Paracetamol 500");
+        assertNotEquals(snapshot.etag(),
+                CategoryTree.Snapshot.of(List.of(painRelief, vitamins), List.of(paracetamol)).etag());
+    }
+
+    private static Category category(Long id, String name, String slug) {
+        Category category = new Category();
+        category.setId(id);
+        category.setName(name);
+        category.setSlug(slug);
+        return category;
+    }
+}
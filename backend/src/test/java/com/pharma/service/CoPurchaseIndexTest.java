@@ -0,0 +1,148 @@
+package com.pharma.service;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import static org.mockito.ArgumentMatchers.anyLong;
+import org.mockito.Mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.pharma.repository.OrderItemRepository;
+
+@ExtendWith(MockitoExtension.class)
+class CoPurchaseIndexTest {
+
+    @Mock
+    private OrderItemRepository orderItemRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @TempDir
+    Path dir;
+
+    private Path snapshot;
+
+    @BeforeEach
+    void setUp() {
+        snapshot = dir.resolve("copurchase.bin");
+    }
+
+    @Test
+    void load_CountsOrdersTogetherAndRanksByFrequency() {
+        when(orderItemRepository.streamOrderProductsAfter(0L)).thenReturn(lines(
+                1L, 1L, 1L, 2L, 1L, 3L,
+                2L, 1L, 2L, 2L,
+                3L, 1L, 3L, 4L, 3L, 3L,
+                4L, 1L, 4L, 2L));
+        CoPurchaseIndex index = index(20, "");
+
+        index.load();
+
+        assertTrue(index.isReady());
+        assertEquals(List.of(2L, 3L, 4L), index.related(1L, 5));
+        assertEquals(List.of(2L), index.related(1L, 1));
+        assertEquals(List.of(1L, 3L), index.related(2L, 5));
+        assertEquals(List.of(1L, 2L, 4L), index.related(3L, 5));
+        assertTrue(index.related(99L, 5).isEmpty());
+    }
+
+    @Test
+    void ordersPlacedWhileLoading_AreCountedOnce() {
+        CoPurchaseIndex index = index(20, "");
+        when(orderItemRepository.streamOrderProductsAfter(0L)).thenReturn(lines(1L, 1L, 1L, 2L));
+        // Seen by the stream as well as queued
+        index.onOrderPlaced(new OrderPlacedEvent(1L, List.of(1L, 2L)));
+        // Committed after the stream's query ran
+        index.onOrderPlaced(new OrderPlacedEvent(2L, List.of(1L, 3L, 3L)));
+
+        index.load();
+        index.onOrderPlaced(new OrderPlacedEvent(3L, List.of(3L, 1L)));
+
+        assertEquals(List.of(3L, 2L), index.related(1L, 5));
+        assertEquals(List.of(1L), index.related(3L, 5));
+    }
+
+    @Test
+    void rows_AreCutBackToTheStrongestPartners() {
+        when(orderItemRepository.streamOrderProductsAfter(0L)).thenReturn(Stream.empty());
+        CoPurchaseIndex index = index(2, "");
+        index.load();
+
+        for (long order = 1; order <= 5; order++) {
+            index.onOrderPlaced(new OrderPlacedEvent(order, List.of(1L, 2L)));
+        }
+        LongStream.rangeClosed(100, 150).forEach(other ->
+                index.onOrderPlaced(new OrderPlacedEvent(other, List.of(1L, other))));
+
+        assertTrue(index.rowSize(1L) < 8, "row holds " + index.rowSize(1L));
+        assertEquals(2L, index.related(1L, 1).get(0));
+    }
+
+    @Test
+    void snapshot_RestoresTheMatrixAndOnlyNewerOrdersAreStreamed() throws Exception {
+        when(orderItemRepository.streamOrderProductsAfter(0L)).thenReturn(lines(
+                7L, 1L, 7L, 2L,
+                8L, 1L, 8L, 3L,
+                9L, 1L, 9L, 2L));
+        CoPurchaseIndex first = index(20, snapshot.toString());
+        first.load();
+        first.writeSnapshot();
+        assertTrue(Files.exists(snapshot));
+
+        when(orderItemRepository.streamOrderProductsAfter(9L)).thenReturn(lines(10L, 1L, 10L, 3L, 11L, 1L, 11L, 3L));
+        CoPurchaseIndex restarted = index(20, snapshot.toString());
+        restarted.load();
+
+        assertEquals(List.of(3L, 2L), restarted.related(1L, 5));
+        verify(orderItemRepository).streamOrderProductsAfter(9L);
+    }
+
+    @Test
+    void unreadableSnapshot_FallsBackToAFullBuild() throws Exception {
+        Files.write(snapshot, new byte[] { 1, 2, 3 });
+        when(orderItemRepository.streamOrderProductsAfter(0L)).thenReturn(lines(1L, 1L, 1L, 2L));
+        CoPurchaseIndex index = index(20, snapshot.toString());
+
+        index.load();
+
+        assertEquals(List.of(2L), index.related(1L, 5));
+    }
+
+    @Test
+    void unchangedMatrix_IsNotRewritten() {
+        when(orderItemRepository.streamOrderProductsAfter(anyLong())).thenReturn(Stream.empty());
+        CoPurchaseIndex index = index(20, snapshot.toString());
+        index.load();
+
+        index.writeSnapshot();
+
+        assertFalse(Files.exists(snapshot));
+    }
+
+    private CoPurchaseIndex index(int topK, String file) {
+        return new CoPurchaseIndex(orderItemRepository, transactionManager, topK, file);
+    }
+
+    // (order id, product id) pairs, as streamed by the repository
+    private static Stream<Object[]> lines(long... pairs) {
+        Stream.Builder<Object[]> lines = Stream.builder();
+        for (int i = 0; i < pairs.length; i += 2) {
+            lines.add(new Object[] { pairs[i], pairs[i + 1] });
+        }
+        return lines.build();
+    }
+}
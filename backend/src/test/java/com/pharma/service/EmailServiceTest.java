@@ -67,7 +67,7 @@ class EmailServiceTest {
     }
 
     @Test
-    void sendOrderPlacedNotification_Success() {
+    void sendOrderPlacedNotification_Success() throws Exception {
         when(mailSender.createMimeMessage()).thenReturn(mimeMessage);
 
         emailService.sendOrderPlacedNotification(order);
@@ -76,7 +76,7 @@ class EmailServiceTest {
     }
 
     @Test
-    void sendOrderPlacedNotification_Disabled() {
+    void sendOrderPlacedNotification_Disabled() throws Exception {
         ReflectionTestUtils.setField(emailService, "adminOrderPlacedEnabled", false);
 
         emailService.sendOrderPlacedNotification(order);
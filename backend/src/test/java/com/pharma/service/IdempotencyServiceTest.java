@@ -0,0 +1,195 @@
+package com.pharma.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.TransactionSystemException;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pharma.exception.IdempotencyConflictException;
+import com.pharma.model.IdempotencyRecord;
+import com.pharma.model.enums.IdempotencyStatus;
+import com.pharma.repository.IdempotencyRecordRepository;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotencyServiceTest {
+
+    private static final String OWNER = "buyer@example.com";
+    private static final String KEY = "checkout-1";
+
+    @Mock
+    private IdempotencyRecordRepository repository;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private IdempotencyService idempotencyService;
+
+    @BeforeEach
+    void setUp() {
+        idempotencyService = new IdempotencyService(repository, objectMapper,
+                new TransactionTemplate(transactionManager), 100, 24);
+    }
+
+    private IdempotencyRecord savedRecord() {
+        return IdempotencyRecord.builder()
+                .id(1L)
+                .owner(OWNER)
+                .idempotencyKey(KEY)
+                .status(IdempotencyStatus.IN_PROGRESS)
+                .lockedUntil(LocalDateTime.now().plusSeconds(30))
+                .expiresAt(LocalDateTime.now().plusHours(24))
+                .build();
+    }
+
+    @Test
+    void execute_FirstCall_RunsActionAndStoresResponse() {
+        IdempotencyRecord record = savedRecord();
+        when(repository.findByOwnerAndIdempotencyKey(OWNER, KEY)).thenReturn(Optional.empty());
+        when(repository.saveAndFlush(any(IdempotencyRecord.class))).thenReturn(record);
+        when(repository.complete(1L, "{\"orderId\":42}")).thenReturn(1);
+
+        IdempotencyService.IdempotentResponse response =
+                idempotencyService.execute(OWNER, KEY, Map.of("a", 1), () -> Map.of("orderId", 42));
+
+        assertFalse(response.replayed());
+        assertEquals("{\"orderId\":42}", response.body());
+        // Stored in the transaction that ran the action, which then committed
+        verify(transactionManager).commit(any());
+        verify(repository, never()).deleteById(any());
+    }
+
+    @Test
+    void execute_CommitFails_KeepsKey() {
+        IdempotencyRecord record = savedRecord();
+        when(repository.findByOwnerAndIdempotencyKey(OWNER, KEY)).thenReturn(Optional.empty());
+        when(repository.saveAndFlush(any(IdempotencyRecord.class))).thenReturn(record);
+        when(repository.complete(1L, "42")).thenReturn(1);
+        doThrow(new TransactionSystemException("connection reset during commit"))
+                .when(transactionManager).commit(any());
+
+        assertThrows(TransactionSystemException.class,
+                () -> idempotencyService.execute(OWNER, KEY, Map.of("a", 1), () -> 42));
+
+        // The order may have committed, so the key must not be freed for another checkout
+        verify(repository, never()).deleteById(any());
+    }
+
+    @Test
+    void execute_TakenOverAttemptAlreadyCompleted_RollsBackAndReplays() {
+        IdempotencyRecord record = savedRecord();
+        IdempotencyRecord completedByOther = savedRecord();
+        completedByOther.setStatus(IdempotencyStatus.COMPLETED);
+        completedByOther.setResponseBody("{\"orderId\":7}");
+        TransactionStatus status = new SimpleTransactionStatus();
+        when(transactionManager.getTransaction(any())).thenReturn(status);
+        when(repository.findByOwnerAndIdempotencyKey(OWNER, KEY)).thenReturn(Optional.empty());
+        when(repository.saveAndFlush(any(IdempotencyRecord.class))).thenReturn(record);
+        when(repository.complete(any(), anyString())).thenReturn(0);
+        when(repository.findById(1L)).thenReturn(Optional.of(completedByOther));
+
+        IdempotencyService.IdempotentResponse response =
+                idempotencyService.execute(OWNER, KEY, Map.of("a", 1), () -> Map.of("orderId", 8));
+
+        assertTrue(response.replayed());
+        assertEquals("{\"orderId\":7}", response.body());
+        assertTrue(status.isRollbackOnly());
+    }
+
+    @Test
+    void execute_Retry_IsServedFromCacheWithoutRerunning() {
+        IdempotencyRecord record = savedRecord();
+        when(repository.findByOwnerAndIdempotencyKey(OWNER, KEY)).thenReturn(Optional.empty());
+        when(repository.saveAndFlush(any(IdempotencyRecord.class))).thenReturn(record);
+        when(repository.complete(1L, "1")).thenReturn(1);
+        AtomicInteger runs = new AtomicInteger();
+
+        idempotencyService.execute(OWNER, KEY, Map.of("a", 1), runs::incrementAndGet);
+        IdempotencyService.IdempotentResponse retry =
+                idempotencyService.execute(OWNER, KEY, Map.of("a", 1), runs::incrementAndGet);
+
+        assertTrue(retry.replayed());
+        assertEquals("1", retry.body());
+        assertEquals(1, runs.get());
+        verify(repository, times(1)).findByOwnerAndIdempotencyKey(OWNER, KEY);
+    }
+
+    @Test
+    void execute_CompletedInDatabase_ReplaysStoredBody() throws Exception {
+        IdempotencyRecord record = savedRecord();
+        record.setStatus(IdempotencyStatus.COMPLETED);
+        record.setResponseBody("{\"orderId\":7}");
+        record.setRequestHash(hashOf(Map.of("a", 1)));
+        when(repository.findByOwnerAndIdempotencyKey(OWNER, KEY)).thenReturn(Optional.of(record));
+
+        IdempotencyService.IdempotentResponse response = idempotencyService.execute(OWNER, KEY, Map.of("a", 1),
+                () -> { throw new AssertionError("action must not run on replay"); });
+
+        assertTrue(response.replayed());
+        assertEquals("{\"orderId\":7}", response.body());
+    }
+
+    @Test
+    void execute_DifferentBodyForSameKey_ThrowsConflict() throws Exception {
+        IdempotencyRecord record = savedRecord();
+        record.setStatus(IdempotencyStatus.COMPLETED);
+        record.setRequestHash(hashOf(Map.of("a", 1)));
+        when(repository.findByOwnerAndIdempotencyKey(OWNER, KEY)).thenReturn(Optional.of(record));
+
+        assertThrows(IdempotencyConflictException.class,
+                () -> idempotencyService.execute(OWNER, KEY, Map.of("a", 2), () -> "never"));
+    }
+
+    @Test
+    void execute_ActionFails_ReleasesKey() {
+        IdempotencyRecord record = savedRecord();
+        when(repository.findByOwnerAndIdempotencyKey(OWNER, KEY)).thenReturn(Optional.empty());
+        when(repository.saveAndFlush(any(IdempotencyRecord.class))).thenReturn(record);
+
+        assertThrows(IllegalStateException.class, () -> idempotencyService.execute(OWNER, KEY, Map.of("a", 1),
+                () -> { throw new IllegalStateException("checkout failed"); }));
+
+        verify(repository).deleteById(1L);
+        verify(repository, never()).complete(any(), any());
+        verify(transactionManager).rollback(any());
+    }
+
+    @Test
+    void execute_BlankKey_ThrowsIllegalArgument() {
+        assertThrows(IllegalArgumentException.class,
+                () -> idempotencyService.execute(OWNER, " ", Map.of(), () -> "never"));
+    }
+
+    private String hashOf(Object request) throws Exception {
+        byte[] bytes = objectMapper.writeValueAsString(request).getBytes(StandardCharsets.UTF_8);
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+    }
+}
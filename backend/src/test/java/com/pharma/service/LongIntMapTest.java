@@ -0,0 +1,40 @@
+package com.pharma.service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.Test;
+
+class LongIntMapTest {
+
+    @Test
+    void addToAndPut_AgreeWithHashMapThroughResizes() {
+        LongIntMap map = new LongIntMap();
+        Map<Long, Integer> expected = new HashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 20_000; i++) {
+            long key = random.nextInt(3000) - 1000L;
+            if (i % 5 == 0) {
+                map.put(key, i);
+                expected.put(key, i);
+            } else {
+                assertEquals(expected.merge(key, 1, Integer::sum), map.addTo(key, 1));
+            }
+        }
+
+        assertEquals(expected.size(), map.size());
+        Map<Long, Integer> seen = new HashMap<>();
+        map.forEach(seen::put);
+        assertEquals(expected, seen);
+        assertEquals(-1, map.get(5000L, -1));
+        assertEquals(expected.get(0L), map.get(0L, -1));
+    }
+
+    @Test
+    void minValueKey_IsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new LongIntMap().put(Long.MIN_VALUE, 1));
+    }
+}
@@ -2,6 +2,7 @@ package com.pharma.service;
 
 import java.math.BigDecimal;
 import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -11,14 +12,20 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import com.pharma.dto.request.OrderRequest;
 import com.pharma.exception.InsufficientStockException;
@@ -29,8 +36,10 @@ import com.pharma.model.OrderItem;
 import com.pharma.model.Product;
 import com.pharma.model.User;
 import com.pharma.model.enums.OrderStatus;
+import com.pharma.model.enums.OutboxEventType;
 import com.pharma.model.enums.PaymentMethod;
 import com.pharma.repository.OrderRepository;
+import com.pharma.repository.ProductRepository;
 
 @ExtendWith(MockitoExtension.class)
 class OrderServiceTest {
@@ -38,6 +47,9 @@ class OrderServiceTest {
     @Mock
     private OrderRepository orderRepository;
 
+    @Mock
+    private ProductRepository productRepository;
+
     @Mock
     private CartService cartService;
 
@@ -48,7 +60,19 @@ class OrderServiceTest {
     private ProductService productService;
 
     @Mock
-    private EmailService emailService;
+    private OutboxService outboxService;
+
+    @Mock
+    private StockReservationService stockReservationService;
+
+    @Spy
+    private PricingEngine pricingEngine = new PricingEngine();
+
+    @Mock
+    private ProductCache productCache;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
 
     @InjectMocks
     private OrderService orderService;
@@ -92,30 +116,36 @@ class OrderServiceTest {
     void createOrder_Success() {
         when(userService.getUserByEmail(anyString())).thenReturn(user);
         when(cartService.getCartByUser(anyString())).thenReturn(cart);
+        when(productRepository.decrementStock(anyLong(), anyInt())).thenReturn(1);
         when(orderRepository.save(any(Order.class))).thenReturn(order);
 
         Order createdOrder = orderService.createOrder("test@example.com", orderRequest);
 
         assertNotNull(createdOrder);
-        verify(emailService, times(1)).sendOrderPlacedNotification(any(Order.class));
+        verify(productRepository, times(1)).decrementStock(1L, 2);
+        verify(outboxService, times(1)).enqueue(OutboxEventType.ADMIN_ORDER_PLACED, 1L, null);
+        verify(outboxService, times(1)).enqueue(OutboxEventType.CUSTOMER_ORDER_CONFIRMATION, 1L, null);
         verify(cartService, times(1)).clearCart(anyString());
+        verify(eventPublisher).publishEvent(new OrderPlacedEvent(1L, List.of(1L)));
     }
 
     @Test
     void createOrder_InsufficientStock() {
-        product.setStockQuantity(1); // Less than cart quantity (2)
         when(userService.getUserByEmail(anyString())).thenReturn(user);
         when(cartService.getCartByUser(anyString())).thenReturn(cart);
+        when(productRepository.decrementStock(1L, 2)).thenReturn(0); // Guarded UPDATE matched no row
 
         assertThrows(InsufficientStockException.class,
                 () -> orderService.createOrder("test@example.com", orderRequest));
         verify(orderRepository, never()).save(any(Order.class));
+        verify(outboxService, never()).enqueue(any(), any(), any());
     }
 
     @Test
     void createOrder_ReferenceCheck() {
         when(userService.getUserByEmail(anyString())).thenReturn(user);
         when(cartService.getCartByUser(anyString())).thenReturn(cart);
+        when(productRepository.decrementStock(anyLong(), anyInt())).thenReturn(1);
         when(orderRepository.save(any(Order.class))).thenReturn(order);
 
         Order result = orderService.createOrder("test@example.com", orderRequest);
@@ -124,6 +154,32 @@ class OrderServiceTest {
         assertEquals(OrderStatus.PENDING, result.getStatus());
     }
 
+    @Test
+    void createOrder_LockedMode_ReservesWholeCartInOneCall() {
+        ReflectionTestUtils.setField(orderService, "stockMode", "locked");
+        when(userService.getUserByEmail(anyString())).thenReturn(user);
+        when(cartService.getCartByUser(anyString())).thenReturn(cart);
+        when(orderRepository.save(any(Order.class))).thenReturn(order);
+
+        orderService.createOrder("test@example.com", orderRequest);
+
+        verify(stockReservationService, times(1)).reserve(cart.getItems());
+        verify(productRepository, never()).decrementStock(anyLong(), anyInt());
+    }
+
+    @Test
+    void createOrder_LockedMode_InsufficientStock() {
+        ReflectionTestUtils.setField(orderService, "stockMode", "locked");
+        when(userService.getUserByEmail(anyString())).thenReturn(user);
+        when(cartService.getCartByUser(anyString())).thenReturn(cart);
+        doThrow(new InsufficientStockException("Insufficient stock for product: Paracetamol"))
+                .when(stockReservationService).reserve(cart.getItems());
+
+        assertThrows(InsufficientStockException.class,
+                () -> orderService.createOrder("test@example.com", orderRequest));
+        verify(orderRepository, never()).save(any(Order.class));
+    }
+
     @Test
     void getOrderById_Success() {
         when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
@@ -139,6 +195,7 @@ class OrderServiceTest {
         Order updated = orderService.updateOrderStatus(1L, OrderStatus.SHIPPED);
 
         assertEquals(OrderStatus.SHIPPED, updated.getStatus());
+        verify(outboxService, times(1)).enqueue(OutboxEventType.CUSTOMER_ORDER_STATUS_UPDATE, 1L, "SHIPPED");
     }
 
     @Test
@@ -155,7 +212,7 @@ class OrderServiceTest {
         Order cancelledOrder = orderService.cancelOrder(1L, "test@example.com");
 
         assertEquals(OrderStatus.CANCELLED, cancelledOrder.getStatus());
-        assertEquals(102, product.getStockQuantity()); // Original 100 + 2 restored
+        verify(productRepository, times(1)).incrementStock(1L, 2); // 2 units restored atomically
     }
 
     @Test
@@ -189,6 +246,7 @@ class OrderServiceTest {
 
         when(userService.getUserByEmail(anyString())).thenReturn(user);
         when(cartService.getCartByUser(anyString())).thenReturn(cart);
+        when(productRepository.decrementStock(anyLong(), anyInt())).thenReturn(1);
         when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
         Order result = orderService.createOrder("test@example.com", orderRequest);
@@ -210,6 +268,7 @@ class OrderServiceTest {
 
         when(userService.getUserByEmail(anyString())).thenReturn(user);
         when(cartService.getCartByUser(anyString())).thenReturn(cart);
+        when(productRepository.decrementStock(anyLong(), anyInt())).thenReturn(1);
         when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
         Order result = orderService.createOrder("test@example.com", orderRequest);
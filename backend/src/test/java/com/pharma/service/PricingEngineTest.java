@@ -0,0 +1,102 @@
+package com.pharma.service;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.Test;
+
+import com.pharma.model.CartItem;
+import com.pharma.model.Product;
+
+class PricingEngineTest {
+
+    private final PricingEngine pricingEngine = new PricingEngine();
+
+    private CartItem line(String price, int quantity) {
+        Product product = new Product();
+        product.setPrice(new BigDecimal(price));
+        CartItem item = new CartItem();
+        item.setProduct(product);
+        item.setQuantity(quantity);
+        return item;
+    }
+
+    private CartItem bundleLine(String price, int buy, int free, String bundlePrice, int quantity) {
+        CartItem item = line(price, quantity);
+        Product product = item.getProduct();
+        product.setIsBundleOffer(true);
+        product.setBundleBuyQuantity(buy);
+        product.setBundleFreeQuantity(free);
+        product.setBundlePrice(new BigDecimal(bundlePrice));
+        return item;
+    }
+
+    @Test
+    void price_PlainLines_SumsUnitPriceTimesQuantity() {
+        PricingEngine.CartPricing pricing = pricingEngine.price(List.of(line("12.50", 2), line("0.99", 3)));
+
+        assertEquals(new BigDecimal("25.00"), pricing.lineTotal(0));
+        assertEquals(new BigDecimal("2.97"), pricing.lineTotal(1));
+        assertEquals(new BigDecimal("27.97"), pricing.total());
+        assertEquals(new BigDecimal("0.00"), pricing.savings());
+    }
+
+    @Test
+    void price_BundleWithRemainder_ChargesBundlesPlusUnitPrice() {
+        // Buy 10 get 2 free for 50.00; 25 units = 2 bundles (24) + 1 at unit price
+        PricingEngine.CartPricing pricing = pricingEngine.price(List.of(bundleLine("10.00", 10, 2, "50.00", 25)));
+
+        assertEquals(new BigDecimal("110.00"), pricing.lineTotal(0));
+        assertEquals(new BigDecimal("250.00"), pricing.listTotal(0));
+        assertEquals(4, pricing.freeQuantity(0));
+        assertEquals(new BigDecimal("140.00"), pricing.savings());
+    }
+
+    @Test
+    void price_BelowBundleSize_ChargesUnitPrice() {
+        PricingEngine.CartPricing pricing = pricingEngine.price(List.of(bundleLine("10.00", 10, 2, "50.00", 11)));
+
+        assertEquals(new BigDecimal("110.00"), pricing.total());
+        assertEquals(0, pricing.freeQuantity(0));
+    }
+
+    @Test
+    void price_IncompleteOrZeroSizedBundle_IsIgnored() {
+        CartItem incomplete = bundleLine("4.00", 2, 1, "5.00", 6);
+        incomplete.getProduct().setBundlePrice(null);
+        CartItem zeroSized = bundleLine("4.00", 0, 0, "5.00", 6);
+
+        PricingEngine.CartPricing pricing = pricingEngine.price(List.of(incomplete, zeroSized));
+
+        assertEquals(new BigDecimal("48.00"), pricing.total());
+    }
+
+    @Test
+    void price_UnscaledPrices_AreNormalisedToCents() {
+        PricingEngine.CartPricing pricing = pricingEngine.price(List.of(line("10.0", 1), line("3", 2)));
+
+        assertEquals(1600, pricing.totalMinor());
+        assertEquals(new BigDecimal("16.00"), pricing.total());
+    }
+
+    @Test
+    void price_SubCentPrices_RoundHalfUp() {
+        PricingEngine.CartPricing pricing = pricingEngine.price(List.of(line("1.005", 1), line("2.004", 1)));
+
+        assertEquals(101, pricing.lineTotalsMinor()[0]);
+        assertEquals(200, pricing.lineTotalsMinor()[1]);
+    }
+
+    @Test
+    void price_Overflow_Throws() {
+        assertThrows(ArithmeticException.class,
+                () -> pricingEngine.price(List.of(line("92233720368547758.07", 2))));
+    }
+
+    @Test
+    void listTotal_UsesGivenUnitPrice() {
+        assertEquals(new BigDecimal("37.50"), pricingEngine.listTotal(new BigDecimal("12.5"), 3));
+    }
+}
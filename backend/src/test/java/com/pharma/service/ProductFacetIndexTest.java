@@ -0,0 +1,179 @@
+package com.pharma.service;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import org.mockito.Mock;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+
+import com.pharma.dto.response.FacetedProductPage.FacetCount;
+import com.pharma.model.Category;
+import com.pharma.model.Product;
+import com.pharma.model.SubCategory;
+import com.pharma.repository.ProductRepository;
+
+@ExtendWith(MockitoExtension.class)
+class ProductFacetIndexTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    private ProductFacetIndex index;
+    private Map<Long, Product> catalogue;
+
+    private Category painRelief;
+    private Category vitamins;
+
+    @BeforeEach
+    void setUp() {
+        painRelief = category("pain-relief", "Pain Relief");
+        vitamins = category("vitamins", "Vitamins");
+        SubCategory tablets = new SubCategory();
+        tablets.setSlug("tablets");
+        tablets.setName("Tablets");
+        tablets.setCategory(painRelief);
+
+        Product dolo = product(1L, painRelief, "Micro Labs", "30.00", false, false);
+        dolo.setSubCategory(tablets);
+        Product brufen = product(2L, painRelief, "Abbott", "120.00", true, false);
+        Product combo = product(3L, painRelief, "Micro Labs", "260.00", false, true);
+        Product vitC = product(70L, vitamins, "micro labs", "99.99", false, true);
+        catalogue = new HashMap<>(Map.of(1L, dolo, 2L, brufen, 3L, combo, 70L, vitC));
+
+        index = new ProductFacetIndex(productRepository, "100,250,500");
+        when(productRepository.findAllSearchable()).thenReturn(List.copyOf(catalogue.values()));
+        index.rebuild();
+    }
+
+    @Test
+    void query_Unfiltered_ListsNewestFirstWithAllCounts() {
+        ProductFacetIndex.Result page = index.query(Map.of(), PageRequest.of(0, 2));
+
+        assertEquals(4, page.total());
+        assertEquals(List.of(70L, 3L), page.ids());
+        assertEquals(Map.of("pain-relief", 3, "vitamins", 1), counts(page, ProductFacetIndex.CATEGORY));
+        // Manufacturer spellings fold together under the first label seen
+        assertEquals(3, counts(page, ProductFacetIndex.MANUFACTURER).get("micro labs"));
+        assertEquals(Map.of("0-100", 2, "100-250", 1, "250-500", 1), counts(page, ProductFacetIndex.PRICE_BAND));
+        assertEquals(Map.of("true", 1, "false", 3), counts(page, ProductFacetIndex.PRESCRIPTION));
+        assertEquals(Map.of("tablets", 1), counts(page, ProductFacetIndex.SUB_CATEGORY));
+    }
+
+    @Test
+    void query_CountsEachFacetUnderTheOtherFilters() {
+        ProductFacetIndex.Result page = index.query(Map.of(
+                ProductFacetIndex.CATEGORY, List.of("Pain-Relief"),
+                ProductFacetIndex.MANUFACTURER, List.of("MICRO LABS")), PageRequest.of(0, 10));
+
+        assertEquals(List.of(3L, 1L), page.ids());
+        // Category counts ignore the category filter: vitamins would still add one Micro Labs product
+        assertEquals(Map.of("pain-relief", 2, "vitamins", 1), counts(page, ProductFacetIndex.CATEGORY));
+        // Manufacturer counts ignore the manufacturer filter but respect the category
+        assertEquals(Map.of("micro labs", 2, "abbott", 1), counts(page, ProductFacetIndex.MANUFACTURER));
+        assertEquals(Map.of("true", 1, "false", 1), counts(page, ProductFacetIndex.BUNDLE_OFFER));
+    }
+
+    @Test
+    void query_OrsValuesWithinAFacet() {
+        ProductFacetIndex.Result page = index.query(Map.of(
+                ProductFacetIndex.PRICE_BAND, List.of("0-100", "250-500")), PageRequest.of(0, 10));
+
+        assertEquals(List.of(70L, 3L, 1L), page.ids());
+    }
+
+    @Test
+    void query_UnknownValueMatchesNothing() {
+        ProductFacetIndex.Result page = index.query(Map.of(
+                ProductFacetIndex.CATEGORY, List.of("pain-relief"),
+                ProductFacetIndex.PRESCRIPTION, List.of("maybe")), PageRequest.of(0, 10));
+
+        assertEquals(0, page.total());
+        assertTrue(page.ids().isEmpty());
+    }
+
+    @Test
+    void onProductChanged_MovesBitsAndDropsHiddenProducts() {
+        Product brufen = catalogue.get(2L);
+        brufen.setCategory(vitamins);
+        brufen.setPrice(new BigDecimal("600"));
+        when(productRepository.findSearchableByIdIn(anyCollection())).thenReturn(List.of(brufen));
+        index.onProductChanged(ProductChangedEvent.of(brufen));
+
+        when(productRepository.findSearchableByIdIn(anyCollection())).thenReturn(List.of());
+        index.onProductChanged(ProductChangedEvent.of(catalogue.remove(3L)));
+
+        ProductFacetIndex.Result page = index.query(Map.of(), PageRequest.of(0, 10));
+
+        assertEquals(List.of(70L, 2L, 1L), page.ids());
+        assertEquals(Map.of("pain-relief", 1, "vitamins", 2), counts(page, ProductFacetIndex.CATEGORY));
+        // The 100-250 and 250-500 bands emptied out and are gone
+        assertEquals(Map.of("0-100", 2, "500+", 1), counts(page, ProductFacetIndex.PRICE_BAND));
+    }
+
+    @Test
+    void onCategoryChanged_RekeysRenamedCategories() {
+        vitamins.setSlug("supplements");
+        vitamins.setName("Supplements");
+
+        index.onCategoryChanged(new CategoryChangedEvent());
+
+        ProductFacetIndex.Result page = index.query(Map.of(ProductFacetIndex.CATEGORY, List.of("supplements")),
+                PageRequest.of(0, 10));
+        assertEquals(List.of(70L), page.ids());
+        assertEquals(Map.of("pain-relief", 3, "supplements", 1), counts(page, ProductFacetIndex.CATEGORY));
+    }
+
+    @Test
+    void onProductChanged_DuringRebuild_IsAppliedOnceBuilt() {
+        Product added = product(80L, vitamins, "Abbott", "45.00", false, false);
+        List<Product> before = List.copyOf(catalogue.values());
+        catalogue.put(80L, added);
+        // Committed after the rebuild's read: the catalogue it loads does not have it yet
+        when(productRepository.findAllSearchable()).thenAnswer(invocation -> {
+            index.onProductChanged(ProductChangedEvent.of(added));
+            return before;
+        });
+        when(productRepository.findSearchableByIdIn(anyCollection())).thenReturn(List.of(added));
+
+        index.rebuild();
+
+        ProductFacetIndex.Result page = index.query(Map.of(), PageRequest.of(0, 10));
+        assertEquals(List.of(80L, 70L, 3L, 2L, 1L), page.ids());
+    }
+
+    private static Map<String, Integer> counts(ProductFacetIndex.Result page, String facet) {
+        return page.facets().get(facet).stream()
+                .collect(Collectors.toMap(FacetCount::getValue, FacetCount::getCount));
+    }
+
+    private static Category category(String slug, String name) {
+        Category category = new Category();
+        category.setSlug(slug);
+        category.setName(name);
+        return category;
+    }
+
+    private static Product product(Long id, Category category, String manufacturer, String price,
+                                   boolean prescription, boolean bundle) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName("Product " + id);
+        product.setCategory(category);
+        product.setManufacturer(manufacturer);
+        product.setPrice(new BigDecimal(price));
+        product.setIsPrescriptionRequired(prescription);
+        product.setIsBundleOffer(bundle);
+        return product;
+    }
+}
@@ -0,0 +1,151 @@
+package com.pharma.service;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import org.mockito.Mock;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import com.pharma.model.Product;
+import com.pharma.repository.ProductRepository;
+
+@ExtendWith(MockitoExtension.class)
+class ProductSearchIndexTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    private ProductSearchIndex index;
+
+    private Product dolo;
+    private Product crocin;
+    private Product ibuprofen;
+    private Product dolomite;
+
+    @BeforeEach
+    void setUp() {
+        dolo = product(1L, "Dolo 650", "Micro Labs", "Paracetamol tablets for fever and pain");
+        crocin = product(2L, "Crocin Advance", "GSK", "Fast relief from headache");
+        ibuprofen = product(3L, "Ibuprofen 400mg", "Cipla", "Anti-inflammatory pain relief");
+        dolomite = product(4L, "Dolomite Calcium", "HealthMeds", "Mineral supplement");
+
+        index = new ProductSearchIndex(productRepository);
+        when(productRepository.findAllSearchable()).thenReturn(List.of(dolo, crocin, ibuprofen, dolomite));
+        index.rebuild();
+    }
+
+    @Test
+    void tokenize_FoldsCaseAccentsAndPunctuation() {
+        assertEquals(List.of("co", "codamol", "500mg"), ProductSearchIndex.tokenize("  Co-Codamol, 500MG!"));
+        assertEquals(List.of("creme"), ProductSearchIndex.tokenize("Crème"));
+        assertTrue(ProductSearchIndex.tokenize("%%").isEmpty());
+        assertTrue(ProductSearchIndex.tokenize(null).isEmpty());
+    }
+
+    @Test
+    void search_PrefixMatchesAndAndsWords() {
+        assertEquals(List.of(ibuprofen), search("ibupro"));
+        assertEquals(List.of(ibuprofen, dolo), search("pain"));
+        assertEquals(List.of(ibuprofen), search("pain relief"));
+        assertTrue(search("pain zzz").isEmpty());
+        assertTrue(search("!!").isEmpty());
+    }
+
+    @Test
+    void search_ExpandsBrandAndGenericSynonyms() {
+        // Generic finds the brand by name, brand finds the product that only mentions the generic
+        assertTrue(search("paracetamol").contains(crocin));
+        assertTrue(search("paracetamol").contains(dolo));
+        assertTrue(search("crocin").contains(dolo));
+        // Partially typed generic still pulls in brands
+        assertTrue(search("paracet").contains(crocin));
+    }
+
+    @Test
+    void search_RanksNameOverDescriptionAndExactOverPrefix() {
+        // Dolo has "dolo" as an exact name word; Dolomite only as a prefix, Crocin only as a synonym
+        List<Product> hits = search("dolo");
+        assertEquals(dolo, hits.get(0));
+        assertTrue(hits.containsAll(List.of(dolomite, crocin)));
+        // Both names match through synonyms, Dolo also mentions paracetamol in its description
+        assertEquals(List.of(dolo, crocin), search("paracetamol"));
+    }
+
+    @Test
+    void search_PagesOverRankedHits() {
+        Page<Product> first = index.search("pain", PageRequest.of(0, 1));
+        Page<Product> second = index.search("pain", PageRequest.of(1, 1));
+
+        assertEquals(2, first.getTotalElements());
+        assertEquals(List.of(ibuprofen), first.getContent());
+        assertEquals(List.of(dolo), second.getContent());
+    }
+
+    @Test
+    void onProductChanged_ReindexesEditsAndDropsHiddenProducts() {
+        Product renamed = product(3L, "Brufen 400", "Abbott", "Anti-inflammatory");
+        when(productRepository.findSearchableByIdIn(anyCollection())).thenReturn(List.of(renamed));
+
+        index.onProductChanged(ProductChangedEvent.of(renamed));
+
+        assertEquals(List.of(renamed), search("abbott"));
+        assertTrue(search("cipla").isEmpty());
+        assertEquals(List.of(renamed), search("ibuprofen")); // via the brufen synonym
+
+        // Soft-deleted or hidden: the reload no longer returns it
+        when(productRepository.findSearchableByIdIn(anyCollection())).thenReturn(List.of());
+        index.onProductChanged(ProductChangedEvent.of(dolo));
+
+        assertTrue(search("dolo").stream().noneMatch(p -> p.getId().equals(1L)));
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    void onProductChanged_AddsNewProducts() {
+        Product added = product(5L, "Azee 500", "Cipla", null);
+        when(productRepository.findSearchableByIdIn(Set.of(5L))).thenReturn(List.of(added));
+
+        index.onProductChanged(ProductChangedEvent.of(added));
+
+        assertEquals(List.of(added), search("azithromycin"));
+        assertEquals(List.of(added, ibuprofen), search("cipla"));
+    }
+
+    @Test
+    void onProductChanged_DuringRebuild_IsAppliedOnceBuilt() {
+        Product added = product(5L, "Azee 500", "Cipla", null);
+        // Committed after the rebuild's read: the catalogue it loads does not have it yet
+        when(productRepository.findAllSearchable()).thenAnswer(invocation -> {
+            index.onProductChanged(ProductChangedEvent.of(added));
+            return List.of(dolo, crocin, ibuprofen, dolomite);
+        });
+        when(productRepository.findSearchableByIdIn(Set.of(5L))).thenReturn(List.of(added));
+
+        index.rebuild();
+
+        assertEquals(List.of(added), search("azee"));
+        assertEquals(5, index.size());
+    }
+
+    private List<Product> search(String query) {
+        return index.search(query, PageRequest.of(0, 20)).getContent();
+    }
+
+    private static Product product(Long id, String name, String manufacturer, String description) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName(name);
+        product.setManufacturer(manufacturer);
+        product.setDescription(description);
+        return product;
+    }
+}
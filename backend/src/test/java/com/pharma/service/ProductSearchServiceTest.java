@@ -0,0 +1,129 @@
+package com.pharma.service;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.pharma.model.Product;
+import com.pharma.repository.ProductRepository;
+
+@ExtendWith(MockitoExtension.class)
+class ProductSearchServiceTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private ProductSearchIndex productSearchIndex;
+
+    @InjectMocks
+    private ProductSearchService productSearchService;
+
+    private final Pageable pageable = PageRequest.of(1, 12, Sort.by(Sort.Direction.DESC, "id"));
+
+    @Test
+    void toPrefixTsQuery_AndsPrefixPerWord() {
+        assertEquals("para:* & 500:*", ProductSearchService.toPrefixTsQuery("  Para 500!"));
+        assertEquals("co:* & codamol:*", ProductSearchService.toPrefixTsQuery("co-codamol"));
+        assertEquals("crocín:*", ProductSearchService.toPrefixTsQuery("Crocín"));
+        assertNull(ProductSearchService.toPrefixTsQuery("':*&|!()"));
+        assertNull(ProductSearchService.toPrefixTsQuery(null));
+    }
+
+    @Test
+    void search_FullTextMode_UsesRankedQueryWithoutCallerSort() {
+        ReflectionTestUtils.setField(productSearchService, "mode", "fulltext");
+        when(productRepository.fullTextSearch(eq("para:*"), any(Pageable.class)))
+                .thenReturn(new PageImpl<Product>(List.of()));
+
+        productSearchService.search("para", pageable);
+
+        ArgumentCaptor<Pageable> captor = ArgumentCaptor.forClass(Pageable.class);
+        verify(productRepository).fullTextSearch(eq("para:*"), captor.capture());
+        assertEquals(1, captor.getValue().getPageNumber());
+        assertEquals(12, captor.getValue().getPageSize());
+        assertFalse(captor.getValue().getSort().isSorted());
+        verify(productRepository, never()).searchProducts(any(), any());
+    }
+
+    @Test
+    void search_FullTextMode_PunctuationOnlyFallsBackToLike() {
+        ReflectionTestUtils.setField(productSearchService, "mode", "fulltext");
+
+        productSearchService.search("%%", pageable);
+
+        verify(productRepository).searchProducts("%%", pageable);
+        verify(productRepository, never()).fullTextSearch(any(), any());
+    }
+
+    @Test
+    void search_LikeMode_UsesLikeQuery() {
+        ReflectionTestUtils.setField(productSearchService, "mode", "like");
+
+        productSearchService.search("para", pageable);
+
+        verify(productRepository).searchProducts("para", pageable);
+    }
+
+    @Test
+    void search_IndexMode_AnsweredFromIndexOnceReady() {
+        ReflectionTestUtils.setField(productSearchService, "mode", "index");
+        when(productSearchIndex.isReady()).thenReturn(true);
+
+        productSearchService.search("para", pageable);
+
+        verify(productSearchIndex).search("para", pageable);
+        verify(productRepository, never()).searchProducts(any(), any());
+        verify(productRepository, never()).fullTextSearch(any(), any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void search_IndexMode_FallsBackWhileIndexIsBuilding() {
+        ReflectionTestUtils.setField(productSearchService, "mode", "index");
+        when(productSearchIndex.isReady()).thenReturn(false);
+        when(jdbcTemplate.execute(any(ConnectionCallback.class))).thenReturn(false);
+
+        productSearchService.search("para", pageable);
+
+        verify(productSearchIndex, never()).search(any(), any());
+        verify(productRepository).searchProducts("para", pageable);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void search_AutoMode_DetectsOnceAndFallsBackWhenUnsupported() {
+        when(jdbcTemplate.execute(any(ConnectionCallback.class))).thenReturn(false);
+
+        productSearchService.search("para", pageable);
+        productSearchService.search("ibu", pageable);
+
+        verify(jdbcTemplate, times(1)).execute(any(ConnectionCallback.class));
+        verify(productRepository).searchProducts("para", pageable);
+        verify(productRepository).searchProducts("ibu", pageable);
+    }
+}
@@ -1,13 +1,20 @@
 package com.pharma.service;
 
 import java.math.BigDecimal;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.LongStream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -17,15 +24,24 @@ import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyString;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import org.mockito.junit.jupiter.MockitoExtension;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 
+import com.pharma.dto.response.FacetedProductPage;
+import com.pharma.dto.response.ProductBatchResponse;
+import com.pharma.dto.response.ProductPageResponse;
+import com.pharma.dto.response.ProductSummary;
+import com.pharma.exception.ResourceNotFoundException;
 import com.pharma.model.Category;
 import com.pharma.model.Product;
 import com.pharma.model.SubCategory;
@@ -48,6 +64,39 @@ class ProductServiceTest {
     @Mock
     private SubCategoryRepository subCategoryRepository;
 
+    @Mock
+    private ProductSearchService productSearchService;
+
+    @Mock
+    private ProductSuggestIndex productSuggestIndex;
+
+    @Mock
+    private ProductFacetIndex productFacetIndex;
+
+    @Mock
+    private CategoryTree categoryTree;
+
+    @Spy
+    private ProductCache productCache = new ProductCache(100, 60, 5, new SimpleMeterRegistry());
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private SearchAnalytics searchAnalytics;
+
+    @Spy
+    private SingleFlight singleFlight = new SingleFlight(new SimpleMeterRegistry());
+
+    @Spy
+    private PricingEngine pricingEngine = new PricingEngine();
+
+    @Mock
+    private CoPurchaseIndex coPurchaseIndex;
+
+    @Spy
+    private SearchResultCache searchResultCache = new SearchResultCache(100, 30, new SimpleMeterRegistry());
+
     private Product product;
     private Category category;
     private SubCategory subCategory;
@@ -75,19 +124,31 @@ class ProductServiceTest {
 
     @Test
     void getAllProducts_Success() {
-        Page<Product> productPage = new PageImpl<>(Collections.singletonList(product));
-        when(productRepository.findByIsDeletedFalseAndIsAvailableForSaleTrue(any(Pageable.class))).thenReturn(productPage);
+        Page<ProductSummary> summaryPage = new PageImpl<>(Collections.singletonList(summary()));
+        when(productRepository.findVisibleSummaries(any(Pageable.class))).thenReturn(summaryPage);
+        when(productRepository.findImageUrlsByProductIdIn(Set.of(1L))).thenReturn(List.of(
+                new Object[] { 1L, "/a.png" }, new Object[] { 1L, "/b.png" }));
 
-        Page<Product> result = productService.getAllProducts(PageRequest.of(0, 10));
+        Page<ProductSummary> result = productService.getAllProducts(PageRequest.of(0, 10));
 
         assertNotNull(result);
         assertEquals(1, result.getTotalElements());
-        verify(productRepository, times(1)).findByIsDeletedFalseAndIsAvailableForSaleTrue(any(Pageable.class));
+        assertEquals("/a.png", result.getContent().get(0).getImageUrl());
+        verify(productRepository, times(1)).findVisibleSummaries(any(Pageable.class));
+    }
+
+    @Test
+    void getAllProducts_EmptyPage_SkipsImageQuery() {
+        when(productRepository.findVisibleSummaries(any(Pageable.class))).thenReturn(Page.empty());
+
+        productService.getAllProducts(PageRequest.of(0, 10));
+
+        verify(productRepository, never()).findImageUrlsByProductIdIn(any());
     }
 
     @Test
     void getProductById_Success() {
-        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+        when(productRepository.findDetailedById(1L)).thenReturn(Optional.of(product));
 
         Product found = productService.getProductById(1L);
 
@@ -97,11 +158,175 @@ class ProductServiceTest {
 
     @Test
     void getProductById_NotFound() {
-        when(productRepository.findById(99L)).thenReturn(Optional.empty());
+        when(productRepository.findDetailedById(99L)).thenReturn(Optional.empty());
 
         assertThrows(RuntimeException.class, () -> productService.getProductById(99L));
     }
 
+    @Test
+    void getProductById_ServesRepeatReadsFromCacheAsCopies() {
+        when(productRepository.findDetailedById(1L)).thenReturn(Optional.of(product));
+
+        Product first = productService.getProductById(1L);
+        first.setName("changed by caller");
+        Product second = productService.getProductById(1L);
+
+        assertEquals("Test Product", second.getName());
+        assertNotSame(first, second);
+        verify(productRepository, times(1)).findDetailedById(1L);
+    }
+
+    @Test
+    void getProductById_StockInvalidationRereadsOnlyStock() {
+        when(productRepository.findDetailedById(1L)).thenReturn(Optional.of(product));
+        when(productRepository.findStockQuantityById(1L)).thenReturn(Optional.of(7));
+        productService.getProductById(1L);
+
+        productCache.invalidateStock(List.of(1L));
+
+        assertEquals(7, productService.getProductById(1L).getStockQuantity());
+        verify(productRepository, times(1)).findDetailedById(1L);
+    }
+
+    @Test
+    void getProductPage_AssemblesProductNamesBundleAndRelated() {
+        category.setName("Pain Relief");
+        subCategory.setName("Paracetamol");
+        product.setIsBundleOffer(true);
+        product.setBundleBuyQuantity(2);
+        product.setBundleFreeQuantity(1);
+        product.setBundlePrice(BigDecimal.valueOf(200));
+        ProductSummary related = summary();
+        related.setId(2L);
+        when(productRepository.findDetailedById(1L)).thenReturn(Optional.of(product));
+        when(productRepository.findVisibleSummariesRelatedTo(1L, PageRequest.of(0, 4, ProductService.POPULARITY)))
+                .thenReturn(List.of(related));
+        when(productRepository.findImageUrlsByProductIdIn(Set.of(2L))).thenReturn(List.<Object[]>of(
+                new Object[] { 2L, "/related.png" }));
+        when(categoryTree.current()).thenReturn(CategoryTree.Snapshot.of(List.of(category), List.of(subCategory)));
+
+        ProductPageResponse page = productService.getProductPage(1L, 4);
+
+        assertEquals("Test Product", page.getProduct().getName());
+        assertEquals("Pain Relief", page.getCategoryName());
+        assertEquals("paracetamol", page.getSubCategorySlug());
+        assertTrue(page.isInStock());
+        assertEquals(3, page.getBundle().getQuantity());
+        assertEquals(1, page.getBundle().getFreeQuantity());
+        assertEquals(new BigDecimal("200.00"), page.getBundle().getPrice());
+        assertEquals(new BigDecimal("300.00"), page.getBundle().getListPrice());
+        assertEquals(new BigDecimal("100.00"), page.getBundle().getSavings());
+        assertTrue(page.getBundle().isAvailable());
+        assertEquals(List.of(2L), page.getRelated().stream().map(ProductSummary::getId).toList());
+        assertEquals("/related.png", page.getRelated().get(0).getImageUrl());
+    }
+
+    @Test
+    void getProductPage_WithoutBundleOrRelated_SkipsRelatedQuery() {
+        when(productRepository.findDetailedById(1L)).thenReturn(Optional.of(product));
+        when(categoryTree.current()).thenReturn(CategoryTree.Snapshot.of(List.of(category), List.of(subCategory)));
+
+        ProductPageResponse page = productService.getProductPage(1L, 0);
+
+        assertNull(page.getBundle());
+        assertTrue(page.getRelated().isEmpty());
+        verify(productRepository, never()).findVisibleSummariesRelatedTo(any(), any(Pageable.class));
+    }
+
+    @Test
+    void getProductPage_NotFound() {
+        when(productRepository.findDetailedById(99L)).thenReturn(Optional.empty());
+
+        assertThrows(ResourceNotFoundException.class, () -> productService.getProductPage(99L, 4));
+        assertThrows(IllegalArgumentException.class,
+                () -> productService.getProductPage(1L, ProductService.MAX_RELATED + 1));
+    }
+
+    @Test
+    void getFrequentlyBoughtTogether_KeepsIndexOrderAndSkipsHidden() {
+        ProductSummary second = summary();
+        second.setId(2L);
+        ProductSummary third = summary();
+        third.setId(3L);
+        when(coPurchaseIndex.related(1L, Integer.MAX_VALUE)).thenReturn(List.of(3L, 9L, 2L));
+        when(productRepository.findVisibleSummariesByIdIn(List.of(3L, 9L, 2L))).thenReturn(List.of(second, third));
+        when(productRepository.findImageUrlsByProductIdIn(Set.of(3L))).thenReturn(List.of());
+
+        List<ProductSummary> related = productService.getFrequentlyBoughtTogether(1L, 1);
+
+        assertEquals(List.of(3L), related.stream().map(ProductSummary::getId).toList());
+        assertThrows(IllegalArgumentException.class, () -> productService.getFrequentlyBoughtTogether(1L, 0));
+    }
+
+    @Test
+    void getProductsByIds_KeepsRequestOrderAndReportsMissing() {
+        Product other = product(3L, "Other Product");
+        when(productRepository.findDetailedByIdIn(Set.of(3L, 1L, 99L))).thenReturn(List.of(product, other));
+
+        ProductBatchResponse batch = productService.getProductsByIds(Arrays.asList(3L, 1L, 99L, 3L, null));
+
+        assertEquals(List.of(3L, 1L), batch.getProducts().stream().map(Product::getId).toList());
+        assertEquals(50, batch.getProducts().get(1).getStockQuantity());
+        assertEquals(List.of(99L), batch.getMissingIds());
+    }
+
+    @Test
+    void getProductsByIds_LoadsOnlyCacheMisses() {
+        when(productRepository.findDetailedById(1L)).thenReturn(Optional.of(product));
+        productService.getProductById(1L);
+        when(productRepository.findDetailedByIdIn(Set.of(2L))).thenReturn(List.of(product(2L, "Second")));
+
+        ProductBatchResponse batch = productService.getProductsByIds(List.of(1L, 2L));
+
+        assertEquals(List.of("Test Product", "Second"), batch.getProducts().stream().map(Product::getName).toList());
+        verify(productRepository).findDetailedByIdIn(Set.of(2L));
+        verify(productRepository, never()).findStockQuantitiesByIdIn(any());
+    }
+
+    @Test
+    void getProductsByIds_RereadsExpiredStockInOneQuery() {
+        when(productRepository.findDetailedById(1L)).thenReturn(Optional.of(product));
+        productService.getProductById(1L);
+        productCache.invalidateStock(List.of(1L));
+        when(productRepository.findStockQuantitiesByIdIn(Set.of(1L))).thenReturn(List.<Object[]>of(
+                new Object[] { 1L, 7 }));
+
+        ProductBatchResponse batch = productService.getProductsByIds(List.of(1L));
+
+        assertEquals(7, batch.getProducts().get(0).getStockQuantity());
+        verify(productRepository, never()).findDetailedByIdIn(any());
+    }
+
+    @Test
+    void getProductsByIds_RejectsEmptyAndOversizedBatches() {
+        assertThrows(IllegalArgumentException.class, () -> productService.getProductsByIds(List.of()));
+        List<Long> tooMany = LongStream.rangeClosed(1, ProductService.MAX_BATCH_IDS + 1).boxed().toList();
+        assertThrows(IllegalArgumentException.class, () -> productService.getProductsByIds(tooMany));
+    }
+
+    @Test
+    void updateProduct_InvalidatesCachedProduct() {
+        com.pharma.dto.request.ProductRequest request = new com.pharma.dto.request.ProductRequest();
+        request.setName("Renamed");
+        request.setPrice(BigDecimal.valueOf(150.0));
+        request.setStockQuantity(60);
+        request.setCategoryId(1L);
+        Product stale = new Product();
+        stale.setId(1L);
+        stale.setName("Test Product");
+        stale.setStockQuantity(50);
+        when(productRepository.findDetailedById(1L)).thenReturn(Optional.of(stale), Optional.of(product));
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+        when(categoryRepository.findById(1L)).thenReturn(Optional.of(category));
+        when(productRepository.save(any(Product.class))).thenReturn(product);
+        productService.getProductById(1L);
+
+        productService.updateProduct(1L, request);
+
+        assertEquals("Renamed", productService.getProductById(1L).getName());
+        verify(productCache).invalidate(1L);
+    }
+
     @Test
     void createProduct_Success() {
         com.pharma.dto.request.ProductRequest request = new com.pharma.dto.request.ProductRequest();
@@ -127,17 +352,71 @@ class ProductServiceTest {
         productService.deleteProduct(1L);
 
         verify(productRepository, times(1)).save(any(Product.class)); // Soft delete
+        verify(eventPublisher).publishEvent(ProductChangedEvent.of(product));
     }
 
     @Test
     void searchProducts_Success() {
+        category.setName("Pain Relief");
+        subCategory.setName("Paracetamol");
         Page<Product> productPage = new PageImpl<>(Collections.singletonList(product));
-        when(productRepository.searchProducts(anyString(), any(Pageable.class))).thenReturn(productPage);
+        when(productSearchService.search(anyString(), any(Pageable.class))).thenReturn(productPage);
+        when(categoryTree.current()).thenReturn(CategoryTree.Snapshot.of(List.of(category), List.of(subCategory)));
+        when(productRepository.findImageUrlsByProductIdIn(Set.of(1L))).thenReturn(List.<Object[]>of(
+                new Object[] { 1L, "/a.png" }));
+        // The hit's entity is as indexed; orders have since sold some
+        when(productRepository.findStockQuantitiesByIdIn(Set.of(1L))).thenReturn(List.<Object[]>of(
+                new Object[] { 1L, 3 }));
 
-        Page<Product> results = productService.searchProducts("Test", PageRequest.of(0, 10));
+        Page<ProductSummary> results = productService.searchProducts("Test", PageRequest.of(0, 10));
 
         assertNotNull(results);
         assertEquals(1, results.getTotalElements());
+        ProductSummary summary = results.getContent().get(0);
+        assertEquals("Test Product", summary.getName());
+        assertEquals("Pain Relief", summary.getCategoryName());
+        assertEquals("paracetamol", summary.getSubCategorySlug());
+        assertEquals("/a.png", summary.getImageUrl());
+        assertEquals(3, summary.getStockQuantity());
+        verify(searchAnalytics).record("Test", 1);
+    }
+
+    @Test
+    void searchProducts_RepeatedTermIsCachedUntilProductsChange() {
+        when(productSearchService.search(anyString(), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(Collections.singletonList(product)));
+        when(categoryTree.current()).thenReturn(CategoryTree.Snapshot.of(List.of(category), List.of(subCategory)));
+
+        productService.searchProducts("Vitamin  C", PageRequest.of(0, 10));
+        Page<ProductSummary> cached = productService.searchProducts(" vitamin c", PageRequest.of(0, 10));
+        productService.searchProducts("vitamin c", PageRequest.of(1, 10));
+
+        assertEquals(1, cached.getTotalElements());
+        verify(productSearchService).search("vitamin c", PageRequest.of(0, 10));
+        verify(productSearchService).search("vitamin c", PageRequest.of(1, 10));
+        verify(searchAnalytics).record(" vitamin c", 1);
+
+        searchResultCache.onProductChanged(ProductChangedEvent.of(product));
+        productService.searchProducts("vitamin c", PageRequest.of(0, 10));
+
+        verify(productSearchService, times(2)).search("vitamin c", PageRequest.of(0, 10));
+    }
+
+    @Test
+    void getFacetedProducts_LoadsThePageSummariesNewestFirst() {
+        ProductSummary older = summary();
+        ProductSummary newer = summary();
+        newer.setId(2L);
+        newer.setStockQuantity(4);
+        when(productFacetIndex.query(Map.of(), PageRequest.of(0, 2)))
+                .thenReturn(new ProductFacetIndex.Result(List.of(2L, 1L), 9, Map.of()));
+        when(productRepository.findVisibleSummariesByIdIn(List.of(2L, 1L))).thenReturn(List.of(older, newer));
+
+        FacetedProductPage page = productService.getFacetedProducts(Map.of(), PageRequest.of(0, 2));
+
+        assertEquals(9, page.getProducts().getTotalElements());
+        assertEquals(List.of(2L, 1L), page.getProducts().getContent().stream().map(ProductSummary::getId).toList());
+        assertEquals(4, page.getProducts().getContent().get(0).getStockQuantity());
     }
 
     @Test
@@ -157,16 +436,17 @@ class ProductServiceTest {
         assertNotNull(updated);
         assertEquals("Updated Product", updated.getName());
         verify(productRepository).save(product);
+        verify(eventPublisher).publishEvent(ProductChangedEvent.of(product));
     }
 
     @Test
     void getProductsByCategory_Success() {
-        Page<Product> productPage = new PageImpl<>(Collections.singletonList(product));
-        when(categoryRepository.findBySlug("pain-relief")).thenReturn(Optional.of(category));
-        when(productRepository.findByCategoryAndIsDeletedFalseAndIsAvailableForSaleTrue(any(Category.class),
-                any(Pageable.class))).thenReturn(productPage);
+        Page<ProductSummary> summaryPage = new PageImpl<>(Collections.singletonList(summary()));
+        when(categoryTree.current()).thenReturn(CategoryTree.Snapshot.of(List.of(category), List.of()));
+        when(productRepository.findVisibleSummariesByCategory(any(Category.class),
+                any(Pageable.class))).thenReturn(summaryPage);
 
-        Page<Product> result = productService.getProductsByCategory("pain-relief",
+        Page<ProductSummary> result = productService.getProductsByCategory("pain-relief",
                 PageRequest.of(0, 10));
 
         assertNotNull(result);
@@ -175,15 +455,14 @@ class ProductServiceTest {
 
     @Test
     void getProductsByCategoryAndSubCategory_Success() {
-        Page<Product> productPage = new PageImpl<>(Collections.singletonList(product));
-        when(categoryRepository.findBySlug("pain-relief")).thenReturn(Optional.of(category));
-        when(subCategoryRepository.findBySlugAndCategory("paracetamol", category)).thenReturn(Optional.of(subCategory));
-        when(productRepository.findByCategoryAndSubCategoryInAndIsDeletedFalseAndIsAvailableForSaleTrue(
+        Page<ProductSummary> summaryPage = new PageImpl<>(Collections.singletonList(summary()));
+        when(categoryTree.current()).thenReturn(CategoryTree.Snapshot.of(List.of(category), List.of(subCategory)));
+        when(productRepository.findVisibleSummariesByCategoryAndSubCategoryIn(
                 any(Category.class),
                 anyList(),
-                any(Pageable.class))).thenReturn(productPage);
+                any(Pageable.class))).thenReturn(summaryPage);
 
-        Page<Product> result = productService.getProductsByCategoryAndSubCategory(
+        Page<ProductSummary> result = productService.getProductsByCategoryAndSubCategory(
                 "pain-relief",
                 List.of("paracetamol"),
                 PageRequest.of(0, 10));
@@ -192,6 +471,19 @@ class ProductServiceTest {
         assertEquals(1, result.getTotalElements());
     }
 
+    private static Product product(Long id, String name) {
+        Product other = new Product();
+        other.setId(id);
+        other.setName(name);
+        other.setStockQuantity(1);
+        return other;
+    }
+
+    private ProductSummary summary() {
+        return new ProductSummary(1L, "Test Product", null, "Test Manufacturer", BigDecimal.valueOf(100.0), 50,
+                false, false, null, null, null, "Pain Relief", "pain-relief", "Paracetamol", "paracetamol");
+    }
+
     @Test
     void getLowStockProducts_Success() {
         when(productRepository.findByStockQuantityLessThanAndIsDeletedFalse(anyInt())).thenReturn(Collections.singletonList(product));
@@ -0,0 +1,127 @@
+package com.pharma.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.pharma.dto.response.ProductSuggestion;
+import com.pharma.model.Product;
+import com.pharma.repository.OrderItemRepository;
+import com.pharma.repository.ProductRepository;
+
+@ExtendWith(MockitoExtension.class)
+class ProductSuggestIndexTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private OrderItemRepository orderItemRepository;
+
+    @InjectMocks
+    private ProductSuggestIndex productSuggestIndex;
+
+    private void load(List<Object[]> products, List<Object[]> sales) {
+        when(productRepository.findSuggestionSources()).thenReturn(products);
+        when(orderItemRepository.sumQuantityByProduct()).thenReturn(sales);
+        productSuggestIndex.refreshPopularity();
+    }
+
+    private List<String> texts(String query) {
+        return productSuggestIndex.suggest(query, 10).stream().map(ProductSuggestion::getText).toList();
+    }
+
+    @Test
+    void suggest_MatchesAnyWordStartRankedByUnitsSold() {
+        load(List.of(
+                new Object[] { 1L, "Dolo 650", "Micro Labs" },
+                new Object[] { 2L, "Dolomite Calcium", "HealthMeds" },
+                new Object[] { 3L, "Paracetamol 650", "Cipla" }),
+                List.<Object[]>of(new Object[] { 2L, 40L }, new Object[] { 3L, 5L }));
+
+        assertEquals(List.of("Dolomite Calcium", "Dolo 650"), texts("dolo"));
+        assertEquals(List.of("Dolo 650"), texts("DOLO 6"));
+        assertEquals(List.of("Paracetamol 650", "Dolo 650"), texts("650"));
+        assertEquals(List.of("Cipla"), texts("cip"));
+        assertTrue(texts("xyz").isEmpty());
+        assertTrue(texts("  ").isEmpty());
+    }
+
+    @Test
+    void suggest_ManufacturersAreMergedAndCarryNoProductId() {
+        load(List.of(
+                new Object[] { 1L, "Azee 500", "Cipla" },
+                new Object[] { 2L, "Ciplox Eye Drops", "CIPLA" },
+                new Object[] { 3L, "Cipzen Gel", "Other" }),
+                List.<Object[]>of(new Object[] { 1L, 3L }, new Object[] { 2L, 4L }, new Object[] { 3L, 6L }));
+
+        List<ProductSuggestion> suggestions = productSuggestIndex.suggest("cip", 10);
+
+        // Cipla sold 3 + 4 across both spellings, more than Cipzen's 6
+        assertEquals(List.of("Cipla", "Cipzen Gel", "Ciplox Eye Drops"),
+                suggestions.stream().map(ProductSuggestion::getText).toList());
+        assertEquals(ProductSuggestion.MANUFACTURER, suggestions.get(0).getType());
+        assertNull(suggestions.get(0).getProductId());
+        assertEquals(ProductSuggestion.PRODUCT, suggestions.get(1).getType());
+        assertEquals(3L, suggestions.get(1).getProductId());
+    }
+
+    @Test
+    void suggest_BroadPrefixesReturnBestRanksAndHonourLimit() {
+        List<Object[]> products = new ArrayList<>();
+        List<Object[]> sales = new ArrayList<>();
+        for (long id = 1; id <= 50; id++) {
+            products.add(new Object[] { id, "Product " + id, null });
+            sales.add(new Object[] { id, id });
+        }
+        load(products, sales);
+
+        assertEquals(List.of("Product 50", "Product 49", "Product 48"),
+                productSuggestIndex.suggest("p", 3).stream().map(ProductSuggestion::getText).toList());
+        assertEquals(ProductSuggestIndex.MAX_LIMIT, productSuggestIndex.suggest("pr", 500).size());
+        assertEquals(List.of("Product 49", "Product 48", "Product 47"),
+                productSuggestIndex.suggest("product 4", 3).stream().map(ProductSuggestion::getText).toList());
+        // Same products reached through their second word
+        assertEquals(List.of("Product 49", "Product 48", "Product 47"),
+                productSuggestIndex.suggest("4", 3).stream().map(ProductSuggestion::getText).toList());
+    }
+
+    @Test
+    void rebuild_SwapsInTheNewCatalogue() {
+        load(List.<Object[]>of(new Object[] { 1L, "Crocin", null }), List.of());
+        assertEquals(List.of("Crocin"), texts("cro"));
+
+        when(productRepository.findSuggestionSources())
+                .thenReturn(List.<Object[]>of(new Object[] { 2L, "Calpol", null }));
+        productSuggestIndex.rebuild();
+
+        assertTrue(texts("cro").isEmpty());
+        assertEquals(List.of("Calpol"), texts("cal"));
+    }
+
+    @Test
+    void onProductChanged_RebuildsKeysWithCachedPopularity() {
+        load(List.<Object[]>of(new Object[] { 1L, "Crocin", null }, new Object[] { 2L, "Calpol", null }),
+                List.<Object[]>of(new Object[] { 1L, 3L }, new Object[] { 2L, 9L }));
+
+        when(productRepository.findSuggestionSources()).thenReturn(List.<Object[]>of(
+                new Object[] { 1L, "Crocin", null }, new Object[] { 2L, "Calpol", null },
+                new Object[] { 3L, "Cetzine", null }));
+        productSuggestIndex.onProductChanged(ProductChangedEvent.of(new Product()));
+
+        assertEquals(List.of("Calpol", "Crocin", "Cetzine"), texts("c"));
+        // Sales are only aggregated on the scheduled refresh
+        verify(orderItemRepository, times(1)).sumQuantityByProduct();
+    }
+}
@@ -16,6 +16,7 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import static org.mockito.Mockito.when;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import com.pharma.model.Category;
 import com.pharma.model.SubCategory;
@@ -35,6 +36,12 @@ public class ProductUploadServiceTest {
     @Mock
     private SubCategoryRepository subCategoryRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private ProductCache productCache;
+
     @InjectMocks
     private ProductUploadService productUploadService;
 
@@ -0,0 +1,137 @@
+package com.pharma.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.pharma.exception.ResourceNotFoundException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class SingleFlightTest {
+
+    private static final int CALLERS = 8;
+
+    private SimpleMeterRegistry meterRegistry;
+    private SingleFlight singleFlight;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        singleFlight = new SingleFlight(meterRegistry);
+        executor = Executors.newFixedThreadPool(CALLERS + 1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void concurrentCallsForOneKey_ShareOneLoad() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        Object result = new Object();
+
+        Future<Object> leader = executor.submit(() -> singleFlight.load("test", 1L, () -> {
+            loads.incrementAndGet();
+            await(release);
+            return result;
+        }));
+        waitFor(() -> count("loaded") == 1);
+        List<Future<Object>> followers = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            followers.add(executor.submit(() -> singleFlight.load("test", 1L, () -> {
+                loads.incrementAndGet();
+                return new Object();
+            })));
+        }
+        waitFor(() -> count("coalesced") == CALLERS);
+        release.countDown();
+
+        assertSame(result, leader.get(5, TimeUnit.SECONDS));
+        for (Future<Object> follower : followers) {
+            assertSame(result, follower.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void differentKeysAndLaterCalls_LoadAgain() {
+        AtomicInteger loads = new AtomicInteger();
+
+        singleFlight.load("test", 1L, loads::incrementAndGet);
+        singleFlight.load("test", 2L, loads::incrementAndGet);
+        singleFlight.load("other", 1L, loads::incrementAndGet);
+        singleFlight.load("test", 1L, loads::incrementAndGet);
+
+        assertEquals(4, loads.get());
+        assertEquals(3, count("loaded"));
+        assertEquals(1, count("other", "loaded"));
+        assertEquals(0, count("coalesced"));
+    }
+
+    @Test
+    void failedLoad_IsRethrownToEveryWaiterAndNotRemembered() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        Future<Object> leader = executor.submit(() -> singleFlight.load("test", 1L, () -> {
+            await(release);
+            throw new ResourceNotFoundException("gone");
+        }));
+        waitFor(() -> count("loaded") == 1);
+        Future<Object> follower = executor.submit(() -> singleFlight.load("test", 1L, Object::new));
+        waitFor(() -> count("coalesced") == 1);
+        release.countDown();
+
+        for (Future<Object> call : List.of(leader, follower)) {
+            Exception e = assertThrows(Exception.class, () -> call.get(5, TimeUnit.SECONDS));
+            assertTrue(e.getCause() instanceof ResourceNotFoundException, e.toString());
+        }
+        assertEquals("again", singleFlight.load("test", 1L, () -> "again"));
+    }
+
+    private double count(String result) {
+        return count("test", result);
+    }
+
+    private double count(String name, String result) {
+        return meterRegistry.counter("singleflight.calls", "name", name, "result", result).count();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            if (!latch.await(5, TimeUnit.SECONDS)) {
+                fail("not released");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                fail("condition not reached");
+            }
+            Thread.sleep(5);
+        }
+    }
+}
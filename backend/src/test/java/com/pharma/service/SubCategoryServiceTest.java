@@ -33,6 +33,9 @@ class SubCategoryServiceTest {
     @Mock
     private CategoryService categoryService;
 
+    @Mock
+    private CategoryTree categoryTree;
+
     @InjectMocks
     private SubCategoryService subCategoryService;
 
@@ -61,16 +64,26 @@ class SubCategoryServiceTest {
 
     @Test
     void getSubCategoriesByCategory_ShouldReturnList() {
-        when(categoryService.getCategoryById(1L)).thenReturn(testCategory);
-        when(subCategoryRepository.findByCategory(testCategory)).thenReturn(List.of(testSubCategory));
+        when(categoryTree.current())
+                .thenReturn(CategoryTree.Snapshot.of(List.of(testCategory), List.of(testSubCategory)));
 
         List<SubCategory> result = subCategoryService.getSubCategoriesByCategory(1L);
 
         assertNotNull(result);
         assertEquals(1, result.size());
         assertEquals("SubCategory", result.get(0).getName());
-        verify(categoryService).getCategoryById(1L);
-        verify(subCategoryRepository).findByCategory(testCategory);
+        verify(subCategoryRepository, never()).findByCategory(any());
+    }
+
+    @Test
+    void getSubCategoriesByCategory_CategoryNotFound_ShouldThrowException() {
+        when(categoryTree.current()).thenReturn(CategoryTree.Snapshot.of(List.of(testCategory), List.of()));
+
+        ResourceNotFoundException exception = assertThrows(ResourceNotFoundException.class, () ->
+            subCategoryService.getSubCategoriesByCategory(2L)
+        );
+
+        assertEquals("Category not found with id: 2", exception.getMessage());
     }
 
     @Test
@@ -110,6 +123,7 @@ class SubCategoryServiceTest {
         assertEquals("New Desc", savedSubCategory.getDescription());
         assertEquals("new-subcategory", savedSubCategory.getSlug());
         assertEquals(testCategory, savedSubCategory.getCategory());
+        verify(categoryTree).invalidate();
     }
 
     @Test
@@ -128,6 +142,7 @@ class SubCategoryServiceTest {
         assertEquals("New Desc", savedSubCategory.getDescription());
         assertEquals("new-subcategory", savedSubCategory.getSlug());
         assertEquals(testCategory, savedSubCategory.getCategory());
+        verify(categoryTree).invalidate();
     }
 
     @Test
@@ -149,6 +164,7 @@ class SubCategoryServiceTest {
         subCategoryService.deleteSubCategory(1L);
 
         verify(subCategoryRepository).delete(testSubCategory);
+        verify(categoryTree).invalidate();
     }
 
     @Test
@@ -0,0 +1,92 @@
+package com.pharma.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import com.pharma.dto.response.SearchTermStatsResponse;
+
+class TermSketchTest {
+
+    @Test
+    void fewTerms_AreCountedExactlyAndRanked() {
+        TermSketch sketch = new TermSketch(4, 1024, 10);
+        add(sketch, "paracetamol", 5);
+        add(sketch, "insulin", 3);
+        add(sketch, "zinc", 1);
+
+        assertEquals(5, sketch.estimate("paracetamol"));
+        assertEquals(0, sketch.estimate("never searched"));
+        assertEquals(9, sketch.total());
+        assertEquals(List.of(Map.entry("paracetamol", 5L), Map.entry("insulin", 3L)), sketch.top(2));
+    }
+
+    @Test
+    void manyDistinctTerms_KeepMemoryBoundedAndFindHeavyHitters() {
+        int topK = 20;
+        TermSketch sketch = new TermSketch(4, 4096, topK);
+        for (int i = 0; i < 100_000; i++) {
+            sketch.add("rare " + i);
+            if (i % 100 == 0) {
+                sketch.add("hot " + (i / 100) % 5);
+            }
+            assertTrue(sketch.candidateCount() <= 2 * topK, "candidates: " + sketch.candidateCount());
+        }
+
+        List<String> top = sketch.top(5).stream().map(Map.Entry::getKey).sorted().toList();
+        assertEquals(List.of("hot 0", "hot 1", "hot 2", "hot 3", "hot 4"), top);
+        for (Map.Entry<String, Long> hot : sketch.top(5)) {
+            // never below the true 200, and within total * e / width above it
+            assertTrue(hot.getValue() >= 200 && hot.getValue() <= 200 + 101_000 * Math.E / 4096, hot.toString());
+        }
+    }
+
+    @Test
+    void concurrentAdds_LoseNothing() throws Exception {
+        TermSketch sketch = new TermSketch(4, 1024, 10);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> calls = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                calls.add(executor.submit(() -> add(sketch, "vitamin c", 10_000)));
+            }
+            for (Future<?> call : calls) {
+                call.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(80_000, sketch.estimate("vitamin c"));
+        assertEquals(80_000, sketch.total());
+    }
+
+    @Test
+    void searchAnalytics_NormalisesTermsAndTracksZeroResults() {
+        SearchAnalytics analytics = new SearchAnalytics(4, 1024, 10);
+        analytics.record("Dolo 650", 3);
+        analytics.record("  dolo   650 ", 3);
+        analytics.record("xyzzy", 0);
+        analytics.record("   ", 0);
+
+        SearchTermStatsResponse stats = analytics.stats(10);
+        assertEquals(3, stats.getTotalSearches());
+        assertEquals(1, stats.getZeroResultSearches());
+        assertEquals("dolo 650", stats.getTopSearches().get(0).getTerm());
+        assertEquals(2, stats.getTopSearches().get(0).getCount());
+        assertEquals("xyzzy", stats.getTopZeroResultSearches().get(0).getTerm());
+    }
+
+    private static void add(TermSketch sketch, String term, int times) {
+        for (int i = 0; i < times; i++) {
+            sketch.add(term);
+        }
+    }
+}
@@ -1,14 +1,14 @@
 import React, { useState } from 'react';
 import { Link } from 'react-router-dom';
 import { Loader2, Plus } from 'lucide-react';
-import { Product } from '../../types';
+import { ProductSummary } from '../../types';
 import { cartService } from '../../services/cartService';
 import { useToast } from '../../hooks/useToast';
 import { API_BASE_URL } from '../../config/env';
 import { useCartStore } from '../../stores/cartStore';
 
 interface ProductCardProps {
-    product: Product;
+    product: ProductSummary;
 }
 
 const ProductCard: React.FC<ProductCardProps> = ({ product }) => {
@@ -56,9 +56,9 @@ const ProductCard: React.FC<ProductCardProps> = ({ product }) => {
     return (
         <div className="group bg-white rounded-2xl shadow-sm hover:shadow-xl transition-all duration-300 flex flex-col h-full border border-gray-100 overflow-hidden relative">
             <div className="aspect-w-1 aspect-h-1 w-full overflow-hidden bg-gray-100 relative group-hover:opacity-95 transition-opacity">
-                {product.imageUrls && product.imageUrls.length > 0 ? (
+                {product.imageUrl ? (
                     <img
-                        src={`${API_BASE_URL}${product.imageUrls[0]}`}
+                        src={`${API_BASE_URL}${product.imageUrl}`}
                         alt={product.name}
                         className="w-full h-48 object-cover object-center"
                         onError={(e) => {
@@ -94,11 +94,11 @@ const ProductCard: React.FC<ProductCardProps> = ({ product }) => {
             <div className="p-5 flex-grow flex flex-col">
                 <div className="mb-2 flex items-center justify-between">
                     <span className="text-xs font-medium text-primary-600 uppercase tracking-wide">
-                        {product.category.name}
+                        {product.categoryName}
                     </span>
-                    {product.subCategory && (
+                    {product.subCategoryName && (
                         <span className="text-xs font-semibold text-gray-500 bg-gray-100 px-2 py-0.5 rounded-full">
-                            {product.subCategory.name}
+                            {product.subCategoryName}
                         </span>
                     )}
                 </div>
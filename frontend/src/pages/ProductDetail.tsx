@@ -2,7 +2,8 @@ import React, { useEffect, useState } from 'react';
 import { useParams, useNavigate } from 'react-router-dom';
 import { productService } from '../services/productService';
 import { cartService } from '../services/cartService';
-import { Product } from '../types';
+import ProductCard from '../components/products/ProductCard';
+import { ProductPage } from '../types';
 import { authService } from '../services/authService';
 import { useToast } from '../hooks/useToast';
 import { API_BASE_URL } from '../config/env';
@@ -10,7 +11,7 @@ import { API_BASE_URL } from '../config/env';
 const ProductDetail: React.FC = () => {
   const { id } = useParams<{ id: string }>();
   const navigate = useNavigate();
-  const [product, setProduct] = useState<Product | null>(null);
+  const [page, setPage] = useState<ProductPage | null>(null);
   const [loading, setLoading] = useState(true);
   const [error, setError] = useState<string | null>(null);
   const [quantity, setQuantity] = useState(1);
@@ -27,9 +28,11 @@ const ProductDetail: React.FC = () => {
   const fetchProduct = async (productId: number) => {
     try {
       setLoading(true);
-      const data = await productService.getProductById(productId);
+      const data = await productService.getProductPage(productId);
       if (data && data.data) {
-        setProduct(data.data);
+        setPage(data.data);
+        setSelectedImageIndex(0);
+        setQuantity(1);
       } else {
         setError('Product not found');
       }
@@ -42,6 +45,7 @@ const ProductDetail: React.FC = () => {
   };
 
   const { success, error: errorToast } = useToast();
+  const product = page?.product;
 
   const handleAddToCart = async () => {
     if (!authService.getCurrentUser()) {
@@ -173,7 +177,7 @@ const ProductDetail: React.FC = () => {
           <div className="p-8 lg:p-12 flex flex-col">
             <div className="mb-2">
               <span className="text-sm font-semibold text-primary-600 uppercase tracking-wide">
-                {product.category?.name || 'Unknown Category'}
+                {page?.categoryName || 'Unknown Category'}
               </span>
             </div>
 
@@ -196,6 +200,9 @@ const ProductDetail: React.FC = () => {
                 <p className="text-green-700 mb-4">
                   Buy <span className="font-bold underline">{product.bundleBuyQuantity} units</span> and get <span className="font-bold underline text-green-800">{product.bundleFreeQuantity} units FREE</span>!
                   Total <span className="font-bold">{product.bundleBuyQuantity! + product.bundleFreeQuantity!} items</span> for just <span className="font-bold text-xl text-green-900">${product.bundlePrice?.toFixed(2)}</span>
+                  {page?.bundle && page.bundle.savings > 0 && (
+                    <> (save <span className="font-bold">${page.bundle.savings.toFixed(2)}</span>)</>
+                  )}
                 </p>
                 <button
                   onClick={handleAddToCartBundle}
@@ -271,6 +278,19 @@ const ProductDetail: React.FC = () => {
         </div>
       </div>
 
+      {page && page.related.length > 0 && (
+        <div className="mt-12">
+          <h2 className="text-2xl font-bold text-gray-900 mb-6">
+            More in {page.subCategoryName || page.categoryName}
+          </h2>
+          <div className="grid grid-cols-1 gap-y-10 sm:grid-cols-2 gap-x-6 lg:grid-cols-4 xl:gap-x-8">
+            {page.related.map((related) => (
+              <ProductCard key={related.id} product={related} />
+            ))}
+          </div>
+        </div>
+      )}
+
       <div className="mt-8">
         <button
           onClick={() => navigate('/products')}
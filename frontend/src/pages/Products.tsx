@@ -2,13 +2,13 @@ import React, { useEffect, useState } from 'react';
 import { useLocation, useNavigate } from 'react-router-dom';
 import { productService } from '../services/productService';
 import { categoryService } from '../services/categoryService';
-import { Category, Product, SubCategory } from '../types';
+import { Category, ProductSummary, SubCategory } from '../types';
 import ProductCard from '../components/products/ProductCard';
 
 const Products: React.FC = () => {
   const location = useLocation();
   const navigate = useNavigate();
-  const [products, setProducts] = useState<Product[]>([]);
+  const [products, setProducts] = useState<ProductSummary[]>([]);
   const [loading, setLoading] = useState(true);
   const [error, setError] = useState<string | null>(null);
   const [page, setPage] = useState(0);
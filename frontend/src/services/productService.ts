@@ -1,5 +1,21 @@
 import api from './api';
-import { Product, ApiResponse, PageResponse } from '../types';
+import { Product, ProductBatch, ProductPage, ProductSummary, ApiResponse, PageResponse } from '../types';
+
+// Page size of the pre-rendered catalogue under /catalog/ (app.catalog.snapshot.page-size)
+const SNAPSHOT_PAGE_SIZE = 12;
+
+// A pre-rendered page served by nginx, or null when there is none (dev server, snapshot disabled, page out of range)
+const getSnapshotPage = async (path: string): Promise<ApiResponse<PageResponse<ProductSummary>> | null> => {
+  try {
+    const response = await fetch(`/catalog/${path}`);
+    if (response.ok) {
+      return await response.json();
+    }
+  } catch {
+    // not JSON or not reachable: ask the API
+  }
+  return null;
+};
 
 export const productService = {
   getAllProductsAdmin: async (page = 0, size = 100) => {
@@ -10,7 +26,11 @@ export const productService = {
   },
 
   getAllProducts: async (page = 0, size = 12) => {
-    const response = await api.get<ApiResponse<PageResponse<Product>>>('/products', {
+    const snapshot = size === SNAPSHOT_PAGE_SIZE ? await getSnapshotPage(`products/page-${page}.json`) : null;
+    if (snapshot) {
+      return snapshot;
+    }
+    const response = await api.get<ApiResponse<PageResponse<ProductSummary>>>('/products', {
       params: { page, size },
     });
     return response.data;
@@ -21,14 +41,36 @@ export const productService = {
     return response.data;
   },
 
+  // Product, category names, bundle quote and related products in one request
+  getProductPage: async (id: number, related = 4) => {
+    const response = await api.get<ApiResponse<ProductPage>>(`/products/${id}/page`, {
+      params: { related },
+    });
+    return response.data;
+  },
+
+  // Many products in one request; long id lists go in a POST body instead of the URL
+  getProductsByIds: async (ids: number[]) => {
+    const response = ids.length > 100
+      ? await api.post<ApiResponse<ProductBatch>>('/products/batch', ids)
+      : await api.get<ApiResponse<ProductBatch>>('/products/batch', { params: { ids: ids.join(',') } });
+    return response.data;
+  },
+
   searchProducts: async (query: string, page = 0, size = 12) => {
-    const response = await api.get<ApiResponse<PageResponse<Product>>>('/products/search', {
+    const response = await api.get<ApiResponse<PageResponse<ProductSummary>>>('/products/search', {
       params: { query, page, size },
     });
     return response.data;
   },
 
   getProductsByCategory: async (category: string, page = 0, size = 12, subCategories?: string[]) => {
+    if (size === SNAPSHOT_PAGE_SIZE && !(subCategories && subCategories.length > 0)) {
+      const snapshot = await getSnapshotPage(`category/${encodeURIComponent(category)}/page-${page}.json`);
+      if (snapshot) {
+        return snapshot;
+      }
+    }
     // If subCategories is provided and not empty, pass it as a parameter, otherwise omit it.
     // Axios will automatically stringify the array as subCategory=A&subCategory=B
     const params: any = { page, size };
@@ -36,7 +78,7 @@ export const productService = {
       params.subCategory = subCategories.join(',');
     }
     console.log("Fetching by category:", category, "params:", params, "subCategories provided:", subCategories);
-    const response = await api.get<ApiResponse<PageResponse<Product>>>(`/products/category/${category}`, {
+    const response = await api.get<ApiResponse<PageResponse<ProductSummary>>>(`/products/category/${category}`, {
       params,
     });
     return response.data;
@@ -51,6 +51,50 @@ export interface Product {
   bundlePrice?: number;
 }
 
+// GET /api/products/{id}/page: everything the product page shows
+export interface ProductPage {
+  product: Product;
+  categoryName: string;
+  categorySlug: string;
+  subCategoryName?: string;
+  subCategorySlug?: string;
+  inStock: boolean;
+  bundle?: {
+    quantity: number;
+    freeQuantity: number;
+    price: number;
+    listPrice: number;
+    savings: number;
+    available: boolean;
+  };
+  related: ProductSummary[];
+}
+
+export interface ProductBatch {
+  products: Product[];
+  missingIds: number[];
+}
+
+// Storefront listing card: flat category names and the first image only
+export interface ProductSummary {
+  id: number;
+  name: string;
+  description?: string;
+  manufacturer?: string;
+  price: number;
+  stockQuantity: number;
+  isPrescriptionRequired: boolean;
+  isBundleOffer: boolean;
+  bundleBuyQuantity?: number;
+  bundleFreeQuantity?: number;
+  bundlePrice?: number;
+  categoryName: string;
+  categorySlug: string;
+  subCategoryName?: string;
+  subCategorySlug?: string;
+  imageUrl?: string;
+}
+
 export interface Category {
   id: number;
   name: string;
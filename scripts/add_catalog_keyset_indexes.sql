@@ -0,0 +1,14 @@
+-- Composite indexes backing keyset (cursor) pagination of the storefront listings.
+-- Each matches WHERE is_deleted = false AND is_available_for_sale = true ORDER BY <key> DESC, id DESC.
+CREATE INDEX IF NOT EXISTS idx_products_listing_id      ON products (is_deleted, is_available_for_sale, id);
+CREATE INDEX IF NOT EXISTS idx_products_listing_name    ON products (is_deleted, is_available_for_sale, name, id);
+CREATE INDEX IF NOT EXISTS idx_products_listing_price   ON products (is_deleted, is_available_for_sale, price, id);
+CREATE INDEX IF NOT EXISTS idx_products_listing_created ON products (is_deleted, is_available_for_sale, created_at, id);
+CREATE INDEX IF NOT EXISTS idx_products_category_listing ON products (category_id, is_deleted, is_available_for_sale, id);
+
+-- stock_quantity is not indexed: every checkout decrements it, and an index on it would cost
+-- each sale a B-tree update and rule out HOT updates. Stock sorts scan the listing filter instead.
+DROP INDEX IF EXISTS idx_products_listing_stock;
+
+-- Delta sync (GET /api/products/changes): every row, deleted and hidden included, after an (updated_at, id) watermark.
+CREATE INDEX IF NOT EXISTS idx_products_updated ON products (updated_at, id);
@@ -0,0 +1,13 @@
+CREATE TABLE IF NOT EXISTS idempotency_keys (
+    id              BIGSERIAL PRIMARY KEY,
+    owner           VARCHAR(255)  NOT NULL,
+    idempotency_key VARCHAR(255)  NOT NULL,
+    request_hash    VARCHAR(64)   NOT NULL,
+    status          VARCHAR(20)   NOT NULL,
+    response_body   TEXT,
+    locked_until    TIMESTAMP(6)  NOT NULL,
+    created_at      TIMESTAMP(6)  NOT NULL,
+    expires_at      TIMESTAMP(6)  NOT NULL,
+    CONSTRAINT uk_idempotency_keys_owner_key UNIQUE (owner, idempotency_key)
+);
+CREATE INDEX IF NOT EXISTS idx_idempotency_keys_expires_at ON idempotency_keys (expires_at);
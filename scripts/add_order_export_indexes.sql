@@ -0,0 +1,9 @@
+-- Indexes behind the admin order export filters (GET /api/admin/orders/export).
+-- Date range over every customer, and one customer's orders in a date range.
+CREATE INDEX IF NOT EXISTS idx_orders_order_date ON orders (order_date);
+CREATE INDEX IF NOT EXISTS idx_orders_user_date  ON orders (user_id, order_date);
+
+-- Case-insensitive substring match on the customer email: LOWER(email) LIKE '%part%'.
+-- A trigram GIN index serves patterns with at least three characters; shorter ones scan users.
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE INDEX IF NOT EXISTS idx_users_email_trgm ON users USING GIN (lower(email) gin_trgm_ops);
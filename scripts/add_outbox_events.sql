@@ -0,0 +1,13 @@
+CREATE TABLE IF NOT EXISTS outbox_events (
+    id              BIGSERIAL PRIMARY KEY,
+    event_type      VARCHAR(50)   NOT NULL,
+    aggregate_id    BIGINT        NOT NULL,
+    payload         VARCHAR(255),
+    status          VARCHAR(20)   NOT NULL DEFAULT 'PENDING',
+    attempts        INTEGER       NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP(6)  NOT NULL,
+    last_error      VARCHAR(1000),
+    created_at      TIMESTAMP(6)  NOT NULL,
+    processed_at    TIMESTAMP(6)
+);
+CREATE INDEX IF NOT EXISTS idx_outbox_events_status_next_attempt ON outbox_events (status, next_attempt_at);
@@ -0,0 +1,12 @@
+-- Weighted full-text search over products (PostgreSQL 12+).
+-- The generated column is maintained by the database on every INSERT/UPDATE:
+--   A = name, B = manufacturer, C = description.
+-- 'simple' keeps drug and brand names unstemmed.
+ALTER TABLE products ADD COLUMN IF NOT EXISTS search_vector tsvector
+    GENERATED ALWAYS AS (
+        setweight(to_tsvector('simple', coalesce(name, '')), 'A') ||
+        setweight(to_tsvector('simple', coalesce(manufacturer, '')), 'B') ||
+        setweight(to_tsvector('simple', coalesce(description, '')), 'C')
+    ) STORED;
+
+CREATE INDEX IF NOT EXISTS idx_products_search_vector ON products USING GIN (search_vector);
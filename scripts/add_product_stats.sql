@@ -0,0 +1,6 @@
+-- Per-product view counters, flushed in batches by ProductViewCounter (MERGE needs PostgreSQL 15+)
+CREATE TABLE IF NOT EXISTS product_stats (
+    product_id  BIGINT       PRIMARY KEY,
+    view_count  BIGINT       NOT NULL DEFAULT 0,
+    updated_at  TIMESTAMP(6)
+);